@@ -0,0 +1,144 @@
+package org.sagebionetworks.bridge.reporter.fake;
+
+import java.util.Random;
+
+import org.joda.time.DateTime;
+
+import org.sagebionetworks.bridge.rest.model.AccountStatus;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.StudyList;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+
+/**
+ * Deterministic synthetic data for the fake Bridge server and the benchmarks. Every study has the same number of
+ * uploads and participants. Each record is generated on demand from the seed, the study ID, and the record's index, so
+ * the same request always gets the same answer and nothing is held in memory, even at millions of uploads.
+ *
+ * Every upload query gets the configured number of uploads, spread over the requested time window.
+ */
+public class FakeBridgeData {
+    static final String STUDY_ID_PREFIX = "study";
+    static final String USER_ID_PREFIX = "user";
+    static final DateTime CREATED_ON = DateTime.parse("2018-01-01T00:00:00.000Z");
+
+    private static final AccountStatus[] ACCOUNT_STATUSES = AccountStatus.values();
+    private static final SharingScope[] SHARING_SCOPES = SharingScope.values();
+    private static final UploadStatus[] UPLOAD_STATUSES = UploadStatus.values();
+    private static final int MAX_UPLOAD_DURATION_MILLIS = 60000;
+
+    private final long seed;
+    private final int numStudies;
+    private final int numUploadsPerStudy;
+    private final int numParticipantsPerStudy;
+
+    /** Creates synthetic data with the given seed, number of studies, and uploads and participants per study. */
+    public FakeBridgeData(long seed, int numStudies, int numUploadsPerStudy, int numParticipantsPerStudy) {
+        this.seed = seed;
+        this.numStudies = numStudies;
+        this.numUploadsPerStudy = numUploadsPerStudy;
+        this.numParticipantsPerStudy = numParticipantsPerStudy;
+    }
+
+    /** Number of uploads returned for each study and time window. */
+    public int getNumUploadsPerStudy() {
+        return numUploadsPerStudy;
+    }
+
+    /** Number of participants in each study. */
+    public int getNumParticipantsPerStudy() {
+        return numParticipantsPerStudy;
+    }
+
+    /** All studies, named study0, study1, etc. */
+    public StudyList getStudies() {
+        StudyList studyList = new StudyList();
+        for (int i = 0; i < numStudies; i++) {
+            String studyId = STUDY_ID_PREFIX + i;
+            studyList.addItemsItem(new Study().identifier(studyId).name(studyId));
+        }
+        return studyList;
+    }
+
+    /**
+     * One page of uploads for the given study and time window. The offset key is the index of the first upload in the
+     * page, or null for the first page.
+     */
+    public UploadList getUploads(String studyId, DateTime startTime, DateTime endTime, int pageSize,
+            String offsetKey) {
+        int offset = offsetKey != null ? Integer.parseInt(offsetKey) : 0;
+        int end = Math.min(offset + pageSize, numUploadsPerStudy);
+
+        UploadList uploadList = new UploadList();
+        for (int i = offset; i < end; i++) {
+            uploadList.addItemsItem(getUpload(studyId, i, startTime, endTime));
+        }
+        if (end < numUploadsPerStudy) {
+            uploadList.setNextPageOffsetKey(String.valueOf(end));
+        }
+        return uploadList;
+    }
+
+    /** The upload at the given index, requested at some point in the given time window. */
+    public Upload getUpload(String studyId, int index, DateTime startTime, DateTime endTime) {
+        Random random = randomFor(studyId, index);
+        long windowMillis = Math.max(1L, endTime.getMillis() - startTime.getMillis());
+        DateTime requestedOn = startTime.plus((long) (random.nextDouble() * windowMillis));
+        return new Upload().uploadId(studyId + "-upload" + index).recordId(studyId + "-record" + index)
+                .healthCode("healthCode" + random.nextInt(Math.max(1, numParticipantsPerStudy)))
+                .status(UPLOAD_STATUSES[random.nextInt(UPLOAD_STATUSES.length)]).requestedOn(requestedOn)
+                .completedOn(requestedOn.plusMillis(random.nextInt(MAX_UPLOAD_DURATION_MILLIS)));
+    }
+
+    /** One page of account summaries for the given study, with the total number of participants. */
+    public AccountSummaryList getParticipants(String studyId, int offsetBy, int pageSize) {
+        int end = Math.min(offsetBy + pageSize, numParticipantsPerStudy);
+
+        AccountSummaryList accountSummaryList = new AccountSummaryList();
+        for (int i = offsetBy; i < end; i++) {
+            accountSummaryList.addItemsItem(getAccountSummary(studyId, i));
+        }
+        accountSummaryList.setTotal(numParticipantsPerStudy);
+        return accountSummaryList;
+    }
+
+    /** The account summary at the given index. Its status matches the participant's. */
+    public AccountSummary getAccountSummary(String studyId, int index) {
+        Random random = randomFor(studyId, -index - 1);
+        return new AccountSummary().id(USER_ID_PREFIX + index)
+                .status(ACCOUNT_STATUSES[random.nextInt(ACCOUNT_STATUSES.length)]).createdOn(CREATED_ON);
+    }
+
+    /** Full participant details for the given user ID, or null if there is no such participant. */
+    public StudyParticipant getParticipant(String studyId, String userId) {
+        int index = parseUserIndex(userId);
+        if (index < 0 || index >= numParticipantsPerStudy) {
+            return null;
+        }
+
+        Random random = randomFor(studyId, -index - 1);
+        return new StudyParticipant().id(userId).status(ACCOUNT_STATUSES[random.nextInt(ACCOUNT_STATUSES.length)])
+                .sharingScope(SHARING_SCOPES[random.nextInt(SHARING_SCOPES.length)]).createdOn(CREATED_ON);
+    }
+
+    // Uploads use non-negative indexes and participants use negative ones, so they never share a random stream.
+    private Random randomFor(String studyId, int index) {
+        return new Random(seed * 31 * 31 + studyId.hashCode() * 31L + index);
+    }
+
+    private static int parseUserIndex(String userId) {
+        if (userId == null || !userId.startsWith(USER_ID_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(userId.substring(USER_ID_PREFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
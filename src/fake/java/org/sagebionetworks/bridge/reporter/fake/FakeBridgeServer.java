@@ -0,0 +1,267 @@
+package org.sagebionetworks.bridge.reporter.fake;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.reporter.helper.BridgeEndpoint;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.Message;
+import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+
+/**
+ * In-process HTTP stand-in for the Bridge endpoints that BridgeHelper calls, for load testing the reporter locally.
+ * Data comes from {@link FakeBridgeData}. Each endpoint can be given its own latency and 429/5xx rates, and the server
+ * caps page sizes the way Bridge does. Saved reports are kept in memory, so they can be read back.
+ *
+ * Sign-in always succeeds. Nothing is authenticated.
+ */
+public class FakeBridgeServer {
+    private static final Logger LOG = LoggerFactory.getLogger(FakeBridgeServer.class);
+
+    private static final String METHOD_GET = "GET";
+    private static final String METHOD_POST = "POST";
+    private static final int HTTP_STATUS_OK = 200;
+    private static final int HTTP_STATUS_CREATED = 201;
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+    private static final int HTTP_STATUS_SERVER_ERROR = 500;
+    private static final String SESSION_TOKEN = "fake-bridge-session";
+
+    private static final Pattern SIGN_IN_PATTERN = Pattern.compile("^/v\\d+/auth/signIn$");
+    private static final Pattern STUDIES_PATTERN = Pattern.compile("^/v3/studies$");
+    private static final Pattern UPLOADS_PATTERN = Pattern.compile("^/v3/studies/([^/]+)/uploads$");
+    private static final Pattern PARTICIPANTS_PATTERN = Pattern.compile("^/v3/studies/([^/]+)/participants$");
+    private static final Pattern PARTICIPANT_PATTERN = Pattern.compile(
+            "^/v3/studies/([^/]+)/participants/([^/]+)$");
+    private static final Pattern REPORTS_PATTERN = Pattern.compile("^/v3/studies/([^/]+)/reports/([^/]+)$");
+
+    private final FakeBridgeData data;
+    private final Map<BridgeEndpoint, FakeEndpointBehavior> behaviorMap;
+    private final int port;
+    private final int maxPageSize;
+    private final int numThreads;
+    private final Map<BridgeEndpoint, AtomicLong> requestCountMap = new EnumMap<>(BridgeEndpoint.class);
+
+    // Saved reports, keyed by study ID and report ID, then by date. ISO dates sort chronologically as strings.
+    private final Map<String, NavigableMap<String, ReportData>> reportMap = new ConcurrentHashMap<>();
+
+    private HttpServer httpServer;
+    private ExecutorService executorService;
+
+    /**
+     * Creates a fake Bridge server. Call {@link #start} to start serving.
+     *
+     * @param data
+     *         synthetic data to serve
+     * @param behaviorMap
+     *         latency and failure behavior for each endpoint; endpoints not in the map are instant and never fail
+     * @param port
+     *         port to listen on, or 0 to pick a free port
+     * @param maxPageSize
+     *         page sizes requested by the client are capped at this
+     * @param numThreads
+     *         number of requests served at once; simulated latency holds a thread, so this bounds concurrency
+     */
+    public FakeBridgeServer(FakeBridgeData data, Map<BridgeEndpoint, FakeEndpointBehavior> behaviorMap, int port,
+            int maxPageSize, int numThreads) {
+        this.data = data;
+        this.behaviorMap = ImmutableMap.copyOf(behaviorMap);
+        this.port = port;
+        this.maxPageSize = maxPageSize;
+        this.numThreads = numThreads;
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            requestCountMap.put(endpoint, new AtomicLong());
+        }
+    }
+
+    /** Starts listening on localhost. */
+    public synchronized void start() throws IOException {
+        executorService = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("fake-bridge-%d").setDaemon(true).build());
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(executorService);
+        httpServer.start();
+        LOG.info("Fake Bridge server listening on port {}", getPort());
+    }
+
+    /** Stops the server, abandoning any calls in progress. */
+    public synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executorService.shutdownNow();
+            httpServer = null;
+        }
+    }
+
+    /** Port the server is listening on. Only valid after the server is started. */
+    public synchronized int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /** Number of calls made to the given endpoint, including failed ones. */
+    public long getRequestCount(BridgeEndpoint endpoint) {
+        return requestCountMap.get(endpoint).get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (RuntimeException ex) {
+            LOG.error("Fake Bridge server error handling {}: {}", exchange.getRequestURI(), ex.getMessage(), ex);
+            sendJson(exchange, HTTP_STATUS_SERVER_ERROR, errorBody(HTTP_STATUS_SERVER_ERROR, ex.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        Matcher matcher;
+        if (METHOD_POST.equals(method) && SIGN_IN_PATTERN.matcher(path).matches()) {
+            sendJson(exchange, HTTP_STATUS_OK, ImmutableMap.of("authenticated", true, "consented", true,
+                    "sessionToken", SESSION_TOKEN, "type", "UserSessionInfo"));
+        } else if (METHOD_GET.equals(method) && STUDIES_PATTERN.matcher(path).matches()) {
+            if (beginCall(exchange, BridgeEndpoint.GET_STUDIES)) {
+                sendJson(exchange, HTTP_STATUS_OK, data.getStudies());
+            }
+        } else if (METHOD_GET.equals(method) && (matcher = UPLOADS_PATTERN.matcher(path)).matches()) {
+            if (beginCall(exchange, BridgeEndpoint.GET_UPLOADS)) {
+                sendJson(exchange, HTTP_STATUS_OK, data.getUploads(matcher.group(1),
+                        DateTime.parse(queryParams.get("startTime")), DateTime.parse(queryParams.get("endTime")),
+                        getPageSize(queryParams), queryParams.get("offsetKey")));
+            }
+        } else if (METHOD_GET.equals(method) && (matcher = PARTICIPANTS_PATTERN.matcher(path)).matches()) {
+            if (beginCall(exchange, BridgeEndpoint.GET_PARTICIPANTS)) {
+                String offsetBy = queryParams.get("offsetBy");
+                sendJson(exchange, HTTP_STATUS_OK, data.getParticipants(matcher.group(1),
+                        offsetBy != null ? Integer.parseInt(offsetBy) : 0, getPageSize(queryParams)));
+            }
+        } else if (METHOD_GET.equals(method) && (matcher = PARTICIPANT_PATTERN.matcher(path)).matches()) {
+            if (beginCall(exchange, BridgeEndpoint.GET_PARTICIPANT_BY_ID)) {
+                StudyParticipant participant = data.getParticipant(matcher.group(1), matcher.group(2));
+                if (participant != null) {
+                    sendJson(exchange, HTTP_STATUS_OK, participant);
+                } else {
+                    sendJson(exchange, HTTP_STATUS_NOT_FOUND, errorBody(HTTP_STATUS_NOT_FOUND,
+                            "Account not found."));
+                }
+            }
+        } else if (METHOD_POST.equals(method) && (matcher = REPORTS_PATTERN.matcher(path)).matches()) {
+            if (beginCall(exchange, BridgeEndpoint.SAVE_REPORT)) {
+                ReportData reportData;
+                try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                    reportData = RestUtils.GSON.fromJson(reader, ReportData.class);
+                }
+                reportMap.computeIfAbsent(reportKey(matcher.group(1), matcher.group(2)),
+                        key -> new ConcurrentSkipListMap<>()).put(reportData.getDate(), reportData);
+                sendJson(exchange, HTTP_STATUS_CREATED, new Message().message("Report data saved."));
+            }
+        } else if (METHOD_GET.equals(method) && (matcher = REPORTS_PATTERN.matcher(path)).matches()) {
+            if (beginCall(exchange, BridgeEndpoint.GET_REPORTS)) {
+                ReportDataList reportDataList = new ReportDataList();
+                NavigableMap<String, ReportData> reportsByDate = reportMap.get(reportKey(matcher.group(1),
+                        matcher.group(2)));
+                if (reportsByDate != null) {
+                    reportsByDate.subMap(queryParams.get("startDate"), true, queryParams.get("endDate"), true)
+                            .values().forEach(reportDataList::addItemsItem);
+                }
+                sendJson(exchange, HTTP_STATUS_OK, reportDataList);
+            }
+        } else {
+            sendJson(exchange, HTTP_STATUS_NOT_FOUND, errorBody(HTTP_STATUS_NOT_FOUND,
+                    "Fake Bridge server doesn't support " + method + " " + path));
+        }
+    }
+
+    // Counts the call, applies the endpoint's latency, and maybe fails it. Returns false if the call was failed, in
+    // which case the response has already been sent.
+    private boolean beginCall(HttpExchange exchange, BridgeEndpoint endpoint) throws IOException {
+        requestCountMap.get(endpoint).incrementAndGet();
+
+        FakeEndpointBehavior behavior = behaviorMap.getOrDefault(endpoint, FakeEndpointBehavior.NONE);
+        long latencyMillis = behavior.nextLatencyMillis();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted simulating latency", ex);
+            }
+        }
+
+        int faultStatus = behavior.nextFaultStatus();
+        if (faultStatus != 0) {
+            sendJson(exchange, faultStatus, errorBody(faultStatus, "Injected failure for " + endpoint.getName()));
+            return false;
+        }
+        return true;
+    }
+
+    private int getPageSize(Map<String, String> queryParams) {
+        String pageSize = queryParams.get("pageSize");
+        return pageSize != null ? Math.min(Integer.parseInt(pageSize), maxPageSize) : maxPageSize;
+    }
+
+    private static String reportKey(String studyId, String reportId) {
+        return studyId + ":" + reportId;
+    }
+
+    private static Map<String, Object> errorBody(int statusCode, String message) {
+        return ImmutableMap.of("statusCode", statusCode, "message", String.valueOf(message));
+    }
+
+    private static void sendJson(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        byte[] bytes = RestUtils.GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> queryParams = new HashMap<>();
+        if (rawQuery == null) {
+            return queryParams;
+        }
+        for (String param : rawQuery.split("&")) {
+            int equalsIndex = param.indexOf('=');
+            if (equalsIndex > 0) {
+                queryParams.put(URLDecoder.decode(param.substring(0, equalsIndex), "UTF-8"),
+                        URLDecoder.decode(param.substring(equalsIndex + 1), "UTF-8"));
+            }
+        }
+        return queryParams;
+    }
+}
@@ -0,0 +1,52 @@
+package org.sagebionetworks.bridge.reporter.fake;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import org.sagebionetworks.bridge.config.Config;
+import org.sagebionetworks.bridge.reporter.helper.BridgeEndpoint;
+
+/**
+ * Starts the fake Bridge server, for load testing locally. This is only on the test and benchmark classpaths, so it's
+ * never part of the reporter artifact. It's picked up by the reporter's component scan, and only starts the server if
+ * reporter.fake.bridge.enabled is true. SpringConfig then points the rest client at the server.
+ */
+@Configuration("fakeBridgeConfig")
+public class FakeBridgeSpringConfig {
+    @Bean(name = "fakeBridgeServer", destroyMethod = "stop")
+    public FakeBridgeServer fakeBridgeServer(@Qualifier("reporterConfigProperties") Config config)
+            throws IOException {
+        FakeBridgeData data = new FakeBridgeData(config.getInt("reporter.fake.bridge.seed"),
+                config.getInt("reporter.fake.bridge.studies"), config.getInt("reporter.fake.bridge.uploads.per.study"),
+                config.getInt("reporter.fake.bridge.participants.per.study"));
+
+        Map<BridgeEndpoint, FakeEndpointBehavior> behaviorMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            long minLatencyMillis = Long.parseLong(getFakeBridgeProperty(config, endpoint, "latency.min.millis"));
+            long meanExtraLatencyMillis = Long.parseLong(getFakeBridgeProperty(config, endpoint,
+                    "latency.mean.extra.millis"));
+            double throttleRate = Double.parseDouble(getFakeBridgeProperty(config, endpoint, "throttle.rate"));
+            double errorRate = Double.parseDouble(getFakeBridgeProperty(config, endpoint, "error.rate"));
+            behaviorMap.put(endpoint, new FakeEndpointBehavior(minLatencyMillis, meanExtraLatencyMillis,
+                    throttleRate, errorRate));
+        }
+
+        FakeBridgeServer server = new FakeBridgeServer(data, behaviorMap, config.getInt("reporter.fake.bridge.port"),
+                config.getInt("reporter.fake.bridge.max.page.size"), config.getInt("reporter.fake.bridge.threads"));
+        if (Boolean.parseBoolean(config.get("reporter.fake.bridge.enabled"))) {
+            server.start();
+        }
+        return server;
+    }
+
+    // Per-endpoint fake Bridge setting, falling back to the default for all endpoints.
+    private static String getFakeBridgeProperty(Config config, BridgeEndpoint endpoint, String suffix) {
+        String value = config.get("reporter.fake.bridge." + endpoint.getName() + "." + suffix);
+        return value != null ? value : config.get("reporter.fake.bridge.default." + suffix);
+    }
+}
@@ -0,0 +1,69 @@
+package org.sagebionetworks.bridge.reporter.fake;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How the fake Bridge server behaves for one endpoint: how long calls take, and how often they fail. Latency is a
+ * fixed minimum plus an exponentially distributed extra, which gives the long tail real services have. Each call is
+ * throttled (429) with the throttle rate probability, and fails with a server error (503) with the error rate
+ * probability.
+ */
+public class FakeEndpointBehavior {
+    /** Instant, and never fails. */
+    public static final FakeEndpointBehavior NONE = new FakeEndpointBehavior(0, 0, 0.0, 0.0);
+
+    static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+    static final int HTTP_STATUS_SERVICE_UNAVAILABLE = 503;
+
+    private final long minLatencyMillis;
+    private final long meanExtraLatencyMillis;
+    private final double throttleRate;
+    private final double errorRate;
+
+    /**
+     * Creates an endpoint behavior.
+     *
+     * @param minLatencyMillis
+     *         every call takes at least this long
+     * @param meanExtraLatencyMillis
+     *         mean of the exponentially distributed latency added to the minimum
+     * @param throttleRate
+     *         probability, from 0 to 1, that a call is throttled with a 429
+     * @param errorRate
+     *         probability, from 0 to 1, that a call fails with a 503
+     */
+    public FakeEndpointBehavior(long minLatencyMillis, long meanExtraLatencyMillis, double throttleRate,
+            double errorRate) {
+        checkArgument(minLatencyMillis >= 0, "minLatencyMillis must be non-negative");
+        checkArgument(meanExtraLatencyMillis >= 0, "meanExtraLatencyMillis must be non-negative");
+        checkArgument(throttleRate >= 0 && errorRate >= 0 && throttleRate + errorRate <= 1.0,
+                "throttleRate and errorRate must be non-negative and add up to at most 1");
+        this.minLatencyMillis = minLatencyMillis;
+        this.meanExtraLatencyMillis = meanExtraLatencyMillis;
+        this.throttleRate = throttleRate;
+        this.errorRate = errorRate;
+    }
+
+    /** Picks how long the next call should take, in milliseconds. */
+    public long nextLatencyMillis() {
+        if (meanExtraLatencyMillis == 0) {
+            return minLatencyMillis;
+        }
+        double uniform = ThreadLocalRandom.current().nextDouble();
+        return minLatencyMillis + (long) (-meanExtraLatencyMillis * Math.log(1.0 - uniform));
+    }
+
+    /** Picks whether the next call fails. Returns the HTTP status to fail with, or 0 if the call should succeed. */
+    public int nextFaultStatus() {
+        double uniform = ThreadLocalRandom.current().nextDouble();
+        if (uniform < throttleRate) {
+            return HTTP_STATUS_TOO_MANY_REQUESTS;
+        } else if (uniform < throttleRate + errorRate) {
+            return HTTP_STATUS_SERVICE_UNAVAILABLE;
+        } else {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.sagebionetworks.bridge.reporter.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+
+/**
+ * Measures the BridgeHelper paginators on their own, with pages handed to a Blackhole. This isolates paging and
+ * prefetch overhead from report aggregation.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BridgeHelperPaginationBenchmark {
+    private static final String STUDY_ID = "study0";
+    private static final DateTime START_DATE_TIME = DateTime.parse("2018-01-11T00:00:00.000Z");
+    private static final DateTime END_DATE_TIME = DateTime.parse("2018-01-11T23:59:59.999Z");
+
+    @Param({ "1000", "100000", "1000000" })
+    public int numUploads;
+
+    @Param({ "1000", "50000" })
+    public int numParticipants;
+
+    @Param({ "false", "true" })
+    public boolean prefetch;
+
+    private BridgeHelper bridgeHelper;
+    private ExecutorService pageFetchExecutorService;
+
+    @Setup
+    public void setup() {
+        bridgeHelper = new InMemoryBridge(1, numUploads, numParticipants).newBridgeHelper();
+        if (prefetch) {
+            pageFetchExecutorService = Executors.newFixedThreadPool(4);
+            bridgeHelper.setPageFetchExecutorService(pageFetchExecutorService);
+            bridgeHelper.setParticipantPagePrefetchDepth(3);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pageFetchExecutorService != null) {
+            pageFetchExecutorService.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void uploadPages(Blackhole blackhole) throws Exception {
+        bridgeHelper.forEachUploadPage(STUDY_ID, START_DATE_TIME, END_DATE_TIME, blackhole::consume);
+    }
+
+    @Benchmark
+    public void participantSummaryPages(Blackhole blackhole) throws Exception {
+        bridgeHelper.forEachParticipantSummaryPage(STUDY_ID, START_DATE_TIME, END_DATE_TIME, blackhole::consume);
+    }
+}
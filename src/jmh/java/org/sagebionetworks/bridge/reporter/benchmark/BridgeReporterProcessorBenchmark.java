@@ -0,0 +1,103 @@
+package org.sagebionetworks.bridge.reporter.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+import org.sagebionetworks.bridge.reporter.request.ReportType;
+import org.sagebionetworks.bridge.reporter.worker.BridgeReporterProcessor;
+import org.sagebionetworks.bridge.reporter.worker.BridgeReporterRequest;
+import org.sagebionetworks.bridge.reporter.worker.SignUpsReportGenerator;
+import org.sagebionetworks.bridge.reporter.worker.UploadsReportGenerator;
+import org.sagebionetworks.bridge.reporter.worker.WriteBehindReportSaver;
+
+/** Measures BridgeReporterProcessor.process() end to end, from SQS message body to saved reports, across studies. */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BridgeReporterProcessorBenchmark {
+    private static final int NUM_STUDIES = 10;
+    private static final DateTime START_DATE_TIME = DateTime.parse("2018-01-11T00:00:00.000Z");
+    private static final DateTime END_DATE_TIME = DateTime.parse("2018-01-11T23:59:59.999Z");
+
+    @Param({ "1000", "100000", "1000000" })
+    public int numUploads;
+
+    @Param({ "1000", "50000" })
+    public int numParticipants;
+
+    @Param({ "1", "4" })
+    public int studyParallelism;
+
+    private BridgeReporterProcessor processor;
+    private ExecutorService studyExecutorService;
+    private JsonNode dailyRequestNode;
+    private JsonNode signUpsRequestNode;
+
+    @Setup
+    public void setup() {
+        BridgeHelper bridgeHelper = new InMemoryBridge(NUM_STUDIES, numUploads, numParticipants).newBridgeHelper();
+
+        UploadsReportGenerator uploadsGenerator = new UploadsReportGenerator();
+        uploadsGenerator.setBridgeHelper(bridgeHelper);
+        SignUpsReportGenerator signUpsGenerator = new SignUpsReportGenerator();
+        signUpsGenerator.setBridgeHelper(bridgeHelper);
+
+        studyExecutorService = Executors.newFixedThreadPool(studyParallelism);
+
+        processor = new BridgeReporterProcessor();
+        processor.setBridgeHelper(bridgeHelper);
+        WriteBehindReportSaver reportSaver = new WriteBehindReportSaver();
+        reportSaver.setBridgeHelper(bridgeHelper);
+        processor.setReportSaver(reportSaver);
+        processor.setGeneratorMap(ImmutableMap.of(ReportType.DAILY, uploadsGenerator, ReportType.DAILY_SIGNUPS,
+                signUpsGenerator));
+        processor.setStudyExecutorService(studyExecutorService);
+
+        dailyRequestNode = makeRequestNode(ReportType.DAILY);
+        signUpsRequestNode = makeRequestNode(ReportType.DAILY_SIGNUPS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        studyExecutorService.shutdown();
+    }
+
+    @Benchmark
+    public void processDailyUploads() throws Exception {
+        processor.process(dailyRequestNode);
+    }
+
+    @Benchmark
+    public void processDailySignUps() throws Exception {
+        processor.process(signUpsRequestNode);
+    }
+
+    private static JsonNode makeRequestNode(ReportType reportType) {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withScheduler("benchmark")
+                .withScheduleType(reportType).withStartDateTime(START_DATE_TIME).withEndDateTime(END_DATE_TIME)
+                .build();
+        return DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+    }
+}
@@ -0,0 +1,142 @@
+package org.sagebionetworks.bridge.reporter.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joda.time.DateTime;
+
+import org.sagebionetworks.bridge.reporter.fake.FakeBridgeData;
+import org.sagebionetworks.bridge.reporter.helper.AdaptiveRateLimiter;
+import org.sagebionetworks.bridge.reporter.helper.BridgeEndpoint;
+import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.Message;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+
+/**
+ * In-memory stand-in for the Bridge endpoints that BridgeHelper calls, serving {@link FakeBridgeData} without any
+ * HTTP, so benchmarks measure the reporter rather than the network.
+ *
+ * To keep generation cost out of the measurements for 1M-upload runs, upload pages are served from a small ring of
+ * pre-generated pages rather than generated on every call.
+ */
+public class InMemoryBridge {
+    private static final long SEED = 1234L;
+    private static final int UPLOAD_PAGE_RING_SIZE = 100;
+    private static final DateTime WINDOW_START = DateTime.parse("2018-01-11T00:00:00.000Z");
+    private static final DateTime WINDOW_END = DateTime.parse("2018-01-11T23:59:59.999Z");
+
+    private final FakeBridgeData data;
+    private final Map<Integer, List<List<Upload>>> uploadPageRingsByPageSize = new ConcurrentHashMap<>();
+
+    /** Creates a stand-in with the given number of studies, and uploads and participants per study. */
+    public InMemoryBridge(int numStudies, int numUploadsPerStudy, int numParticipantsPerStudy) {
+        this.data = new FakeBridgeData(SEED, numStudies, numUploadsPerStudy, numParticipantsPerStudy);
+    }
+
+    /** Returns a BridgeHelper wired to this stand-in, with rate limiting effectively turned off. */
+    public BridgeHelper newBridgeHelper() {
+        Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            rateLimiterMap.put(endpoint, new AdaptiveRateLimiter(Double.MAX_VALUE, Double.MAX_VALUE,
+                    Double.MAX_VALUE, Long.MAX_VALUE));
+        }
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(newClientManager());
+        bridgeHelper.setRateLimiterMap(rateLimiterMap);
+        return bridgeHelper;
+    }
+
+    /**
+     * Returns a ClientManager whose API clients are served from memory. ClientManager is a concrete class, so this is
+     * a mock. It's only called once per BridgeHelper call, not once per record.
+     */
+    public ClientManager newClientManager() {
+        ClientManager clientManager = mock(ClientManager.class);
+        when(clientManager.getClient(ForWorkersApi.class)).thenReturn(newForWorkersApi());
+        when(clientManager.getClient(StudiesApi.class)).thenReturn(newStudiesApi());
+        return clientManager;
+    }
+
+    /** Returns an in-memory ForWorkersApi. */
+    public ForWorkersApi newForWorkersApi() {
+        return (ForWorkersApi) Proxy.newProxyInstance(ForWorkersApi.class.getClassLoader(),
+                new Class<?>[] { ForWorkersApi.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUploads":
+                            return InMemoryCalls.success(getUploads((String) args[0], (Integer) args[3],
+                                    (String) args[4]));
+                        case "getParticipants":
+                            return InMemoryCalls.success(data.getParticipants((String) args[0], (Integer) args[1],
+                                    (Integer) args[2]));
+                        case "getParticipantById":
+                            return InMemoryCalls.success(data.getParticipant((String) args[0], (String) args[1]));
+                        case "saveReport":
+                            return InMemoryCalls.success(new Message());
+                        case "getStudyReportRecords":
+                            return InMemoryCalls.success(new ReportDataList());
+                        case "toString":
+                            return "InMemoryForWorkersApi";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /** Returns an in-memory StudiesApi. */
+    public StudiesApi newStudiesApi() {
+        return (StudiesApi) Proxy.newProxyInstance(StudiesApi.class.getClassLoader(),
+                new Class<?>[] { StudiesApi.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getStudies":
+                            return InMemoryCalls.success(data.getStudies());
+                        case "toString":
+                            return "InMemoryStudiesApi";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    // Offset keys are the index of the first upload in the page, same as FakeBridgeData.
+    private UploadList getUploads(String studyId, int pageSize, String offsetKey) {
+        int numUploads = data.getNumUploadsPerStudy();
+        int offset = offsetKey != null ? Integer.parseInt(offsetKey) : 0;
+        int count = Math.min(pageSize, numUploads - offset);
+
+        List<List<Upload>> pageRing = uploadPageRingsByPageSize.computeIfAbsent(pageSize,
+                key -> generateUploadPageRing(studyId, key));
+        List<Upload> page = pageRing.get((offset / pageSize) % UPLOAD_PAGE_RING_SIZE);
+
+        UploadList uploadList = new UploadList();
+        uploadList.setItems(count == pageSize ? page : page.subList(0, count));
+        if (offset + count < numUploads) {
+            uploadList.setNextPageOffsetKey(String.valueOf(offset + count));
+        }
+        return uploadList;
+    }
+
+    private List<List<Upload>> generateUploadPageRing(String studyId, int pageSize) {
+        List<List<Upload>> pageRing = new ArrayList<>();
+        for (int i = 0; i < UPLOAD_PAGE_RING_SIZE; i++) {
+            List<Upload> page = new ArrayList<>();
+            for (int j = 0; j < pageSize; j++) {
+                page.add(data.getUpload(studyId, i * pageSize + j, WINDOW_START, WINDOW_END));
+            }
+            pageRing.add(page);
+        }
+        return pageRing;
+    }
+}
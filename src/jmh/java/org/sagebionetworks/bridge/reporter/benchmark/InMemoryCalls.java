@@ -0,0 +1,47 @@
+package org.sagebionetworks.bridge.reporter.benchmark;
+
+import java.lang.reflect.Proxy;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/** Factory for REST client calls that complete immediately with an in-memory result. */
+public class InMemoryCalls {
+    /**
+     * Returns a call that succeeds with the given body. This is a dynamic proxy rather than a Call implementation, so
+     * it works with whatever version of Retrofit the REST client was built against.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Call<T> success(T body) {
+        Response<T> response = Response.success(body);
+        Object[] callHolder = new Object[1];
+        Call<T> call = (Call<T>) Proxy.newProxyInstance(Call.class.getClassLoader(), new Class<?>[] { Call.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "execute":
+                            return response;
+                        case "enqueue":
+                            ((Callback<T>) args[0]).onResponse((Call<T>) callHolder[0], response);
+                            return null;
+                        case "clone":
+                            return callHolder[0];
+                        case "isExecuted":
+                        case "isCanceled":
+                            return false;
+                        case "cancel":
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "InMemoryCall[" + body + "]";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        callHolder[0] = call;
+        return call;
+    }
+}
@@ -0,0 +1,53 @@
+package org.sagebionetworks.bridge.reporter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.sagebionetworks.bridge.reporter.request.ReportType;
+import org.sagebionetworks.bridge.reporter.worker.BridgeReporterRequest;
+import org.sagebionetworks.bridge.reporter.worker.Report;
+import org.sagebionetworks.bridge.reporter.worker.SignUpsReportGenerator;
+
+/** Measures SignUpsReportGenerator.generate() for a single study, including summary paging and detail fetches. */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SignUpsReportGeneratorBenchmark {
+    private static final String STUDY_ID = "study0";
+    private static final BridgeReporterRequest REQUEST = new BridgeReporterRequest.Builder()
+            .withScheduler("benchmark").withScheduleType(ReportType.DAILY_SIGNUPS)
+            .withStartDateTime(DateTime.parse("2018-01-11T00:00:00.000Z"))
+            .withEndDateTime(DateTime.parse("2018-01-11T23:59:59.999Z")).build();
+
+    @Param({ "1000", "50000" })
+    public int numParticipants;
+
+    private SignUpsReportGenerator generator;
+
+    @Setup
+    public void setup() {
+        InMemoryBridge bridge = new InMemoryBridge(1, 0, numParticipants);
+        generator = new SignUpsReportGenerator();
+        generator.setBridgeHelper(bridge.newBridgeHelper());
+    }
+
+    @Benchmark
+    public Report generate() throws Exception {
+        return generator.generate(REQUEST, STUDY_ID);
+    }
+}
@@ -0,0 +1,70 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The aggregators of a {@link ReportDefinition}, in progress. Each record is added to every aggregator, so all of a
+ * report's values are computed in one pass. Not thread-safe. Aggregate each thread or slice separately, then merge.
+ */
+public class Aggregation<T> {
+    // Null keys are flattened aggregators.
+    private final List<String> keyList;
+    private final List<Aggregator<T>> aggregatorList;
+
+    Aggregation(List<String> keyList, List<Aggregator<T>> aggregatorList) {
+        this.keyList = keyList;
+        this.aggregatorList = aggregatorList;
+    }
+
+    /** Adds a record to every aggregator. */
+    public void add(T record) {
+        for (int i = 0; i < aggregatorList.size(); i++) {
+            aggregatorList.get(i).add(record);
+        }
+    }
+
+    /** Adds a page of records to every aggregator. */
+    public void addAll(List<T> records) {
+        for (T record : records) {
+            add(record);
+        }
+    }
+
+    /** Merges another aggregation of the same report definition into this one. */
+    public void merge(Aggregation<T> other) {
+        for (int i = 0; i < aggregatorList.size(); i++) {
+            aggregatorList.get(i).merge(other.aggregatorList.get(i));
+        }
+    }
+
+    /**
+     * Merges saved report data of the same report definition into this aggregation, for example a saved DAILY report
+     * into a WEEKLY roll-up. Aggregators whose key is missing from the report data are left as they are.
+     */
+    public void mergeReportData(Map<?, ?> reportData) {
+        for (int i = 0; i < aggregatorList.size(); i++) {
+            String key = keyList.get(i);
+            Object result = key != null ? reportData.get(key) : reportData;
+            if (result != null) {
+                aggregatorList.get(i).mergeResult(result);
+            }
+        }
+    }
+
+    /** Report data, with each aggregator's result under its key, and flattened results merged into the top level. */
+    public Map<String, Object> getReportData() {
+        Map<String, Object> reportData = new LinkedHashMap<>();
+        for (int i = 0; i < aggregatorList.size(); i++) {
+            String key = keyList.get(i);
+            Object result = aggregatorList.get(i).getResult();
+            if (key != null) {
+                reportData.put(key, result);
+            } else {
+                ((Map<?, ?>) result).forEach((resultKey, value) -> reportData.put(resultKey.toString(), value));
+            }
+        }
+        return reportData;
+    }
+}
@@ -0,0 +1,74 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Runs a report definition over record sources. Each source is scanned once, feeding every aggregator of the report.
+ * If there are several sources, such as time slices, they're scanned in parallel on the executor, and their partial
+ * results are merged.
+ */
+public class AggregationExecutor {
+    private final ExecutorService executorService;
+
+    /**
+     * Creates an executor. The executor service's pool size bounds how many sources are scanned at once. A direct
+     * executor service scans them one at a time on the calling thread.
+     */
+    public AggregationExecutor(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /** Aggregates a single source, on the calling thread. */
+    public <T> Aggregation<T> aggregate(ReportDefinition<T> definition, RecordSource<T> source) throws IOException {
+        Aggregation<T> aggregation = definition.newAggregation();
+        source.forEachPage(aggregation::addAll);
+        return aggregation;
+    }
+
+    /** Aggregates each source in parallel, and merges the results. If any source fails, the others are cancelled. */
+    public <T> Aggregation<T> aggregate(ReportDefinition<T> definition, List<RecordSource<T>> sourceList)
+            throws IOException {
+        if (sourceList.size() == 1) {
+            return aggregate(definition, sourceList.get(0));
+        }
+
+        List<Future<Aggregation<T>>> futureList = new ArrayList<>();
+        try {
+            for (RecordSource<T> source : sourceList) {
+                futureList.add(executorService.submit(() -> aggregate(definition, source)));
+            }
+
+            Aggregation<T> aggregation = definition.newAggregation();
+            for (Future<Aggregation<T>> future : futureList) {
+                aggregation.merge(getUnchecked(future));
+            }
+            return aggregation;
+        } finally {
+            // If a source failed, don't leave the other sources scanning in the background.
+            for (Future<Aggregation<T>> future : futureList) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    // Waits for a source and unwraps its exception, so callers see the original IOException or RuntimeException.
+    private static <T> T getUnchecked(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting on aggregation", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class);
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+/**
+ * Streaming aggregation of records into a single report value. Records are added one at a time and aren't kept, so
+ * memory doesn't depend on the number of records. Callers may reuse a record object for the next record.
+ *
+ * Aggregators are mergeable: records can be split across threads or time slices, each aggregated separately, and the
+ * partial results merged. Aggregators aren't thread-safe. Each thread aggregates into its own.
+ */
+public interface Aggregator<T> {
+    /** Adds a record. */
+    void add(T record);
+
+    /**
+     * Merges another aggregator's partial result into this one. The other aggregator must be of the same kind, created
+     * by the same supplier.
+     */
+    void merge(Aggregator<T> other);
+
+    /**
+     * Merges a result previously returned by {@link #getResult}, such as from a saved report, into this aggregator.
+     * This lets roll-up reports merge saved reports without rescanning their records.
+     */
+    void mergeResult(Object result);
+
+    /** Result, as report data. This is a JSON-friendly value, such as a number or a map. */
+    Object getResult();
+}
@@ -0,0 +1,52 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Estimated number of distinct values of a field, such as health code, from a {@link HyperLogLog} sketch. The result
+ * is a map with the estimated count and the sketch, so saved results can be merged without the raw records. Records
+ * whose field is null aren't counted.
+ */
+public class DistinctCountAggregator<T> implements Aggregator<T> {
+    static final String KEY_COUNT = "count";
+    static final String KEY_SKETCH = "sketch";
+
+    private final Function<T, String> field;
+    private final HyperLogLog sketch = new HyperLogLog();
+
+    /** Creates an aggregator that counts distinct values of the given field. */
+    public DistinctCountAggregator(Function<T, String> field) {
+        this.field = field;
+    }
+
+    @Override
+    public void add(T record) {
+        String value = field.apply(record);
+        if (value != null) {
+            sketch.add(value);
+        }
+    }
+
+    @Override
+    public void merge(Aggregator<T> other) {
+        sketch.merge(((DistinctCountAggregator<T>) other).sketch);
+    }
+
+    @Override
+    public void mergeResult(Object result) {
+        Object savedSketch = ((Map<?, ?>) result).get(KEY_SKETCH);
+        if (savedSketch instanceof String) {
+            sketch.mergeBase64((String) savedSketch);
+        }
+    }
+
+    @Override
+    public Object getResult() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(KEY_COUNT, sketch.getEstimate());
+        result.put(KEY_SKETCH, sketch.toBase64());
+        return result;
+    }
+}
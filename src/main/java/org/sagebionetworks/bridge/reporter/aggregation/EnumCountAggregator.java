@@ -0,0 +1,51 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Counts records by an enum dimension, such as status. Counting is by enum ordinal, so adding a record doesn't
+ * allocate. The result is a map from report key to count. Records whose dimension is null aren't counted.
+ */
+public class EnumCountAggregator<T, E extends Enum<E>> implements Aggregator<T> {
+    private final Function<T, E> dimension;
+    private final boolean includeZeroes;
+    private final EnumCounter<E> counter;
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param dimension
+     *         gets the enum value to count from a record
+     * @param reportKeys
+     *         report key for each enum value, indexed by ordinal
+     * @param includeZeroes
+     *         true if every enum value should be in the result, even if its count is zero
+     */
+    public EnumCountAggregator(Function<T, E> dimension, String[] reportKeys, boolean includeZeroes) {
+        this.dimension = dimension;
+        this.includeZeroes = includeZeroes;
+        this.counter = new EnumCounter<>(reportKeys);
+    }
+
+    @Override
+    public void add(T record) {
+        counter.add(dimension.apply(record));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void merge(Aggregator<T> other) {
+        counter.addAll(((EnumCountAggregator<T, E>) other).counter);
+    }
+
+    @Override
+    public void mergeResult(Object result) {
+        counter.addReportData((Map<?, ?>) result);
+    }
+
+    @Override
+    public Object getResult() {
+        return counter.toReportData(includeZeroes);
+    }
+}
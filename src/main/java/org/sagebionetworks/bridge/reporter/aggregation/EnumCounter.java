@@ -0,0 +1,85 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts enum values in an int array indexed by ordinal, so counting doesn't allocate. Report keys are looked up in a
+ * precomputed table, also indexed by ordinal, and the report data map is only built once counting is done.
+ */
+public final class EnumCounter<E extends Enum<E>> {
+    private final String[] reportKeys;
+    private final int[] counts;
+
+    /** Creates a counter. The report keys table must have a key for each enum value, indexed by ordinal. */
+    public EnumCounter(String[] reportKeys) {
+        this.reportKeys = reportKeys;
+        this.counts = new int[reportKeys.length];
+    }
+
+    /** Report keys table of the lowercase names of the given enum's values. */
+    public static String[] lowerCaseNames(Class<? extends Enum<?>> enumType) {
+        Enum<?>[] values = enumType.getEnumConstants();
+        String[] reportKeys = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reportKeys[i] = values[i].name().toLowerCase();
+        }
+        return reportKeys;
+    }
+
+    /** Report keys table of the string values of the given enum's values. */
+    public static String[] stringValues(Class<? extends Enum<?>> enumType) {
+        Enum<?>[] values = enumType.getEnumConstants();
+        String[] reportKeys = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reportKeys[i] = values[i].toString();
+        }
+        return reportKeys;
+    }
+
+    /** Counts one of the given value. Null values, for example from a missing field, aren't counted. */
+    public void add(E value) {
+        if (value != null) {
+            counts[value.ordinal()]++;
+        }
+    }
+
+    /** Adds the other counter's counts to this one. */
+    public void addAll(EnumCounter<E> other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * Adds counts from report data, by report key. Counts may be any number type, since saved report data may come
+     * back from Bridge as doubles. Keys that aren't report keys are ignored.
+     */
+    public void addReportData(Map<?, ?> reportData) {
+        for (int i = 0; i < counts.length; i++) {
+            Object count = reportData.get(reportKeys[i]);
+            if (count instanceof Number) {
+                counts[i] += ((Number) count).intValue();
+            }
+        }
+    }
+
+    /** Count for the given value. */
+    public int count(E value) {
+        return counts[value.ordinal()];
+    }
+
+    /**
+     * Report data, by report key, in enum order. If includeZeroes is true, every enum value is a key, even if its
+     * count is zero. Otherwise, only values that were counted are keys.
+     */
+    public Map<String, Integer> toReportData(boolean includeZeroes) {
+        Map<String, Integer> reportData = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (includeZeroes || counts[i] > 0) {
+                reportData.put(reportKeys[i], counts[i]);
+            }
+        }
+        return reportData;
+    }
+}
@@ -0,0 +1,119 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fixed-memory, mergeable histogram of latencies in milliseconds, for percentiles. Latencies under 64 ms are counted
+ * exactly. Above that, each power of two is split into 32 log-linear buckets, so percentiles are within about 3% of
+ * the true value. Latencies over 2^41 ms (about 70 years) are counted in the last bucket. The exact max is kept
+ * separately.
+ *
+ * Histograms can be saved as a sparse map of bucket index to count, and merged back without the raw latencies, so
+ * daily histograms can be merged into weekly ones.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int LINEAR_EXPONENT = 6;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int NUM_BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long totalCount = 0L;
+    private long max = 0L;
+
+    /** Records a latency. Negative latencies, from clock skew, are recorded as 0. */
+    public void record(long latencyMillis) {
+        long value = Math.max(0L, latencyMillis);
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+    }
+
+    /** Adds the other histogram's counts to this one. */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    /** Number of latencies recorded. */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /** Max latency recorded, or 0 if none. */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Latency at the given percentile (0 to 100), or 0 if no latencies were recorded. This is the upper bound of the
+     * bucket the percentile falls in, so it errs high, but it's never more than the max.
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulativeCount = 0L;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /** Non-empty buckets, as a map of bucket index to count, for saving in report data. */
+    public Map<String, Long> toBucketMap() {
+        Map<String, Long> bucketMap = new LinkedHashMap<>();
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            if (counts[i] > 0) {
+                bucketMap.put(String.valueOf(i), counts[i]);
+            }
+        }
+        return bucketMap;
+    }
+
+    /**
+     * Adds buckets saved by {@link #toBucketMap}, and their max, to this histogram. Counts may be any number type,
+     * since saved report data may come back from Bridge as doubles.
+     */
+    public void mergeBucketMap(Map<?, ?> bucketMap, long bucketMax) {
+        bucketMap.forEach((index, count) -> {
+            long bucketCount = ((Number) count).longValue();
+            counts[Integer.parseInt(index.toString())] += bucketCount;
+            totalCount += bucketCount;
+        });
+        max = Math.max(max, bucketMax);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return NUM_BUCKETS - 1;
+        }
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return LINEAR_BUCKETS + (exponent - LINEAR_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = LINEAR_EXPONENT + (index - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * bucketWidth - 1;
+    }
+}
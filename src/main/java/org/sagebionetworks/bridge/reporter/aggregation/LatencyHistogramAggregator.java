@@ -0,0 +1,63 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Latency percentiles, from a {@link LatencyHistogram}. The result is a map with the count, p50, p90, p99, and max
+ * latencies in milliseconds, and the histogram buckets, so saved results can be merged without the raw records.
+ * Records whose latency is null aren't counted.
+ */
+public class LatencyHistogramAggregator<T> implements Aggregator<T> {
+    static final String KEY_COUNT = "count";
+    static final String KEY_P50 = "p50";
+    static final String KEY_P90 = "p90";
+    static final String KEY_P99 = "p99";
+    static final String KEY_MAX = "max";
+    static final String KEY_HISTOGRAM = "histogram";
+
+    private final Function<T, Long> latencyMillis;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /** Creates an aggregator for the given latency, in milliseconds. */
+    public LatencyHistogramAggregator(Function<T, Long> latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public void add(T record) {
+        Long latency = latencyMillis.apply(record);
+        if (latency != null) {
+            histogram.record(latency);
+        }
+    }
+
+    @Override
+    public void merge(Aggregator<T> other) {
+        histogram.merge(((LatencyHistogramAggregator<T>) other).histogram);
+    }
+
+    // Results without both the histogram and the max, such as empty results, aren't merged.
+    @Override
+    public void mergeResult(Object result) {
+        Map<?, ?> resultMap = (Map<?, ?>) result;
+        Object bucketMap = resultMap.get(KEY_HISTOGRAM);
+        Object savedMax = resultMap.get(KEY_MAX);
+        if (bucketMap instanceof Map && savedMax instanceof Number) {
+            histogram.mergeBucketMap((Map<?, ?>) bucketMap, ((Number) savedMax).longValue());
+        }
+    }
+
+    @Override
+    public Object getResult() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(KEY_COUNT, histogram.getTotalCount());
+        result.put(KEY_P50, histogram.getPercentile(50.0));
+        result.put(KEY_P90, histogram.getPercentile(90.0));
+        result.put(KEY_P99, histogram.getPercentile(99.0));
+        result.put(KEY_MAX, histogram.getMax());
+        result.put(KEY_HISTOGRAM, histogram.toBucketMap());
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Min and max of a numeric field of each record. The result is a map with "min" and "max" keys, or an empty map if no
+ * records had the field. Records whose field is null aren't counted.
+ */
+public class MinMaxAggregator<T> implements Aggregator<T> {
+    static final String KEY_MIN = "min";
+    static final String KEY_MAX = "max";
+
+    private final Function<T, ? extends Number> field;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private boolean hasValue = false;
+
+    /** Creates an aggregator for the given field. */
+    public MinMaxAggregator(Function<T, ? extends Number> field) {
+        this.field = field;
+    }
+
+    @Override
+    public void add(T record) {
+        Number value = field.apply(record);
+        if (value != null) {
+            addValue(value.longValue());
+        }
+    }
+
+    @Override
+    public void merge(Aggregator<T> other) {
+        MinMaxAggregator<T> otherMinMax = (MinMaxAggregator<T>) other;
+        if (otherMinMax.hasValue) {
+            addValue(otherMinMax.min);
+            addValue(otherMinMax.max);
+        }
+    }
+
+    @Override
+    public void mergeResult(Object result) {
+        Map<?, ?> resultMap = (Map<?, ?>) result;
+        if (resultMap.containsKey(KEY_MIN)) {
+            addValue(((Number) resultMap.get(KEY_MIN)).longValue());
+            addValue(((Number) resultMap.get(KEY_MAX)).longValue());
+        }
+    }
+
+    private void addValue(long value) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        hasValue = true;
+    }
+
+    @Override
+    public Object getResult() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (hasValue) {
+            result.put(KEY_MIN, min);
+            result.put(KEY_MAX, max);
+        }
+        return result;
+    }
+}
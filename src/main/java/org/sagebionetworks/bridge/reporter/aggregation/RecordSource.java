@@ -0,0 +1,12 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.io.IOException;
+
+import org.sagebionetworks.bridge.reporter.helper.PageHandler;
+
+/** A stream of records, delivered one page at a time, such as one study's uploads for a time slice. */
+@FunctionalInterface
+public interface RecordSource<T> {
+    /** Calls the page handler for each page of records. */
+    void forEachPage(PageHandler<T> pageHandler) throws IOException;
+}
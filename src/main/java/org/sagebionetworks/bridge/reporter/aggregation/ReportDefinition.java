@@ -0,0 +1,57 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Declares what a report computes over a stream of records: a list of aggregators, each under its own key in the
+ * report data. A flattened aggregator's map result is merged into the top level of the report data instead. All
+ * aggregators are computed in a single pass over the records.
+ */
+public class ReportDefinition<T> {
+    private final List<String> keyList;
+    private final List<Supplier<? extends Aggregator<T>>> aggregatorSupplierList;
+
+    private ReportDefinition(List<String> keyList, List<Supplier<? extends Aggregator<T>>> aggregatorSupplierList) {
+        this.keyList = keyList;
+        this.aggregatorSupplierList = aggregatorSupplierList;
+    }
+
+    /** Creates an empty aggregation for this report, ready for records. */
+    public Aggregation<T> newAggregation() {
+        List<Aggregator<T>> aggregatorList = new ArrayList<>();
+        for (Supplier<? extends Aggregator<T>> aggregatorSupplier : aggregatorSupplierList) {
+            aggregatorList.add(aggregatorSupplier.get());
+        }
+        return new Aggregation<>(keyList, aggregatorList);
+    }
+
+    /** Report definition builder. */
+    public static class Builder<T> {
+        private final List<String> keyList = new ArrayList<>();
+        private final List<Supplier<? extends Aggregator<T>>> aggregatorSupplierList = new ArrayList<>();
+
+        /** Adds an aggregator, whose result is under the given key in the report data. */
+        public Builder<T> withAggregator(String key, Supplier<? extends Aggregator<T>> aggregatorSupplier) {
+            keyList.add(key);
+            aggregatorSupplierList.add(aggregatorSupplier);
+            return this;
+        }
+
+        /** Adds an aggregator whose result is a map, which is merged into the top level of the report data. */
+        public Builder<T> withFlattenedAggregator(Supplier<? extends Aggregator<T>> aggregatorSupplier) {
+            return withAggregator(null, aggregatorSupplier);
+        }
+
+        /** Builds the report definition. */
+        public ReportDefinition<T> build() {
+            // Flattened aggregators have null keys, which ImmutableList doesn't allow.
+            return new ReportDefinition<>(Collections.unmodifiableList(new ArrayList<>(keyList)),
+                    ImmutableList.copyOf(aggregatorSupplierList));
+        }
+    }
+}
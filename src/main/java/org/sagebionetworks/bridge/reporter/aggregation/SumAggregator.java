@@ -0,0 +1,37 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import java.util.function.Function;
+
+/** Sums a numeric field of each record, such as content length. Records whose field is null aren't counted. */
+public class SumAggregator<T> implements Aggregator<T> {
+    private final Function<T, ? extends Number> field;
+    private long sum = 0L;
+
+    /** Creates an aggregator that sums the given field. */
+    public SumAggregator(Function<T, ? extends Number> field) {
+        this.field = field;
+    }
+
+    @Override
+    public void add(T record) {
+        Number value = field.apply(record);
+        if (value != null) {
+            sum += value.longValue();
+        }
+    }
+
+    @Override
+    public void merge(Aggregator<T> other) {
+        sum += ((SumAggregator<T>) other).sum;
+    }
+
+    @Override
+    public void mergeResult(Object result) {
+        sum += ((Number) result).longValue();
+    }
+
+    @Override
+    public Object getResult() {
+        return sum;
+    }
+}
@@ -3,16 +3,32 @@ package org.sagebionetworks.bridge.reporter.config;
 import org.sagebionetworks.bridge.config.Config;
 import org.sagebionetworks.bridge.config.PropertiesConfig;
 import org.sagebionetworks.bridge.heartbeat.HeartbeatLogger;
+import org.sagebionetworks.bridge.reporter.helper.AdaptivePageSizer;
+import org.sagebionetworks.bridge.reporter.helper.AdaptiveRateLimiter;
+import org.sagebionetworks.bridge.reporter.helper.BridgeEndpoint;
+import org.sagebionetworks.bridge.reporter.helper.CircuitBreaker;
+import org.sagebionetworks.bridge.reporter.helper.ParticipantDetailCache;
 import org.sagebionetworks.bridge.reporter.request.ReportType;
+import org.sagebionetworks.bridge.reporter.worker.BridgeReporterProcessor;
+import org.sagebionetworks.bridge.reporter.worker.FileProgressCheckpointStore;
+import org.sagebionetworks.bridge.reporter.worker.ProgressCheckpointStore;
 import org.sagebionetworks.bridge.reporter.worker.ReportGenerator;
+import org.sagebionetworks.bridge.reporter.worker.RequestQueueConsumerPool;
 import org.sagebionetworks.bridge.reporter.worker.SignUpsReportGenerator;
 import org.sagebionetworks.bridge.reporter.worker.UploadsReportGenerator;
 import org.sagebionetworks.bridge.rest.ClientManager;
 import org.sagebionetworks.bridge.rest.model.ClientInfo;
 import org.sagebionetworks.bridge.rest.model.SignIn;
 
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Slf4jReporter;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -21,7 +37,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 // These configs get credentials from the default credential chain. For developer desktops, this is ~/.aws/credentials.
 // For EC2 instances, this happens transparently.
@@ -48,7 +70,17 @@ public class SpringConfig {
     @Bean
     public ClientManager bridgeClientManager() throws IOException {
         ClientInfo clientInfo = new ClientInfo().appName("BridgeReporter").appVersion(1);
-        return new ClientManager.Builder().withClientInfo(clientInfo).withSignIn(bridgeCredentials()).build();
+        ClientManager.Builder builder = new ClientManager.Builder().withClientInfo(clientInfo)
+                .withSignIn(bridgeCredentials());
+
+        if (Boolean.parseBoolean(bridgeConfig().get("reporter.fake.bridge.enabled"))) {
+            // The rest client's local environment is http://localhost:9000, which is where the fake server listens.
+            // The fake server is started by FakeBridgeSpringConfig, which is only on the test and benchmark classpaths.
+            org.sagebionetworks.bridge.rest.Config restConfig = new org.sagebionetworks.bridge.rest.Config();
+            restConfig.set(org.sagebionetworks.bridge.rest.Config.Props.ENV, "local");
+            builder.withConfig(restConfig);
+        }
+        return builder.build();
     }
 
     @Bean
@@ -68,14 +100,154 @@ public class SpringConfig {
         return heartbeatLogger;
     }
     
+    // The SQS client isn't a bean, so it doesn't clash with the embedding app's AmazonSQS. It's only built if the
+    // consumer pool is turned on.
+    @Bean(name = "requestQueueConsumerPool", initMethod = "start", destroyMethod = "stop")
+    public RequestQueueConsumerPool requestQueueConsumerPool(BridgeReporterProcessor processor) throws IOException {
+        Config config = bridgeConfig();
+        int numConsumers = config.getInt("reporter.request.sqs.consumers");
+        AmazonSQS sqsClient = numConsumers > 0 ? AmazonSQSClientBuilder.standard().withRegion(
+                config.get("reporter.request.sqs.region")).build() : null;
+        RequestQueueConsumerPool consumerPool = new RequestQueueConsumerPool(sqsClient,
+                config.get("reporter.request.sqs.queue.url"), processor, numConsumers,
+                config.getInt("reporter.request.sqs.visibility.timeout.seconds"),
+                config.getInt("reporter.request.sqs.sleep.time.millis"));
+        consumerPool.setShutdownTimeoutSeconds(config.getInt("reporter.request.sqs.shutdown.timeout.seconds"));
+        consumerPool.setMaxProcessingSeconds(config.getInt("reporter.request.sqs.max.processing.seconds"));
+        consumerPool.setMetricRegistry(metricRegistry());
+        return consumerPool;
+    }
+
     @Bean(name="generatorMap")
     public Map<ReportType, ReportGenerator> generatorMap(UploadsReportGenerator uploadsGenerator,
             SignUpsReportGenerator signupsGenerator) {
         return new ImmutableMap.Builder<ReportType, ReportGenerator>()
             .put(ReportType.DAILY, uploadsGenerator)
             .put(ReportType.WEEKLY, uploadsGenerator)
+            .put(ReportType.DAILY_UPLOAD_LATENCY, uploadsGenerator)
+            .put(ReportType.WEEKLY_UPLOAD_LATENCY, uploadsGenerator)
+            .put(ReportType.DAILY_UNIQUE_UPLOADERS, uploadsGenerator)
+            .put(ReportType.WEEKLY_UNIQUE_UPLOADERS, uploadsGenerator)
+            .put(ReportType.MONTHLY_UNIQUE_UPLOADERS, uploadsGenerator)
             .put(ReportType.DAILY_SIGNUPS, signupsGenerator)
             .build();
     }
-    
+
+    @Bean(name = "studyExecutorService", destroyMethod = "shutdown")
+    public ExecutorService studyExecutorService() throws IOException {
+        return Executors.newFixedThreadPool(bridgeConfig().getInt("reporter.study.parallelism"),
+                new ThreadFactoryBuilder().setNameFormat("study-worker-%d").build());
+    }
+
+    @Bean(name = "participantFetchExecutorService", destroyMethod = "shutdown")
+    public ExecutorService participantFetchExecutorService() throws IOException {
+        return Executors.newFixedThreadPool(bridgeConfig().getInt("reporter.participant.fetch.parallelism"),
+                new ThreadFactoryBuilder().setNameFormat("participant-fetch-%d").build());
+    }
+
+    @Bean(name = "pageFetchExecutorService", destroyMethod = "shutdown")
+    public ExecutorService pageFetchExecutorService() throws IOException {
+        return Executors.newFixedThreadPool(bridgeConfig().getInt("reporter.page.fetch.threads"),
+                new ThreadFactoryBuilder().setNameFormat("page-fetch-%d").build());
+    }
+
+    @Bean(name = "bridgeAsyncExecutorService", destroyMethod = "shutdown")
+    public ScheduledExecutorService bridgeAsyncExecutorService() throws IOException {
+        return Executors.newScheduledThreadPool(bridgeConfig().getInt("reporter.bridge.async.threads"),
+                new ThreadFactoryBuilder().setNameFormat("bridge-async-%d").build());
+    }
+
+    @Bean(name = "uploadScanExecutorService", destroyMethod = "shutdown")
+    public ExecutorService uploadScanExecutorService() throws IOException {
+        return Executors.newFixedThreadPool(bridgeConfig().getInt("reporter.upload.scan.threads"),
+                new ThreadFactoryBuilder().setNameFormat("upload-scan-%d").build());
+    }
+
+    @Bean(name = "progressCheckpointStore")
+    public ProgressCheckpointStore progressCheckpointStore() throws IOException {
+        return new FileProgressCheckpointStore(Paths.get(bridgeConfig().get("reporter.checkpoint.dir")));
+    }
+
+    @Bean(name = "participantDetailCache", initMethod = "load", destroyMethod = "flush")
+    public ParticipantDetailCache participantDetailCache() throws IOException {
+        Config config = bridgeConfig();
+        Path cacheFile = Paths.get(config.get("reporter.participant.cache.file"));
+        Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+        ParticipantDetailCache cache = new ParticipantDetailCache(cacheFile,
+                config.getInt("reporter.participant.cache.max.entries"),
+                TimeUnit.HOURS.toMillis(config.getInt("reporter.participant.cache.ttl.hours")));
+        cache.setFlushIntervalMillis(TimeUnit.MINUTES.toMillis(config.getInt(
+                "reporter.participant.cache.flush.interval.minutes")));
+        return cache;
+    }
+
+    @Bean(name = "metricRegistry")
+    public MetricRegistry metricRegistry() {
+        return new MetricRegistry();
+    }
+
+    @Bean(name = "metricsJmxReporter", initMethod = "start", destroyMethod = "stop")
+    public JmxReporter metricsJmxReporter() {
+        return JmxReporter.forRegistry(metricRegistry()).inDomain("org.sagebionetworks.bridge.reporter")
+                .convertDurationsTo(TimeUnit.MILLISECONDS).build();
+    }
+
+    @Bean(name = "metricsLogReporter", destroyMethod = "stop")
+    public Slf4jReporter metricsLogReporter() throws IOException {
+        Slf4jReporter reporter = Slf4jReporter.forRegistry(metricRegistry())
+                .outputTo(LoggerFactory.getLogger("org.sagebionetworks.bridge.reporter.metrics"))
+                .convertDurationsTo(TimeUnit.MILLISECONDS).convertRatesTo(TimeUnit.SECONDS).build();
+        reporter.start(bridgeConfig().getInt("reporter.metrics.log.interval.minutes"), TimeUnit.MINUTES);
+        return reporter;
+    }
+
+    @Bean(name = "reportSaveExecutorService", destroyMethod = "shutdown")
+    public ExecutorService reportSaveExecutorService() throws IOException {
+        return Executors.newFixedThreadPool(bridgeConfig().getInt("reporter.save.threads"),
+                new ThreadFactoryBuilder().setNameFormat("report-save-%d").build());
+    }
+
+    @Bean(name = "rateLimiterMap")
+    public Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap() throws IOException {
+        Config config = bridgeConfig();
+        long latencyThresholdMillis = config.getInt("reporter.rate.latency.threshold.millis");
+
+        Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            String prefix = "reporter.rate." + endpoint.getName() + ".";
+            double initialRate = Double.parseDouble(config.get(prefix + "initial"));
+            double minRate = Double.parseDouble(config.get(prefix + "min"));
+            double maxRate = Double.parseDouble(config.get(prefix + "max"));
+            rateLimiterMap.put(endpoint, new AdaptiveRateLimiter(initialRate, minRate, maxRate,
+                    latencyThresholdMillis));
+        }
+        return rateLimiterMap;
+    }
+
+    @Bean(name = "pageSizerMap")
+    public Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap() throws IOException {
+        Config config = bridgeConfig();
+        long latencyThresholdMillis = config.getInt("reporter.page.size.latency.threshold.millis");
+
+        Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : EnumSet.of(BridgeEndpoint.GET_UPLOADS, BridgeEndpoint.GET_PARTICIPANTS)) {
+            String prefix = "reporter.page.size." + endpoint.getName() + ".";
+            pageSizerMap.put(endpoint, new AdaptivePageSizer(config.getInt(prefix + "initial"),
+                    config.getInt(prefix + "min"), config.getInt(prefix + "max"), latencyThresholdMillis));
+        }
+        return pageSizerMap;
+    }
+
+    @Bean(name = "circuitBreakerMap")
+    public Map<BridgeEndpoint, CircuitBreaker> circuitBreakerMap() throws IOException {
+        Config config = bridgeConfig();
+        int failureThreshold = config.getInt("reporter.circuit.failure.threshold");
+        long openMillis = config.getInt("reporter.circuit.open.millis");
+
+        Map<BridgeEndpoint, CircuitBreaker> circuitBreakerMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            circuitBreakerMap.put(endpoint, new CircuitBreaker(failureThreshold, openMillis));
+        }
+        return circuitBreakerMap;
+    }
 }
@@ -0,0 +1,75 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Page size for a single paged Bridge endpoint, which adapts to how Bridge is responding. Each healthy page (fast and
+ * not throttled) additively increases the page size, up to the max page size. Each throttled or slow page
+ * multiplicatively decreases it, down to the min page size (AIMD).
+ *
+ * If min, initial, and max are all the same, the page size is fixed.
+ */
+public class AdaptivePageSizer {
+    // Each healthy page adds 1/20th of the range between min and max, so it takes about 20 healthy pages to go from
+    // the min to the max page size.
+    static final int INCREASE_STEPS_FROM_MIN_TO_MAX = 20;
+
+    // Each throttled or slow page multiplies the page size by this factor.
+    static final double DECREASE_FACTOR = 0.5;
+
+    private final int minPageSize;
+    private final int maxPageSize;
+    private final int increaseStep;
+    private final long latencyThresholdMillis;
+    private volatile int pageSize;
+
+    /**
+     * Creates a page sizer.
+     *
+     * @param initialPageSize
+     *         starting page size
+     * @param minPageSize
+     *         smallest page size we back off to
+     * @param maxPageSize
+     *         largest page size we grow to
+     * @param latencyThresholdMillis
+     *         pages slower than this are treated like throttling
+     */
+    public AdaptivePageSizer(int initialPageSize, int minPageSize, int maxPageSize, long latencyThresholdMillis) {
+        checkArgument(minPageSize > 0, "minPageSize must be positive");
+        checkArgument(minPageSize <= initialPageSize && initialPageSize <= maxPageSize,
+                "initialPageSize must be between minPageSize and maxPageSize");
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.increaseStep = Math.max(1, (maxPageSize - minPageSize) / INCREASE_STEPS_FROM_MIN_TO_MAX);
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.pageSize = initialPageSize;
+    }
+
+    /** Page size to use for the next page. */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** Records a successful page and its latency. Grows the page size if the page was fast, shrinks it if slow. */
+    public synchronized void onSuccess(long latencyMillis) {
+        if (latencyMillis > latencyThresholdMillis) {
+            decreasePageSize();
+        } else {
+            setPageSize(pageSize + increaseStep);
+        }
+    }
+
+    /** Records a throttled page (429 or 5xx). Shrinks the page size. */
+    public synchronized void onThrottled() {
+        decreasePageSize();
+    }
+
+    private void decreasePageSize() {
+        setPageSize((int) (pageSize * DECREASE_FACTOR));
+    }
+
+    private void setPageSize(int pageSize) {
+        this.pageSize = Math.max(minPageSize, Math.min(maxPageSize, pageSize));
+    }
+}
@@ -0,0 +1,86 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Token-bucket rate limiter for a single Bridge endpoint, which adapts its rate to how Bridge is responding. Each
+ * healthy call (fast and not throttled) additively increases the rate, up to the max rate. Each throttled or slow
+ * call multiplicatively decreases the rate, down to the min rate (AIMD).
+ */
+public class AdaptiveRateLimiter {
+    // Each healthy call adds this many permits per second. Starting at 1/sec, it takes (10 - 1) / INCREASE_STEP = 90
+    // healthy calls to reach 10/sec.
+    static final double INCREASE_STEP = 0.1;
+
+    // Each throttled or slow call multiplies the rate by this factor.
+    static final double DECREASE_FACTOR = 0.5;
+
+    private final RateLimiter rateLimiter;
+    private final double minRate;
+    private final double maxRate;
+    private final long latencyThresholdMillis;
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param initialRate
+     *         starting rate, in permits per second
+     * @param minRate
+     *         lowest rate we back off to, in permits per second
+     * @param maxRate
+     *         highest rate we speed up to, in permits per second
+     * @param latencyThresholdMillis
+     *         calls slower than this are treated like throttling
+     */
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, long latencyThresholdMillis) {
+        checkArgument(minRate > 0, "minRate must be positive");
+        checkArgument(minRate <= initialRate && initialRate <= maxRate,
+                "initialRate must be between minRate and maxRate");
+        this.rateLimiter = RateLimiter.create(initialRate);
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+    }
+
+    /** Blocks until a permit is available. Returns the time spent waiting, in seconds. */
+    public double acquire() {
+        return rateLimiter.acquire();
+    }
+
+    /**
+     * Takes a permit if one is available right away. Never waits. Returns true if a permit was taken. For callers that
+     * can't block, which try again later instead.
+     */
+    public boolean tryAcquire() {
+        return rateLimiter.tryAcquire();
+    }
+
+    /** Current rate, in permits per second. */
+    public double getRate() {
+        return rateLimiter.getRate();
+    }
+
+    /** Records a successful call and its latency. Speeds up if the call was fast, slows down if it was slow. */
+    public synchronized void onSuccess(long latencyMillis) {
+        if (latencyMillis > latencyThresholdMillis) {
+            decreaseRate();
+        } else {
+            setRate(rateLimiter.getRate() + INCREASE_STEP);
+        }
+    }
+
+    /** Records a throttled call (429 or 5xx). Slows down. */
+    public synchronized void onThrottled() {
+        decreaseRate();
+    }
+
+    private void decreaseRate() {
+        setRate(rateLimiter.getRate() * DECREASE_FACTOR);
+    }
+
+    private void setRate(double rate) {
+        rateLimiter.setRate(Math.max(minRate, Math.min(maxRate, rate)));
+    }
+}
@@ -0,0 +1,22 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+/** Bridge Server endpoints called by the reporter. Used to key per-endpoint rate limiting and metrics. */
+public enum BridgeEndpoint {
+    GET_STUDIES("getStudies"),
+    GET_UPLOADS("getUploads"),
+    GET_PARTICIPANTS("getParticipants"),
+    GET_PARTICIPANT_BY_ID("getParticipantById"),
+    SAVE_REPORT("saveReport"),
+    GET_REPORTS("getStudyReportRecords");
+
+    private final String name;
+
+    BridgeEndpoint(String name) {
+        this.name = name;
+    }
+
+    /** Endpoint name, matching the REST client method name. Used as the key in config and metrics. */
+    public String getName() {
+        return name;
+    }
+}
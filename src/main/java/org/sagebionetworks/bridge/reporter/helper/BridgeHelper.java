@@ -1,22 +1,67 @@
 package org.sagebionetworks.bridge.reporter.helper;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import javax.annotation.Resource;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.LocalDate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
+import org.sagebionetworks.bridge.config.Config;
 import org.sagebionetworks.bridge.reporter.worker.Report;
 import org.sagebionetworks.bridge.rest.ClientManager;
 import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
 import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
 import org.sagebionetworks.bridge.rest.model.AccountSummary;
 import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
 import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
 import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.rest.model.StudyParticipant;
 import org.sagebionetworks.bridge.rest.model.Upload;
@@ -29,12 +74,76 @@ import org.sagebionetworks.bridge.rest.model.UploadList;
 public class BridgeHelper {
     private static final Logger LOG = LoggerFactory.getLogger(BridgeHelper.class);
 
-    // match read capacity in ddb table
+    // Default page sizes, if none are configured. Upload pages match read capacity in ddb table.
     static final int MAX_PAGE_SIZE = 10;
-    private static final long THREAD_SLEEP_INTERVAL = 1000L;
-    private static final int PARTICIPANT_PAGE_SIZE = 100;
+    static final int PARTICIPANT_PAGE_SIZE = 100;
+    private static final int DEFAULT_PARTICIPANT_PAGE_PREFETCH_DEPTH = 1;
+    private static final int DEFAULT_PARTICIPANT_FETCH_PARALLELISM = 1;
+    private static final String STUDIES_CACHE_KEY = "studies";
+
+    // Default rate limiting, if none is configured, starts at 10 calls per second per endpoint and speeds up to 20
+    // while Bridge is healthy, backing off if Bridge starts throttling us. The config only tunes these per endpoint.
+    private static final double DEFAULT_INITIAL_RATE = 10.0;
+    private static final double DEFAULT_MIN_RATE = 0.1;
+    private static final double DEFAULT_MAX_RATE = 20.0;
+    private static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 5000L;
+
+    private static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_STATUS_SERVER_ERROR = 500;
+
+    // Default retries, if none are configured, are none, as before.
+    private static final int DEFAULT_MAX_ATTEMPTS = 1;
+    private static final long DEFAULT_RETRY_BASE_BACKOFF_MILLIS = 500L;
+    private static final long DEFAULT_RETRY_MAX_BACKOFF_MILLIS = 10000L;
 
     private ClientManager bridgeClientManager;
+    private Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap = defaultRateLimiterMap();
+    private Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap = defaultPageSizerMap();
+    private Map<BridgeEndpoint, CircuitBreaker> circuitBreakerMap = new EnumMap<>(BridgeEndpoint.class);
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long retryBaseBackoffMillis = DEFAULT_RETRY_BASE_BACKOFF_MILLIS;
+    private long retryMaxBackoffMillis = DEFAULT_RETRY_MAX_BACKOFF_MILLIS;
+    private long callDeadlineMillis = 0L;
+    private ExecutorService participantFetchExecutorService = MoreExecutors.newDirectExecutorService();
+    private ExecutorService pageFetchExecutorService = MoreExecutors.newDirectExecutorService();
+    private int participantPagePrefetchDepth = DEFAULT_PARTICIPANT_PAGE_PREFETCH_DEPTH;
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private ConcurrentMap<FetchKey, InFlightFetch> inFlightFetchMap = null;
+    private final ConcurrentMap<FetchKey, ScanPageSize> inFlightScanMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService asyncExecutorService = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("bridge-async-%d").setDaemon(true).build());
+    private boolean asyncEnabled = false;
+    private AsyncCallLimiter participantFetchLimiter = new AsyncCallLimiter(DEFAULT_PARTICIPANT_FETCH_PARALLELISM);
+    private final Map<BridgeEndpoint, RateLimitWaitQueue> rateLimitWaitQueueMap = newRateLimitWaitQueueMap();
+    private LoadingCache<String, List<Study>> studiesCache = null;
+
+    /** Bridge Reporter config. */
+    @Resource(name = "reporterConfigProperties")
+    public final void setConfig(Config config) {
+        this.participantPagePrefetchDepth = config.getInt("reporter.participant.page.prefetch.depth");
+        setParticipantFetchParallelism(config.getInt("reporter.participant.fetch.parallelism"));
+        setCoalescingEnabled(Boolean.parseBoolean(config.get("reporter.coalesce.enabled")));
+        setStudiesCacheTtl(config.getInt("reporter.studies.cache.refresh.seconds"),
+                config.getInt("reporter.studies.cache.expire.seconds"));
+        this.asyncEnabled = Boolean.parseBoolean(config.get("reporter.bridge.async.enabled"));
+        setRetryPolicy(config.getInt("reporter.retry.max.attempts"),
+                config.getInt("reporter.retry.base.backoff.millis"), config.getInt("reporter.retry.max.backoff.millis"),
+                config.getInt("reporter.call.deadline.millis"));
+    }
+
+    /**
+     * Retries for transient Bridge failures. Each call is tried up to maxAttempts times. The backoff before each retry
+     * starts at baseBackoffMillis and doubles, up to maxBackoffMillis, with jitter. A call isn't retried if the retry
+     * would start more than deadlineMillis after the first attempt. A deadline of 0 means no deadline. Defaults to
+     * 1 attempt, which is no retries.
+     */
+    public final void setRetryPolicy(int maxAttempts, long baseBackoffMillis, long maxBackoffMillis,
+            long deadlineMillis) {
+        this.maxAttempts = maxAttempts;
+        this.retryBaseBackoffMillis = baseBackoffMillis;
+        this.retryMaxBackoffMillis = maxBackoffMillis;
+        this.callDeadlineMillis = deadlineMillis;
+    }
 
     /** Bridge Client Manager, with credentials for Exporter account. This is used to refresh the session. */
     @Autowired
@@ -42,11 +151,164 @@ public class BridgeHelper {
         this.bridgeClientManager = bridgeClientManager;
     }
 
+    /**
+     * Per-endpoint rate limiters. If not set, each endpoint starts at 10 calls per second, and adapts between 0.1 and
+     * 20 calls per second.
+     */
+    @Resource(name = "rateLimiterMap")
+    public final void setRateLimiterMap(Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap) {
+        this.rateLimiterMap = rateLimiterMap;
+    }
+
+    /** Per-endpoint circuit breakers. Endpoints without a circuit breaker are always called. Defaults to none. */
+    @Resource(name = "circuitBreakerMap")
+    public final void setCircuitBreakerMap(Map<BridgeEndpoint, CircuitBreaker> circuitBreakerMap) {
+        this.circuitBreakerMap = circuitBreakerMap;
+    }
+
+    /**
+     * Per-endpoint page sizes, for the paged endpoints (uploads and account summaries). If not set, pages are a fixed
+     * 10 uploads or 100 account summaries.
+     */
+    @Resource(name = "pageSizerMap")
+    public final void setPageSizerMap(Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap) {
+        this.pageSizerMap = pageSizerMap;
+    }
+
+    /**
+     * Executor for participant detail calls. Its pool size bounds how many detail calls are in flight at once. If not
+     * set, detail calls are made one at a time on the calling thread.
+     */
+    @Resource(name = "participantFetchExecutorService")
+    public final void setParticipantFetchExecutorService(ExecutorService participantFetchExecutorService) {
+        this.participantFetchExecutorService = participantFetchExecutorService;
+    }
+
+    /**
+     * Executor that pages are prefetched on, so that fetching the next page overlaps with handling the current one. If
+     * not set, pages are fetched on the calling thread, one page ahead.
+     */
+    @Resource(name = "pageFetchExecutorService")
+    public final void setPageFetchExecutorService(ExecutorService pageFetchExecutorService) {
+        this.pageFetchExecutorService = pageFetchExecutorService;
+    }
+
+    /**
+     * Executor that async Bridge calls are composed on. Rate limiter waits and retry backoffs are scheduled on it, and
+     * async results complete on it. None of its threads wait on the network, so a few threads can keep many calls in
+     * flight. Page handlers never run on it, so slow handlers can't hold up retries and rate limiting for other
+     * studies. If not set, a single daemon thread is used.
+     */
+    @Resource(name = "bridgeAsyncExecutorService")
+    public final void setAsyncExecutorService(ScheduledExecutorService asyncExecutorService) {
+        this.asyncExecutorService = asyncExecutorService;
+    }
+
+    /**
+     * If true, the blocking participant detail and report save methods run on the async path and wait for the result,
+     * so only the calling thread waits, rather than one thread per call in flight. The blocking paging methods prefetch
+     * pages on the async path, but still handle them on the calling thread. Defaults to false.
+     */
+    public final void setAsyncEnabled(boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    /**
+     * Max number of async participant detail calls in flight at once, across all studies. Blocking detail calls are
+     * bounded by the participant fetch executor instead. If not set, async detail calls are made one at a time.
+     */
+    public final void setParticipantFetchParallelism(int participantFetchParallelism) {
+        this.participantFetchLimiter = new AsyncCallLimiter(participantFetchParallelism);
+    }
+
+    /** Registry for per-endpoint call timers, error counts, rate limiter waits, and page and record counts. */
+    @Resource(name = "metricRegistry")
+    public final void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    /**
+     * If true, identical page and participant fetches, such as two schedulers scanning the same study and window at
+     * the same time, share one call to Bridge while it's in flight. Results aren't kept once the call completes, so
+     * memory still depends on the page size. Defaults to false.
+     */
+    public final void setCoalescingEnabled(boolean coalescingEnabled) {
+        this.inFlightFetchMap = coalescingEnabled ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Caches the study list. Once the list is older than refreshSeconds, the next caller gets the cached list right
+     * away while it's refreshed in the background (stale-while-revalidate). Once it's older than expireSeconds, callers
+     * wait for a fresh list. If refreshSeconds is 0, the study list isn't cached, which is the default.
+     */
+    public final void setStudiesCacheTtl(int refreshSeconds, int expireSeconds) {
+        setStudiesCacheTtl(refreshSeconds, expireSeconds, Ticker.systemTicker());
+    }
+
+    // Package-scoped so unit tests can control time.
+    final void setStudiesCacheTtl(int refreshSeconds, int expireSeconds, Ticker ticker) {
+        if (refreshSeconds > 0) {
+            // Background refreshes run on the page fetch executor. Look it up on each refresh, since it may be set
+            // after this.
+            CacheLoader<String, List<Study>> syncLoader = new CacheLoader<String, List<Study>>() {
+                @Override
+                public List<Study> load(String key) throws IOException {
+                    return loadStudies();
+                }
+            };
+            CacheLoader<String, List<Study>> loader = CacheLoader.asyncReloading(syncLoader,
+                    command -> pageFetchExecutorService.execute(command));
+            this.studiesCache = CacheBuilder.newBuilder().refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+                    .expireAfterWrite(expireSeconds, TimeUnit.SECONDS).ticker(ticker).build(loader);
+        } else {
+            this.studiesCache = null;
+        }
+    }
+
+    /** Drops the cached study list, so the next request fetches it fresh. */
+    public void invalidateStudiesCache() {
+        if (studiesCache != null) {
+            studiesCache.invalidateAll();
+        }
+    }
+
+    /** Max number of participant pages in flight ahead of the page being handled. */
+    public final void setParticipantPagePrefetchDepth(int participantPagePrefetchDepth) {
+        this.participantPagePrefetchDepth = participantPagePrefetchDepth;
+    }
+
     /*
      * Helper method to get all studies summary as list from sdk
      */
     public List<Study> getAllStudiesSummary() throws IOException {
-        return bridgeClientManager.getClient(StudiesApi.class).getStudies(true).execute().body().getItems();
+        if (studiesCache == null) {
+            return fetchStudies();
+        }
+
+        metricRegistry.meter(MetricRegistry.name(BridgeHelper.class, "studies-cache", "requests")).mark();
+        try {
+            return studiesCache.get(STUDIES_CACHE_KEY);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+            Throwable cause = ex.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class);
+            throw new IOException(cause);
+        }
+    }
+
+    // Cache loader for the study list. If a background refresh fails, the cache keeps serving the old list.
+    private List<Study> loadStudies() throws IOException {
+        metricRegistry.meter(MetricRegistry.name(BridgeHelper.class, "studies-cache", "loads")).mark();
+        try {
+            return fetchStudies();
+        } catch (IOException | RuntimeException ex) {
+            metricRegistry.counter(MetricRegistry.name(BridgeHelper.class, "studies-cache", "load-errors")).inc();
+            throw ex;
+        }
+    }
+
+    private List<Study> fetchStudies() throws IOException {
+        return ImmutableList.copyOf(execute(BridgeEndpoint.GET_STUDIES, bridgeClientManager
+                .getClient(StudiesApi.class).getStudies(true)).getItems());
     }
 
     /*
@@ -55,65 +317,1019 @@ public class BridgeHelper {
      */
     public List<Upload> getUploadsForStudy(String studyId, DateTime startDateTime, DateTime endDateTime)
             throws IOException {
-
         List<Upload> retList = new ArrayList<>();
-        String offsetKey = null;
+        forEachUploadPage(studyId, startDateTime, endDateTime, retList::addAll);
+        return retList;
+    }
 
+    /**
+     * Helper method to stream all uploads for specified study and date range, one page at a time. Only one page is
+     * held at a time, so memory depends on the page size rather than the number of uploads in the date range.
+     *
+     * Paging is double-buffered: as soon as a page arrives, the next page is requested on the page fetch executor,
+     * so fetching page N+1 overlaps with handling page N. The page size is picked when the scan starts, and kept for
+     * the whole scan. If async calls are enabled, pages are fetched on the async path instead of the page fetch
+     * executor. Pages are always handled on the calling thread.
+     */
+    public void forEachUploadPage(String studyId, DateTime startDateTime, DateTime endDateTime,
+            PageHandler<Upload> pageHandler) throws IOException {
         ForWorkersApi workersApi = bridgeClientManager.getClient(ForWorkersApi.class);
-        do {
-            
-            final String temOffsetKey = offsetKey;
-            UploadList retBody = workersApi
-                    .getUploads(studyId, startDateTime, endDateTime, MAX_PAGE_SIZE, temOffsetKey).execute()
-                    .body();
-            retList.addAll(retBody.getItems());
-            offsetKey = retBody.getNextPageOffsetKey();
-            doSleep();
-        } while (offsetKey != null);
+        FetchKey scanKey = new FetchKey(BridgeEndpoint.GET_UPLOADS, studyId, startDateTime, endDateTime, null);
+        int pageSize = startScan(scanKey);
 
-        return retList;
+        Future<UploadList> nextPageFuture = null;
+        try {
+            nextPageFuture = prefetchUploadPage(workersApi, studyId, startDateTime, endDateTime, pageSize, null);
+            do {
+                UploadList retBody = getUnchecked(nextPageFuture);
+                markPage(BridgeEndpoint.GET_UPLOADS, retBody.getItems().size());
+                String offsetKey = retBody.getNextPageOffsetKey();
+                if (offsetKey != null) {
+                    nextPageFuture = prefetchUploadPage(workersApi, studyId, startDateTime, endDateTime, pageSize,
+                            offsetKey);
+                } else {
+                    nextPageFuture = null;
+                }
+                pageHandler.handlePage(retBody.getItems());
+            } while (nextPageFuture != null);
+        } finally {
+            // If the page handler threw, don't leave a page fetch running in the background.
+            if (nextPageFuture != null) {
+                nextPageFuture.cancel(true);
+            }
+            endScan(scanKey);
+        }
     }
     
+    /*
+     * Helper method to get all participants, with full details, for specified study and date range
+     */
     public List<StudyParticipant> getParticipantsForStudy(String studyId, DateTime startDateTime, DateTime endDateTime)
             throws IOException {
         List<StudyParticipant> retList = new ArrayList<>();
-        
+        forEachParticipantSummaryPage(studyId, startDateTime, endDateTime, page -> {
+            List<String> userIdList = page.stream().map(AccountSummary::getId).collect(Collectors.toList());
+            retList.addAll(getParticipantDetails(studyId, userIdList));
+        });
+        return retList;
+    }
+
+    /**
+     * Helper method to stream account summaries for specified study and date range, one page at a time. This is one
+     * call per page, as opposed to fetching each participant's full details.
+     *
+     * The first page tells us the total, so the offsets of all other pages are known in advance. Up to the participant
+     * page prefetch depth of those pages are requested on the page fetch executor while earlier pages are handled. The
+     * page size is picked when the scan starts, and kept for the whole scan.
+     *
+     * If async calls are enabled, pages are fetched on the async path instead of the page fetch executor. Pages are
+     * always handled on the calling thread, so page handlers can make blocking Bridge calls.
+     */
+    public void forEachParticipantSummaryPage(String studyId, DateTime startDateTime, DateTime endDateTime,
+            PageHandler<AccountSummary> pageHandler) throws IOException {
         ForWorkersApi workersApi = bridgeClientManager.getClient(ForWorkersApi.class);
-        
-        int offset = 0;
-        int total;
-        do {
-            AccountSummaryList summaries = workersApi
-                    .getParticipants(studyId, offset, PARTICIPANT_PAGE_SIZE, null, null, startDateTime, endDateTime)
-                    .execute().body();
-            for (AccountSummary summary : summaries.getItems()) {
-                StudyParticipant participant = workersApi.getParticipantById(studyId, summary.getId(), false).execute().body();
-                retList.add(participant);
-                doSleep();
-            }
-            total = summaries.getTotal();
-            offset += PARTICIPANT_PAGE_SIZE;
-        } while(offset < total);
-        
+        FetchKey scanKey = new FetchKey(BridgeEndpoint.GET_PARTICIPANTS, studyId, startDateTime, endDateTime, null);
+        int pageSize = startScan(scanKey);
+
+        Deque<Future<AccountSummaryList>> inFlightPageQueue = new ArrayDeque<>();
+        try {
+            AccountSummaryList summaries = asyncEnabled ? getUnchecked(getParticipantSummaryPageAsync(workersApi,
+                    studyId, startDateTime, endDateTime, 0, pageSize)) : getParticipantSummaryPage(workersApi, studyId,
+                    startDateTime, endDateTime, 0, pageSize);
+            markPage(BridgeEndpoint.GET_PARTICIPANTS, summaries.getItems().size());
+            int total = summaries.getTotal();
+            int nextOffset = pageSize;
+            while (true) {
+                // Keep the prefetch queue full before handling the current page.
+                while (inFlightPageQueue.size() < participantPagePrefetchDepth && nextOffset < total) {
+                    int offset = nextOffset;
+                    inFlightPageQueue.add(prefetchParticipantSummaryPage(workersApi, studyId, startDateTime,
+                            endDateTime, offset, pageSize));
+                    nextOffset += pageSize;
+                }
+
+                pageHandler.handlePage(summaries.getItems());
+
+                if (inFlightPageQueue.isEmpty()) {
+                    break;
+                }
+                summaries = getUnchecked(inFlightPageQueue.poll());
+                markPage(BridgeEndpoint.GET_PARTICIPANTS, summaries.getItems().size());
+
+                // New accounts may have been created while we were paging.
+                total = Math.max(total, summaries.getTotal());
+            }
+        } finally {
+            // If the page handler threw, don't leave page fetches running in the background.
+            for (Future<AccountSummaryList> inFlightPage : inFlightPageQueue) {
+                inFlightPage.cancel(true);
+            }
+            endScan(scanKey);
+        }
+    }
+
+    /**
+     * Helper method to get full participant details for the given user IDs. The calls are fanned out on the
+     * participant fetch executor, which bounds how many are in flight at once. Participants are returned in the same
+     * order as the user IDs.
+     */
+    public List<StudyParticipant> getParticipantDetails(String studyId, List<String> userIdList) throws IOException {
+        if (asyncEnabled) {
+            return getUnchecked(getParticipantDetailsAsync(studyId, userIdList));
+        }
+
+        ForWorkersApi workersApi = bridgeClientManager.getClient(ForWorkersApi.class);
+
+        List<Future<StudyParticipant>> futureList = new ArrayList<>();
+        for (String userId : userIdList) {
+            futureList.add(participantFetchExecutorService.submit(() -> coalesce(new FetchKey(
+                    BridgeEndpoint.GET_PARTICIPANT_BY_ID, studyId, null, null, userId), () -> execute(
+                    BridgeEndpoint.GET_PARTICIPANT_BY_ID, workersApi.getParticipantById(studyId, userId, false)))));
+        }
+
+        List<StudyParticipant> retList = new ArrayList<>();
+        for (Future<StudyParticipant> future : futureList) {
+            retList.add(getUnchecked(future));
+        }
         return retList;
     }
-    
-    private void doSleep() {
-        // sleep a second
+
+    /**
+     * Async version of {@link #forEachUploadPage}. Pages are handled one at a time, in order, on the given handler
+     * executor, such as the study's executor. As soon as a page arrives, the next page is requested, so fetching page
+     * N+1 overlaps with handling page N. The future completes once every page has been handled, or fails with the
+     * first error.
+     */
+    public CompletableFuture<Void> forEachUploadPageAsync(String studyId, DateTime startDateTime,
+            DateTime endDateTime, PageHandler<Upload> pageHandler, Executor pageHandlerExecutor) {
+        ForWorkersApi workersApi = bridgeClientManager.getClient(ForWorkersApi.class);
+        FetchKey scanKey = new FetchKey(BridgeEndpoint.GET_UPLOADS, studyId, startDateTime, endDateTime, null);
+        int pageSize = startScan(scanKey);
+        CompletableFuture<Void> future = handleUploadPagesAsync(workersApi, studyId, startDateTime, endDateTime,
+                pageSize, getUploadPageAsync(workersApi, studyId, startDateTime, endDateTime, pageSize, null),
+                pageHandler, pageHandlerExecutor);
+        future.whenComplete((result, ex) -> endScan(scanKey));
+        return future;
+    }
+
+    // Handles the page, then the pages after it. Each page is handled in its own task, so a long chain of pages that
+    // are already fetched doesn't grow the stack.
+    private CompletableFuture<Void> handleUploadPagesAsync(ForWorkersApi workersApi, String studyId,
+            DateTime startDateTime, DateTime endDateTime, int pageSize, CompletableFuture<UploadList> pageFuture,
+            PageHandler<Upload> pageHandler, Executor pageHandlerExecutor) {
+        return pageFuture.thenComposeAsync(page -> {
+            markPage(BridgeEndpoint.GET_UPLOADS, page.getItems().size());
+            String offsetKey = page.getNextPageOffsetKey();
+            CompletableFuture<UploadList> nextPageFuture = offsetKey != null ? getUploadPageAsync(workersApi,
+                    studyId, startDateTime, endDateTime, pageSize, offsetKey) : null;
+            try {
+                pageHandler.handlePage(page.getItems());
+            } catch (IOException | RuntimeException ex) {
+                // If the page handler threw, don't leave the next page fetch running in the background.
+                if (nextPageFuture != null) {
+                    nextPageFuture.cancel(false);
+                }
+                throw ex instanceof IOException ? new CompletionException(ex) : (RuntimeException) ex;
+            }
+            return nextPageFuture != null ? handleUploadPagesAsync(workersApi, studyId, startDateTime, endDateTime,
+                    pageSize, nextPageFuture, pageHandler, pageHandlerExecutor) : CompletableFuture.completedFuture(
+                            null);
+        }, pageHandlerExecutor);
+    }
+
+    /**
+     * Async version of {@link #forEachParticipantSummaryPage}. Pages are handled one at a time, in order, on the given
+     * handler executor, such as the study's executor. Up to the participant page prefetch depth of pages are fetched
+     * ahead of the page being handled. The future completes once every page has been handled, or
+     * fails with the first error, in which case pages still being fetched are cancelled.
+     */
+    public CompletableFuture<Void> forEachParticipantSummaryPageAsync(String studyId, DateTime startDateTime,
+            DateTime endDateTime, PageHandler<AccountSummary> pageHandler, Executor pageHandlerExecutor) {
+        ForWorkersApi workersApi = bridgeClientManager.getClient(ForWorkersApi.class);
+        FetchKey scanKey = new FetchKey(BridgeEndpoint.GET_PARTICIPANTS, studyId, startDateTime, endDateTime, null);
+        int pageSize = startScan(scanKey);
+        ParticipantPageScan scan = new ParticipantPageScan(workersApi, studyId, startDateTime, endDateTime, pageSize,
+                pageHandler, pageHandlerExecutor);
+        CompletableFuture<Void> future = scan.handlePages(getParticipantSummaryPageAsync(workersApi, studyId,
+                startDateTime, endDateTime, 0, pageSize));
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                scan.cancelPrefetches();
+            }
+            endScan(scanKey);
+        });
+        return future;
+    }
+
+    // State of one async participant summary scan. Pages are handled one at a time, so only one stage uses the state
+    // at a time.
+    private final class ParticipantPageScan {
+        private final ForWorkersApi workersApi;
+        private final String studyId;
+        private final DateTime startDateTime;
+        private final DateTime endDateTime;
+        private final int pageSize;
+        private final PageHandler<AccountSummary> pageHandler;
+        private final Executor pageHandlerExecutor;
+        private final Deque<CompletableFuture<AccountSummaryList>> inFlightPageQueue = new ArrayDeque<>();
+        private int total = 0;
+        private int nextOffset;
+
+        ParticipantPageScan(ForWorkersApi workersApi, String studyId, DateTime startDateTime, DateTime endDateTime,
+                int pageSize, PageHandler<AccountSummary> pageHandler, Executor pageHandlerExecutor) {
+            this.workersApi = workersApi;
+            this.studyId = studyId;
+            this.startDateTime = startDateTime;
+            this.endDateTime = endDateTime;
+            this.pageSize = pageSize;
+            this.pageHandler = pageHandler;
+            this.pageHandlerExecutor = pageHandlerExecutor;
+            this.nextOffset = pageSize;
+        }
+
+        // Handles the page, then the pages after it, keeping the prefetch queue full before handling each page.
+        CompletableFuture<Void> handlePages(CompletableFuture<AccountSummaryList> pageFuture) {
+            return pageFuture.thenComposeAsync(summaries -> {
+                markPage(BridgeEndpoint.GET_PARTICIPANTS, summaries.getItems().size());
+
+                // New accounts may have been created while we were paging.
+                total = Math.max(total, summaries.getTotal());
+                while (inFlightPageQueue.size() < participantPagePrefetchDepth && nextOffset < total) {
+                    inFlightPageQueue.add(getParticipantSummaryPageAsync(workersApi, studyId, startDateTime,
+                            endDateTime, nextOffset, pageSize));
+                    nextOffset += pageSize;
+                }
+
+                try {
+                    pageHandler.handlePage(summaries.getItems());
+                } catch (IOException ex) {
+                    throw new CompletionException(ex);
+                }
+                CompletableFuture<AccountSummaryList> nextPageFuture = inFlightPageQueue.poll();
+                return nextPageFuture != null ? handlePages(nextPageFuture) : CompletableFuture.completedFuture(null);
+            }, pageHandlerExecutor);
+        }
+
+        void cancelPrefetches() {
+            for (CompletableFuture<AccountSummaryList> inFlightPage : inFlightPageQueue) {
+                inFlightPage.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Async version of {@link #getParticipantDetails}. Detail calls are sent without a thread per call, paced by the
+     * rate limiter, with up to the participant fetch parallelism in flight at once, across all studies. Participants
+     * are returned in the same order as the user IDs.
+     */
+    public CompletableFuture<List<StudyParticipant>> getParticipantDetailsAsync(String studyId,
+            List<String> userIdList) {
+        ForWorkersApi workersApi = bridgeClientManager.getClient(ForWorkersApi.class);
+
+        List<CompletableFuture<StudyParticipant>> futureList = new ArrayList<>();
+        for (String userId : userIdList) {
+            futureList.add(coalesceAsync(new FetchKey(BridgeEndpoint.GET_PARTICIPANT_BY_ID, studyId, null, null,
+                    userId), () -> participantFetchLimiter.submit(() -> executeAsync(
+                            BridgeEndpoint.GET_PARTICIPANT_BY_ID, workersApi.getParticipantById(studyId, userId,
+                                    false)))));
+        }
+        return CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[futureList.size()]))
+                .thenApply(ignored -> futureList.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /** Async version of {@link #saveReportForStudy}. */
+    public CompletableFuture<Void> saveReportForStudyAsync(Report report) {
+        ReportData reportData = new ReportData().date(report.getDate().toString()).data(report.getData());
+        return executeAsync(BridgeEndpoint.SAVE_REPORT, bridgeClientManager.getClient(ForWorkersApi.class)
+                .saveReport(report.getStudyId(), report.getReportId(), reportData)).thenApply(message -> null);
+    }
+
+    // Async version of getUploadPage.
+    private CompletableFuture<UploadList> getUploadPageAsync(ForWorkersApi workersApi, String studyId,
+            DateTime startDateTime, DateTime endDateTime, int pageSize, String offsetKey) {
+        return coalesceAsync(new FetchKey(BridgeEndpoint.GET_UPLOADS, studyId, startDateTime, endDateTime,
+                Arrays.asList(offsetKey, pageSize)), () -> executeAsync(BridgeEndpoint.GET_UPLOADS,
+                        workersApi.getUploads(studyId, startDateTime, endDateTime, pageSize, offsetKey)));
+    }
+
+    // Starts fetching a page of uploads for the blocking paging method, on the async path if async calls are enabled,
+    // or else on the page fetch executor.
+    private Future<UploadList> prefetchUploadPage(ForWorkersApi workersApi, String studyId, DateTime startDateTime,
+            DateTime endDateTime, int pageSize, String offsetKey) {
+        if (asyncEnabled) {
+            return getUploadPageAsync(workersApi, studyId, startDateTime, endDateTime, pageSize, offsetKey);
+        }
+        return pageFetchExecutorService.submit(() -> getUploadPage(workersApi, studyId, startDateTime, endDateTime,
+                pageSize, offsetKey));
+    }
+
+    // Starts fetching a page of account summaries for the blocking paging method, like prefetchUploadPage.
+    private Future<AccountSummaryList> prefetchParticipantSummaryPage(ForWorkersApi workersApi, String studyId,
+            DateTime startDateTime, DateTime endDateTime, int offset, int pageSize) {
+        if (asyncEnabled) {
+            return getParticipantSummaryPageAsync(workersApi, studyId, startDateTime, endDateTime, offset, pageSize);
+        }
+        return pageFetchExecutorService.submit(() -> getParticipantSummaryPage(workersApi, studyId, startDateTime,
+                endDateTime, offset, pageSize));
+    }
+
+    // Fetches one page of uploads, sharing the call with identical in-flight fetches.
+    private UploadList getUploadPage(ForWorkersApi workersApi, String studyId, DateTime startDateTime,
+            DateTime endDateTime, int pageSize, String offsetKey) throws IOException {
+        return coalesce(new FetchKey(BridgeEndpoint.GET_UPLOADS, studyId, startDateTime, endDateTime,
+                Arrays.asList(offsetKey, pageSize)), () -> execute(BridgeEndpoint.GET_UPLOADS, workersApi.getUploads(
+                        studyId, startDateTime, endDateTime, pageSize, offsetKey)));
+    }
+
+    // Async version of getParticipantSummaryPage.
+    private CompletableFuture<AccountSummaryList> getParticipantSummaryPageAsync(ForWorkersApi workersApi,
+            String studyId, DateTime startDateTime, DateTime endDateTime, int offset, int pageSize) {
+        return coalesceAsync(new FetchKey(BridgeEndpoint.GET_PARTICIPANTS, studyId, startDateTime, endDateTime,
+                Arrays.asList(offset, pageSize)), () -> executeAsync(BridgeEndpoint.GET_PARTICIPANTS,
+                        workersApi.getParticipants(studyId, offset, pageSize, null, null, startDateTime, endDateTime)));
+    }
+
+    // Fetches one page of account summaries, sharing the call with identical in-flight fetches.
+    private AccountSummaryList getParticipantSummaryPage(ForWorkersApi workersApi, String studyId,
+            DateTime startDateTime, DateTime endDateTime, int offset, int pageSize) throws IOException {
+        return coalesce(new FetchKey(BridgeEndpoint.GET_PARTICIPANTS, studyId, startDateTime, endDateTime,
+                Arrays.asList(offset, pageSize)), () -> execute(BridgeEndpoint.GET_PARTICIPANTS,
+                        workersApi.getParticipants(studyId, offset, pageSize, null, null, startDateTime, endDateTime)));
+    }
+
+    /**
+     * Starts a scan of a paged endpoint, and returns the page size to use for the whole scan. Page offsets depend on
+     * the page size, so a scan keeps one page size. Identical scans in flight at the same time use the same page size,
+     * even if the page sizer has adapted in between, so their page fetches can be coalesced. Each call must be
+     * followed by {@link #endScan}.
+     */
+    private int startScan(FetchKey scanKey) {
+        return inFlightScanMap.compute(scanKey, (key, scanPageSize) -> {
+            if (scanPageSize == null) {
+                scanPageSize = new ScanPageSize(nextPageSize(key.endpoint));
+            }
+            scanPageSize.numScans++;
+            return scanPageSize;
+        }).pageSize;
+    }
+
+    // Ends a scan started by startScan. Once no identical scans are in flight, the next one gets a fresh page size.
+    private void endScan(FetchKey scanKey) {
+        inFlightScanMap.computeIfPresent(scanKey, (key, scanPageSize) -> --scanPageSize.numScans > 0 ? scanPageSize
+                : null);
+    }
+
+    // Current page size for the given paged endpoint. Page sizes are recorded per endpoint, so the metrics show how
+    // the page size is adapting.
+    private int nextPageSize(BridgeEndpoint endpoint) {
+        int pageSize = pageSizerMap.get(endpoint).getPageSize();
+        metricRegistry.histogram(metricName(endpoint, "page-size")).update(pageSize);
+        return pageSize;
+    }
+
+    // Page size of the identical scans in flight. Only read and written inside the scan map's compute methods.
+    private static final class ScanPageSize {
+        private final int pageSize;
+        private int numScans = 0;
+
+        ScanPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+    }
+
+    /**
+     * Single-flight: if an identical fetch is in flight, waits for it and shares its result. Otherwise, calls the
+     * fetcher. Fetches are only shared while they're in flight, so neither results nor failures are kept. Results are
+     * shared between callers, so they must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(FetchKey key, Callable<T> fetcher) throws IOException {
+        if (inFlightFetchMap == null) {
+            return callUnchecked(fetcher);
+        }
+
+        InFlightFetch newFetch = new InFlightFetch();
+        InFlightFetch fetch = joinFetch(key, newFetch);
+        if (fetch != newFetch) {
+            return (T) getUnchecked(fetch.future);
+        }
+
+        try {
+            T result = callUnchecked(fetcher);
+            newFetch.future.complete(result);
+            return result;
+        } catch (IOException | RuntimeException | Error ex) {
+            newFetch.future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightFetchMap.remove(key, newFetch);
+        }
+    }
+
+    // Joins the identical fetch in flight, or starts tracking the new fetch if there isn't one.
+    private InFlightFetch joinFetch(FetchKey key, InFlightFetch newFetch) {
+        InFlightFetch fetch = inFlightFetchMap.compute(key, (k, inFlightFetch) -> {
+            InFlightFetch joinedFetch = inFlightFetch != null ? inFlightFetch : newFetch;
+            joinedFetch.numCallers++;
+            return joinedFetch;
+        });
+        if (fetch != newFetch) {
+            metricRegistry.meter(metricName(key.endpoint, "coalesced")).mark();
+        }
+        return fetch;
+    }
+
+    // Leaves a fetch whose caller cancelled. Once no callers are left, the fetch itself is cancelled.
+    private void leaveFetch(FetchKey key, InFlightFetch fetch) {
+        inFlightFetchMap.computeIfPresent(key, (k, inFlightFetch) -> {
+            if (inFlightFetch == fetch && --fetch.numCallers == 0) {
+                fetch.abandoned = true;
+                return null;
+            }
+            return inFlightFetch;
+        });
+        if (fetch.abandoned) {
+            fetch.future.cancel(false);
+        }
+    }
+
+    private static <T> T callUnchecked(Callable<T> callable) throws IOException {
+        try {
+            return callable.call();
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    // Waits for the future and unwraps its exception, so callers see the original IOException or RuntimeException.
+    private static <T> T getUnchecked(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting on Bridge call", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class);
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Executes a call against the given endpoint, retrying transient failures. Throttling (429), server errors (5xx),
+     * network errors, and empty responses are retried with exponential backoff and jitter, up to the max attempts and
+     * within the call deadline. Other errors fail right away. If the endpoint's circuit breaker is open, the call fails
+     * fast without going to Bridge.
+     */
+    private <T> T execute(BridgeEndpoint endpoint, Call<T> call) throws IOException {
+        CircuitBreaker circuitBreaker = circuitBreakerMap.get(endpoint);
+        long startMillis = DateTimeUtils.currentTimeMillis();
+        Call<T> attemptCall = call;
+        for (int attempt = 1; ; attempt++) {
+            if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+                metricRegistry.meter(metricName(endpoint, "circuit-rejected")).mark();
+                throw new IOException("Circuit breaker open for Bridge call " + endpoint.getName());
+            }
+
+            try {
+                T body = executeOnce(endpoint, attemptCall);
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess();
+                }
+                return body;
+            } catch (IOException | RuntimeException ex) {
+                long backoffMillis = onAttemptFailure(endpoint, circuitBreaker, ex, attempt, startMillis);
+                if (backoffMillis < 0) {
+                    throw ex;
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interruptedEx) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted retrying Bridge call " + endpoint.getName());
+                }
+
+                // A Retrofit call can only be executed once. Clone it to retry the same request.
+                attemptCall = attemptCall.clone();
+            }
+        }
+    }
+
+    /**
+     * Records a failed attempt of a call against the endpoint's circuit breaker. Returns the backoff before retrying,
+     * or -1 if the call shouldn't be retried: the failure isn't transient, the call is out of attempts, or the retry
+     * would start past the call deadline.
+     */
+    private long onAttemptFailure(BridgeEndpoint endpoint, CircuitBreaker circuitBreaker, Exception ex, int attempt,
+            long startMillis) {
+        boolean retryable = isRetryable(ex);
+        if (circuitBreaker != null) {
+            // Only transient failures count against Bridge's health. Anything else means Bridge answered.
+            if (!retryable) {
+                circuitBreaker.onSuccess();
+            } else if (circuitBreaker.onFailure()) {
+                metricRegistry.meter(metricName(endpoint, "circuit-opened")).mark();
+                LOG.warn("Circuit breaker opened for Bridge call {}", endpoint.getName());
+            }
+        }
+
+        long backoffMillis = retryBackoffMillis(attempt);
+        if (!retryable || attempt >= maxAttempts || (callDeadlineMillis > 0
+                && DateTimeUtils.currentTimeMillis() + backoffMillis - startMillis > callDeadlineMillis)) {
+            return -1L;
+        }
+
+        metricRegistry.meter(metricName(endpoint, "retries")).mark();
+        LOG.warn("Retrying Bridge call {} in {} ms, attempt {} of {} failed: {}", endpoint.getName(), backoffMillis,
+                attempt, maxAttempts, ex.getMessage());
+        return backoffMillis;
+    }
+
+    /**
+     * Executes a single attempt of a call against the given endpoint, waiting on that endpoint's rate limiter first.
+     * The latency and outcome of the call are fed back into the rate limiter, so that it speeds up while Bridge is
+     * healthy and backs off when Bridge throttles us or slows down. For paged endpoints, they're also fed back into the
+     * page sizer. Time waiting on the rate limiter, call latency, and errors are recorded per endpoint.
+     */
+    private <T> T executeOnce(BridgeEndpoint endpoint, Call<T> call) throws IOException {
+        double waitSeconds = rateLimiterMap.get(endpoint).acquire();
+        metricRegistry.timer(metricName(endpoint, "rate-limit-wait")).update((long) (waitSeconds * 1000000000.0),
+                TimeUnit.NANOSECONDS);
+
+        Timer.Context timerContext = metricRegistry.timer(metricName(endpoint, "requests")).time();
+        Response<T> response;
+        long latencyNanos;
         try {
-            Thread.sleep(THREAD_SLEEP_INTERVAL);
-        } catch (InterruptedException e) {
-            LOG.warn("The thread for get uploads was being interrupted.", e);
+            response = call.execute();
+        } catch (IOException | RuntimeException ex) {
+            onCallFailure(endpoint, ex);
+            throw ex;
+        } finally {
+            latencyNanos = timerContext.stop();
         }
+        return handleResponse(endpoint, response, latencyNanos);
+    }
+
+    // Records a call that failed without a response, such as a network error, or an error status that the REST client
+    // turned into an exception.
+    private void onCallFailure(BridgeEndpoint endpoint, Throwable ex) {
+        metricRegistry.counter(metricName(endpoint, "errors")).inc();
+        if (ex instanceof BridgeSDKException && isThrottled(((BridgeSDKException) ex).getStatusCode())) {
+            onThrottled(endpoint, rateLimiterMap.get(endpoint), pageSizerMap.get(endpoint),
+                    ((BridgeSDKException) ex).getStatusCode());
+        }
+    }
+
+    // Feeds a response back into the endpoint's rate limiter and page sizer, and returns its body. Error statuses and
+    // empty bodies are thrown.
+    private <T> T handleResponse(BridgeEndpoint endpoint, Response<T> response, long latencyNanos)
+            throws IOException {
+        AdaptiveRateLimiter rateLimiter = rateLimiterMap.get(endpoint);
+        AdaptivePageSizer pageSizer = pageSizerMap.get(endpoint);
+        if (!response.isSuccessful()) {
+            metricRegistry.counter(metricName(endpoint, "errors")).inc();
+            if (isThrottled(response.code())) {
+                onThrottled(endpoint, rateLimiter, pageSizer, response.code());
+            }
+            throw new BridgeStatusException(endpoint, response.code());
+        }
+
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        rateLimiter.onSuccess(latencyMillis);
+        if (pageSizer != null) {
+            pageSizer.onSuccess(latencyMillis);
+        }
+
+        T body = response.body();
+        if (body == null) {
+            metricRegistry.counter(metricName(endpoint, "errors")).inc();
+            throw new IOException("Bridge call " + endpoint.getName() + " returned an empty body");
+        }
+        return body;
+    }
+
+    /**
+     * Async version of {@link #execute}. The call is sent with the REST client's enqueue, so no thread waits on the
+     * network. Waits on the rate limiter and retry backoffs are scheduled on the async executor rather than slept, and
+     * the returned future completes on the async executor. Rate limiting, retries, circuit breakers, and metrics work
+     * the same as for blocking calls.
+     */
+    private <T> CompletableFuture<T> executeAsync(BridgeEndpoint endpoint, Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executeAttemptAsync(endpoint, call, 1, DateTimeUtils.currentTimeMillis(), future);
+        return future;
+    }
+
+    private <T> void executeAttemptAsync(BridgeEndpoint endpoint, Call<T> call, int attempt, long startMillis,
+            CompletableFuture<T> future) {
+        // If the caller cancelled, don't try again.
+        if (future.isDone()) {
+            return;
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerMap.get(endpoint);
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            metricRegistry.meter(metricName(endpoint, "circuit-rejected")).mark();
+            future.completeExceptionally(new IOException("Circuit breaker open for Bridge call "
+                    + endpoint.getName()));
+            return;
+        }
+
+        executeOnceAsync(endpoint, call, future).whenCompleteAsync((body, ex) -> {
+            if (future.isDone()) {
+                return;
+            }
+            if (ex == null) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess();
+                }
+                future.complete(body);
+                return;
+            }
+
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            long backoffMillis = cause instanceof Exception ? onAttemptFailure(endpoint, circuitBreaker,
+                    (Exception) cause, attempt, startMillis) : -1L;
+            if (backoffMillis < 0) {
+                future.completeExceptionally(cause);
+                return;
+            }
+
+            // A Retrofit call can only be executed once. Clone it to retry the same request.
+            Call<T> retryCall = call.clone();
+            asyncExecutorService.schedule(() -> executeAttemptAsync(endpoint, retryCall, attempt + 1, startMillis,
+                    future), backoffMillis, TimeUnit.MILLISECONDS);
+        }, asyncExecutorService);
+    }
+
+    // Async version of executeOnce. Callbacks from the REST client only record the outcome and complete the future. If
+    // the caller's future is cancelled, the call isn't sent, or if it's already been sent, it's cancelled.
+    private <T> CompletableFuture<T> executeOnceAsync(BridgeEndpoint endpoint, Call<T> call,
+            CompletableFuture<?> callerFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        acquireAsync(endpoint, () -> {
+            if (callerFuture.isDone()) {
+                future.cancel(false);
+                return;
+            }
+
+            Timer.Context timerContext = metricRegistry.timer(metricName(endpoint, "requests")).time();
+            try {
+                call.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(Call<T> call, Response<T> response) {
+                        long latencyNanos = timerContext.stop();
+                        try {
+                            future.complete(handleResponse(endpoint, response, latencyNanos));
+                        } catch (IOException | RuntimeException ex) {
+                            future.completeExceptionally(ex);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<T> call, Throwable ex) {
+                        timerContext.stop();
+                        if (!call.isCanceled()) {
+                            onCallFailure(endpoint, ex);
+                        }
+                        future.completeExceptionally(ex);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                timerContext.stop();
+                onCallFailure(endpoint, ex);
+                future.completeExceptionally(ex);
+                return;
+            }
+            callerFuture.whenComplete((result, ex) -> {
+                if (callerFuture.isCancelled()) {
+                    call.cancel();
+                }
+            });
+        });
+        return future;
+    }
+
+    // Runs the task once the endpoint's rate limiter has a permit, without blocking. If there isn't one yet, or other
+    // tasks are already waiting, the task joins the endpoint's wait queue.
+    private void acquireAsync(BridgeEndpoint endpoint, Runnable task) {
+        long waitStartNanos = System.nanoTime();
+        Runnable timedTask = () -> {
+            metricRegistry.timer(metricName(endpoint, "rate-limit-wait")).update(System.nanoTime() - waitStartNanos,
+                    TimeUnit.NANOSECONDS);
+            task.run();
+        };
+
+        RateLimitWaitQueue waitQueue = rateLimitWaitQueueMap.get(endpoint);
+        synchronized (waitQueue) {
+            if (waitQueue.draining || !rateLimiterMap.get(endpoint).tryAcquire()) {
+                waitQueue.waiterQueue.add(timedTask);
+                if (!waitQueue.draining) {
+                    waitQueue.draining = true;
+                    scheduleDrain(endpoint, waitQueue);
+                }
+                return;
+            }
+        }
+        timedTask.run();
+    }
+
+    // Hands out permits to waiting tasks, in order, for as long as the rate limiter has permits. If tasks are still
+    // waiting, drains again after about one permit interval. Only one drain is scheduled per endpoint, so waiting tasks
+    // don't all wake up to compete for each permit.
+    private void drainRateLimitWaitQueue(BridgeEndpoint endpoint, RateLimitWaitQueue waitQueue) {
+        AdaptiveRateLimiter rateLimiter = rateLimiterMap.get(endpoint);
+        List<Runnable> readyTaskList = new ArrayList<>();
+        synchronized (waitQueue) {
+            while (!waitQueue.waiterQueue.isEmpty() && rateLimiter.tryAcquire()) {
+                readyTaskList.add(waitQueue.waiterQueue.poll());
+            }
+            if (waitQueue.waiterQueue.isEmpty()) {
+                waitQueue.draining = false;
+            } else {
+                scheduleDrain(endpoint, waitQueue);
+            }
+        }
+        readyTaskList.forEach(Runnable::run);
+    }
+
+    private void scheduleDrain(BridgeEndpoint endpoint, RateLimitWaitQueue waitQueue) {
+        long permitIntervalMillis = Math.max(1L, (long) (1000.0 / rateLimiterMap.get(endpoint).getRate()));
+        asyncExecutorService.schedule(() -> drainRateLimitWaitQueue(endpoint, waitQueue), permitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Async tasks waiting on an endpoint's rate limiter, in the order they arrived, and whether a drain is scheduled.
+    // Guarded by the wait queue itself.
+    private static final class RateLimitWaitQueue {
+        private final Queue<Runnable> waiterQueue = new ArrayDeque<>();
+        private boolean draining = false;
+    }
+
+    /**
+     * Async version of {@link #coalesce}. Identical fetches share one fetch while it's in flight. Each caller gets its
+     * own future, so a caller cancelling its future doesn't fail the others. The fetch itself is only cancelled once
+     * every caller has cancelled.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesceAsync(FetchKey key, Supplier<CompletableFuture<T>> fetcher) {
+        if (inFlightFetchMap == null) {
+            return fetcher.get();
+        }
+
+        InFlightFetch newFetch = new InFlightFetch();
+        InFlightFetch fetch = joinFetch(key, newFetch);
+        if (fetch == newFetch) {
+            CompletableFuture<T> fetchFuture = fetchUnchecked(fetcher);
+            fetchFuture.whenComplete((result, ex) -> {
+                inFlightFetchMap.remove(key, newFetch);
+                completeFrom(newFetch.future, result, ex);
+            });
+            newFetch.future.whenComplete((result, ex) -> {
+                if (newFetch.future.isCancelled()) {
+                    fetchFuture.cancel(false);
+                }
+            });
+        }
+
+        CompletableFuture<T> callerFuture = new CompletableFuture<>();
+        fetch.future.whenComplete((result, ex) -> completeFrom(callerFuture, (T) result, ex));
+        callerFuture.whenComplete((result, ex) -> {
+            if (callerFuture.isCancelled()) {
+                leaveFetch(key, fetch);
+            }
+        });
+        return callerFuture;
+    }
+
+    // Calls the fetcher. If it throws, returns a failed future instead, so all failures are handled the same way.
+    private static <T> CompletableFuture<T> fetchUnchecked(Supplier<CompletableFuture<T>> fetcher) {
+        try {
+            return fetcher.get();
+        } catch (RuntimeException ex) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+
+    // Completes the future with the result, or with the error, unwrapped from any CompletionException.
+    private static <T> void completeFrom(CompletableFuture<T> future, T result, Throwable ex) {
+        if (ex != null) {
+            future.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause()
+                    : ex);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    // A fetch in flight, and the number of callers sharing it. Callers are only counted inside the in-flight map's
+    // compute methods.
+    private static final class InFlightFetch {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private int numCallers = 0;
+        private boolean abandoned = false;
+    }
+
+    // Bounds how many async calls are in flight at once. Calls past the bound wait in a queue, and are started in
+    // order as earlier calls complete.
+    private final class AsyncCallLimiter {
+        private final int maxInFlight;
+        private final Queue<Runnable> pendingQueue = new ArrayDeque<>();
+        private int numInFlight = 0;
+
+        AsyncCallLimiter(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> fetcher) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            Runnable start = () -> fetchUnchecked(fetcher).whenComplete((result, ex) -> {
+                release();
+                completeFrom(future, result, ex);
+            });
+
+            boolean startNow;
+            synchronized (this) {
+                startNow = numInFlight < maxInFlight;
+                if (startNow) {
+                    numInFlight++;
+                } else {
+                    pendingQueue.add(start);
+                }
+            }
+            if (startNow) {
+                start.run();
+            }
+            return future;
+        }
+
+        // Hands the finished call's slot to the next pending call. The next call is started on the async executor, so
+        // a long queue of calls that fail right away doesn't grow the stack.
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = pendingQueue.poll();
+                if (next == null) {
+                    numInFlight--;
+                }
+            }
+            if (next != null) {
+                asyncExecutorService.execute(next);
+            }
+        }
+    }
+
+    // Exponential backoff, with equal jitter: half the backoff is fixed, and the other half is random, so that callers
+    // that failed together don't all retry together.
+    private long retryBackoffMillis(int attempt) {
+        long backoffMillis = Math.min(retryMaxBackoffMillis, retryBaseBackoffMillis << Math.min(attempt - 1, 30));
+        long halfBackoffMillis = backoffMillis / 2;
+        return halfBackoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis - halfBackoffMillis + 1);
+    }
+
+    // Throttling, server errors, and I/O errors (network errors, timeouts, empty bodies) are transient. Other Bridge
+    // errors, such as 4xx, and runtime exceptions won't go away on retry.
+    private static boolean isRetryable(Exception ex) {
+        if (ex instanceof BridgeSDKException) {
+            return isThrottled(((BridgeSDKException) ex).getStatusCode());
+        } else if (ex instanceof BridgeStatusException) {
+            return isThrottled(((BridgeStatusException) ex).getStatusCode());
+        } else {
+            return ex instanceof IOException && !(ex instanceof InterruptedIOException
+                    && Thread.currentThread().isInterrupted());
+        }
+    }
+
+    // Thrown when Bridge answers a call with an error status that the REST client didn't already turn into an
+    // exception.
+    private static final class BridgeStatusException extends IOException {
+        private final int statusCode;
+
+        BridgeStatusException(BridgeEndpoint endpoint, int statusCode) {
+            super("Bridge call " + endpoint.getName() + " failed with status " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    // Counts a page, and the records in it, fetched from the given endpoint.
+    private void markPage(BridgeEndpoint endpoint, int numRecords) {
+        metricRegistry.meter(metricName(endpoint, "pages")).mark();
+        metricRegistry.meter(metricName(endpoint, "records")).mark(numRecords);
+    }
+
+    // Identifies a fetch for coalescing. Date-times are compared as instants, so the same window in different time
+    // zones is the same fetch. The discriminator is whatever else identifies the fetch, such as a page offset.
+    private static final class FetchKey {
+        private final BridgeEndpoint endpoint;
+        private final String studyId;
+        private final Long startMillis;
+        private final Long endMillis;
+        private final Object discriminator;
+
+        FetchKey(BridgeEndpoint endpoint, String studyId, DateTime startDateTime, DateTime endDateTime,
+                Object discriminator) {
+            this.endpoint = endpoint;
+            this.studyId = studyId;
+            this.startMillis = startDateTime != null ? startDateTime.getMillis() : null;
+            this.endMillis = endDateTime != null ? endDateTime.getMillis() : null;
+            this.discriminator = discriminator;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FetchKey)) {
+                return false;
+            }
+            FetchKey that = (FetchKey) o;
+            return endpoint == that.endpoint && Objects.equals(studyId, that.studyId)
+                    && Objects.equals(startMillis, that.startMillis) && Objects.equals(endMillis, that.endMillis)
+                    && Objects.equals(discriminator, that.discriminator);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, studyId, startMillis, endMillis, discriminator);
+        }
+    }
+
+    private static String metricName(BridgeEndpoint endpoint, String suffix) {
+        return MetricRegistry.name(BridgeHelper.class, endpoint.getName(), suffix);
+    }
+
+    private static void onThrottled(BridgeEndpoint endpoint, AdaptiveRateLimiter rateLimiter,
+            AdaptivePageSizer pageSizer, int statusCode) {
+        rateLimiter.onThrottled();
+        if (pageSizer != null) {
+            pageSizer.onThrottled();
+            LOG.warn("Bridge call {} throttled with status {}, backing off to {} calls/sec and pages of {}",
+                    endpoint.getName(), statusCode, rateLimiter.getRate(), pageSizer.getPageSize());
+        } else {
+            LOG.warn("Bridge call {} throttled with status {}, backing off to {} calls/sec", endpoint.getName(),
+                    statusCode, rateLimiter.getRate());
+        }
+    }
+
+    private static boolean isThrottled(int statusCode) {
+        return statusCode == HTTP_STATUS_TOO_MANY_REQUESTS || statusCode >= HTTP_STATUS_SERVER_ERROR;
+    }
+
+    private static Map<BridgeEndpoint, AdaptiveRateLimiter> defaultRateLimiterMap() {
+        Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            rateLimiterMap.put(endpoint, new AdaptiveRateLimiter(DEFAULT_INITIAL_RATE, DEFAULT_MIN_RATE,
+                    DEFAULT_MAX_RATE, DEFAULT_LATENCY_THRESHOLD_MILLIS));
+        }
+        return rateLimiterMap;
+    }
+
+    private static Map<BridgeEndpoint, RateLimitWaitQueue> newRateLimitWaitQueueMap() {
+        Map<BridgeEndpoint, RateLimitWaitQueue> waitQueueMap = new EnumMap<>(BridgeEndpoint.class);
+        for (BridgeEndpoint endpoint : BridgeEndpoint.values()) {
+            waitQueueMap.put(endpoint, new RateLimitWaitQueue());
+        }
+        return waitQueueMap;
+    }
+
+    private static Map<BridgeEndpoint, AdaptivePageSizer> defaultPageSizerMap() {
+        Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap = new EnumMap<>(BridgeEndpoint.class);
+        pageSizerMap.put(BridgeEndpoint.GET_UPLOADS, new AdaptivePageSizer(MAX_PAGE_SIZE, MAX_PAGE_SIZE, MAX_PAGE_SIZE,
+                DEFAULT_LATENCY_THRESHOLD_MILLIS));
+        pageSizerMap.put(BridgeEndpoint.GET_PARTICIPANTS, new AdaptivePageSizer(PARTICIPANT_PAGE_SIZE,
+                PARTICIPANT_PAGE_SIZE, PARTICIPANT_PAGE_SIZE, DEFAULT_LATENCY_THRESHOLD_MILLIS));
+        return pageSizerMap;
     }
 
     /**
      * Helper method to save report for specified study with report id and report data
      */
     public void saveReportForStudy(Report report) throws IOException {
+        if (asyncEnabled) {
+            getUnchecked(saveReportForStudyAsync(report));
+            return;
+        }
+
         ReportData reportData = new ReportData().date(report.getDate().toString()).data(report.getData());
-        bridgeClientManager.getClient(ForWorkersApi.class)
-                .saveReport(report.getStudyId(), report.getReportId(), reportData).execute();
+        execute(BridgeEndpoint.SAVE_REPORT, bridgeClientManager.getClient(ForWorkersApi.class)
+                .saveReport(report.getStudyId(), report.getReportId(), reportData));
     }
 
+    /**
+     * Helper method to get previously saved reports for specified study, report id and date range (inclusive).
+     */
+    public List<ReportData> getReportsForStudy(String studyId, String reportId, LocalDate startDate,
+            LocalDate endDate) throws IOException {
+        ReportDataList reportDataList = execute(BridgeEndpoint.GET_REPORTS, bridgeClientManager
+                .getClient(ForWorkersApi.class).getStudyReportRecords(studyId, reportId, startDate, endDate));
+        return reportDataList.getItems();
+    }
 }
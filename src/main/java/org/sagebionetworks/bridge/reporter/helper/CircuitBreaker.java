@@ -0,0 +1,86 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.joda.time.DateTimeUtils;
+
+/**
+ * Circuit breaker for a single Bridge endpoint. After enough consecutive failures, the circuit opens and calls fail
+ * fast without going to Bridge. Once the open period is over, one trial call is let through (half-open). If it
+ * succeeds, the circuit closes. If it fails, the circuit opens again.
+ */
+public class CircuitBreaker {
+    /** Circuit breaker states. */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedOnMillis;
+    private boolean trialInFlight = false;
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold
+     *         number of consecutive failures that opens the circuit
+     * @param openMillis
+     *         how long the circuit stays open before a trial call is let through
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        checkArgument(failureThreshold > 0, "failureThreshold must be positive");
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /** Returns true if a call may go to Bridge. If the open period is over, this lets through the trial call. */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && DateTimeUtils.currentTimeMillis() >= openedOnMillis + openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Records a call that Bridge answered. Closes the circuit. */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /** Records a failed call. Returns true if this failure opened the circuit. */
+    public synchronized boolean onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedOnMillis = DateTimeUtils.currentTimeMillis();
+            trialInFlight = false;
+            return true;
+        }
+        return false;
+    }
+
+    /** Current state. */
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,14 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Callback for paginated Bridge calls. BridgeHelper calls this once per page, so callers can aggregate each page and
+ * drop it, rather than holding every record in memory at once.
+ */
+@FunctionalInterface
+public interface PageHandler<T> {
+    /** Handles a single page of results. */
+    void handlePage(List<T> page) throws IOException;
+}
@@ -0,0 +1,238 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Splitter;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.model.AccountStatus;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+
+/**
+ * Local cache of the participant fields the report generators use (status and sharing scope), so reruns and
+ * overlapping windows don't fetch the same participants again. Keyed by study and participant ID, with LRU eviction
+ * once the cache holds maxEntries participants.
+ *
+ * Account summaries don't have a modified-on time, so a cached participant is only used if the summary's created-on
+ * time and status still match and the entry is younger than the TTL. The TTL bounds how stale a sharing scope can be,
+ * since sharing scope can change without changing the summary.
+ *
+ * The cache is kept in memory and persisted to a local file by {@link #flush}, and read back by {@link #load}. Since
+ * the whole file is rewritten, callers that finish work often should call {@link #flushIfDue} instead, which flushes at
+ * most once per flush interval. The file is written from a snapshot, outside the lock, so gets and puts don't wait on
+ * disk I/O.
+ */
+public class ParticipantDetailCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ParticipantDetailCache.class);
+
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final Splitter FIELD_SPLITTER = Splitter.on(FIELD_SEPARATOR);
+    private static final int NUM_FIELDS = 6;
+
+    private final Path cacheFile;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private long flushIntervalMillis = 0L;
+    private long lastFlushMillis = 0L;
+    private final Map<String, CachedParticipant> entryMap;
+    private boolean dirty = false;
+
+    // Serializes flushes, so concurrent flushes don't write the same temp file, and a newer snapshot is never
+    // replaced by an older one. Held without holding the cache's own lock while writing. Package-scoped for unit
+    // tests.
+    final Object flushLock = new Object();
+
+    /**
+     * Creates a participant detail cache.
+     *
+     * @param cacheFile
+     *         file the cache is persisted to, or null to keep it in memory only
+     * @param maxEntries
+     *         max number of participants cached, after which the least recently used are evicted; 0 caches nothing
+     * @param ttlMillis
+     *         how long a cached participant can be used for; 0 caches nothing
+     */
+    public ParticipantDetailCache(Path cacheFile, int maxEntries, long ttlMillis) {
+        this.cacheFile = cacheFile;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entryMap = new LinkedHashMap<String, CachedParticipant>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedParticipant> eldest) {
+                return size() > ParticipantDetailCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** Min time between flushes by {@link #flushIfDue}. Defaults to 0, which flushes every time. */
+    public synchronized void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Returns the cached sharing scope of the participant with the given account summary. Returns null if the
+     * participant isn't cached, or the cached entry is stale. The only allocation is the lookup key.
+     */
+    public synchronized SharingScope getSharingScope(String studyId, AccountSummary summary) {
+        CachedParticipant entry = entryMap.get(key(studyId, summary.getId()));
+        if (entry == null || !entry.matches(summary)
+                || DateTimeUtils.currentTimeMillis() - entry.cachedOnMillis > ttlMillis) {
+            return null;
+        }
+        return entry.sharingScope;
+    }
+
+    /**
+     * Caches the given participant, fetched for the given account summary. Participants without a sharing scope
+     * aren't cached, so a null from {@link #getSharingScope} always means the participant needs to be fetched.
+     */
+    public synchronized void put(String studyId, AccountSummary summary, StudyParticipant participant) {
+        if (maxEntries == 0 || ttlMillis == 0 || summary.getCreatedOn() == null || summary.getStatus() == null
+                || participant.getSharingScope() == null) {
+            // Can't validate the entry later, or can't tell it apart from a miss, so don't cache it.
+            return;
+        }
+        entryMap.put(key(studyId, summary.getId()), new CachedParticipant(summary.getCreatedOn().getMillis(),
+                summary.getStatus(), participant.getSharingScope(), DateTimeUtils.currentTimeMillis()));
+        dirty = true;
+    }
+
+    /** Number of participants cached. */
+    public synchronized int size() {
+        return entryMap.size();
+    }
+
+    /** Reads the cache file, if there is one. Unreadable lines are skipped. */
+    public synchronized void load() throws IOException {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> fieldList = FIELD_SPLITTER.splitToList(line);
+                if (fieldList.size() != NUM_FIELDS) {
+                    continue;
+                }
+                try {
+                    // Files written before entries needed a sharing scope may have an empty one. Skip those.
+                    SharingScope sharingScope = SharingScope.valueOf(fieldList.get(4));
+                    entryMap.put(key(fieldList.get(0), fieldList.get(1)), new CachedParticipant(
+                            Long.parseLong(fieldList.get(2)), AccountStatus.valueOf(fieldList.get(3)), sharingScope,
+                            Long.parseLong(fieldList.get(5))));
+                } catch (IllegalArgumentException ex) {
+                    // Includes NumberFormatException. Skip the line, it'll be refetched.
+                }
+            }
+        }
+        LOG.info("Loaded {} cached participants from {}", entryMap.size(), cacheFile);
+    }
+
+    /** Flushes, if anything changed and the last flush was at least the flush interval ago. */
+    public void flushIfDue() throws IOException {
+        synchronized (this) {
+            if (DateTimeUtils.currentTimeMillis() - lastFlushMillis < flushIntervalMillis) {
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Writes the cache file, if anything changed since the last flush. The entries are copied under the lock, and the
+     * file is written from the copy, so the cache can be used while the file is written. The file is replaced
+     * atomically, so a crash mid-write leaves the previous file.
+     */
+    public void flush() throws IOException {
+        if (cacheFile == null) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            // Entries are written least recently used first, so when they're loaded back, the LRU order is the same.
+            // Cached entries are immutable, so the snapshot only needs to copy the keys and references.
+            List<Map.Entry<String, CachedParticipant>> snapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                snapshot = new ArrayList<>(entryMap.size());
+                for (Map.Entry<String, CachedParticipant> mapEntry : entryMap.entrySet()) {
+                    snapshot.add(new AbstractMap.SimpleImmutableEntry<>(mapEntry));
+                }
+                dirty = false;
+                lastFlushMillis = DateTimeUtils.currentTimeMillis();
+            }
+
+            try {
+                writeFile(snapshot);
+            } catch (IOException | RuntimeException ex) {
+                // Try again on the next flush.
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    private void writeFile(List<Map.Entry<String, CachedParticipant>> snapshot) throws IOException {
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, CachedParticipant> mapEntry : snapshot) {
+                CachedParticipant entry = mapEntry.getValue();
+                // Keys are study ID and user ID, already tab-separated.
+                writer.write(mapEntry.getKey());
+                writer.write(FIELD_SEPARATOR);
+                writer.write(String.valueOf(entry.createdOnMillis));
+                writer.write(FIELD_SEPARATOR);
+                writer.write(entry.status.name());
+                writer.write(FIELD_SEPARATOR);
+                writer.write(entry.sharingScope.name());
+                writer.write(FIELD_SEPARATOR);
+                writer.write(String.valueOf(entry.cachedOnMillis));
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(String studyId, String userId) {
+        return studyId + FIELD_SEPARATOR + userId;
+    }
+
+    private static final class CachedParticipant {
+        private final long createdOnMillis;
+        private final AccountStatus status;
+        private final SharingScope sharingScope;
+        private final long cachedOnMillis;
+
+        CachedParticipant(long createdOnMillis, AccountStatus status, SharingScope sharingScope, long cachedOnMillis) {
+            this.createdOnMillis = createdOnMillis;
+            this.status = status;
+            this.sharingScope = sharingScope;
+            this.cachedOnMillis = cachedOnMillis;
+        }
+
+        boolean matches(AccountSummary summary) {
+            return summary.getCreatedOn() != null && summary.getCreatedOn().getMillis() == createdOnMillis
+                    && summary.getStatus() == status;
+        }
+    }
+}
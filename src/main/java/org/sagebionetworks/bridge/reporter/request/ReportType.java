@@ -1,13 +1,35 @@
 package org.sagebionetworks.bridge.reporter.request;
 
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.Map;
+
+import org.joda.time.Period;
 
 public enum ReportType {
     DAILY("DAILY"), // aka DAILY_UPLOADS 
     WEEKLY("WEEKLY"), // aka WEEKLY_UPLOADS
-    DAILY_SIGNUPS("DAILY_SIGNUPS");
+    DAILY_SIGNUPS("DAILY_SIGNUPS"),
+    DAILY_UPLOAD_LATENCY("DAILY_UPLOAD_LATENCY"),
+    WEEKLY_UPLOAD_LATENCY("WEEKLY_UPLOAD_LATENCY"),
+    DAILY_UNIQUE_UPLOADERS("DAILY_UNIQUE_UPLOADERS"),
+    WEEKLY_UNIQUE_UPLOADERS("WEEKLY_UNIQUE_UPLOADERS"),
+    MONTHLY_UNIQUE_UPLOADERS("MONTHLY_UNIQUE_UPLOADERS");
     
     private static final EnumSet<ReportType> UPLOAD_REPORTS = EnumSet.of(DAILY,WEEKLY);
+    private static final EnumSet<ReportType> ROLLUP_REPORTS = EnumSet.of(WEEKLY, WEEKLY_UPLOAD_LATENCY,
+            WEEKLY_UNIQUE_UPLOADERS, MONTHLY_UNIQUE_UPLOADERS);
+
+    // Report ID suffixes are built once, since every generated report needs one.
+    private static final Map<ReportType, String> SUFFIX_MAP = new EnumMap<>(ReportType.class);
+    static {
+        for (ReportType reportType : values()) {
+            // Upload reports were initially assumed, account for that here
+            SUFFIX_MAP.put(reportType, UPLOAD_REPORTS.contains(reportType)
+                    ? "-" + reportType.name().toLowerCase() + "-upload-report"
+                    : "-" + reportType.name().replace('_', '-').toLowerCase() + "-report");
+        }
+    }
 
     private final String name;
 
@@ -19,11 +41,47 @@ public enum ReportType {
         return this.name;
     }
 
-    public String getSuffix() {
-        // Upload reports were initially assumed, account for that here
-        if (UPLOAD_REPORTS.contains(this)) {
-            return "-" + this.name().toLowerCase() + "-upload-report";
+    /**
+     * True if this report can be computed by merging the saved DAILY reports for each day in its date range, instead
+     * of rescanning the raw data.
+     */
+    public boolean isRollup() {
+        return ROLLUP_REPORTS.contains(this);
+    }
+
+    /** For roll-up reports, the daily report type whose saved reports are merged. Null for other report types. */
+    public ReportType getRollupDailyType() {
+        switch (this) {
+            case WEEKLY:
+                return DAILY;
+            case WEEKLY_UPLOAD_LATENCY:
+                return DAILY_UPLOAD_LATENCY;
+            case WEEKLY_UNIQUE_UPLOADERS:
+            case MONTHLY_UNIQUE_UPLOADERS:
+                return DAILY_UNIQUE_UPLOADERS;
+            default:
+                return null;
         }
-        return "-" + this.name().replaceAll("_", "-").toLowerCase() + "-report";
+    }
+
+    /**
+     * Date range each report of this type covers, for splitting backfill requests: a day for daily reports, a week
+     * for weekly reports, and a month for monthly reports.
+     */
+    public Period getReportPeriod() {
+        switch (this) {
+            case WEEKLY:
+            case WEEKLY_UPLOAD_LATENCY:
+            case WEEKLY_UNIQUE_UPLOADERS:
+                return Period.weeks(1);
+            case MONTHLY_UNIQUE_UPLOADERS:
+                return Period.months(1);
+            default:
+                return Period.days(1);
+        }
+    }
+
+    public String getSuffix() {
+        return SUFFIX_MAP.get(this);
     }
 }
@@ -2,23 +2,41 @@ package org.sagebionetworks.bridge.reporter.worker;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import org.joda.time.DateTime;
+import org.joda.time.Period;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import org.sagebionetworks.bridge.config.Config;
 import org.sagebionetworks.bridge.json.DefaultObjectMapper;
 import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
 import org.sagebionetworks.bridge.reporter.request.ReportType;
@@ -26,14 +44,24 @@ import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.sqs.PollSqsWorkerBadRequestException;
 
 /**
- * SQS callback. Called by the PollSqsWorker. This handles a reporting request.
+ * SQS callback. Called by the PollSqsWorker, or by the RequestQueueConsumerPool if it's turned on. This handles a
+ * reporting request.
  */
 @Component
 public class BridgeReporterProcessor {
     private static final Logger LOG = LoggerFactory.getLogger(BridgeReporterProcessor.class);
+
+    // Number of studies in the per-study breakdown of each request's summary.
+    private static final int NUM_SLOWEST_STUDIES_LOGGED = 5;
     
     private Map<ReportType, ReportGenerator> generatorMap;
     private BridgeHelper bridgeHelper;
+    private WriteBehindReportSaver reportSaver;
+    private ExecutorService studyExecutorService = MoreExecutors.newDirectExecutorService();
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private ProgressCheckpointStore progressCheckpointStore = new InMemoryProgressCheckpointStore();
+    private int maxQueuedStudiesPerRequest = Integer.MAX_VALUE;
+    private int studyLogInterval = 1;
     
     @Autowired
     @Qualifier("ReporterHelper")
@@ -41,12 +69,70 @@ public class BridgeReporterProcessor {
         this.bridgeHelper = bridgeHelper;
     }
     
+    /** Saves generated reports in the background. */
+    @Autowired
+    public final void setReportSaver(WriteBehindReportSaver reportSaver) {
+        this.reportSaver = reportSaver;
+    }
+
     @Resource(name="generatorMap")
     public final void setGeneratorMap(Map<ReportType, ReportGenerator> generatorMap) {
         this.generatorMap = generatorMap;
     }
 
-    /** Process the passed sqs msg as JsonNode. */
+    /**
+     * Executor that studies are generated and saved on. This bounds how many studies are processed in parallel. If
+     * not set, studies are processed one at a time on the calling thread.
+     */
+    @Resource(name = "studyExecutorService")
+    public final void setStudyExecutorService(ExecutorService studyExecutorService) {
+        this.studyExecutorService = studyExecutorService;
+    }
+
+    /** Bridge Reporter config. */
+    @Resource(name = "reporterConfigProperties")
+    public final void setConfig(Config config) {
+        this.maxQueuedStudiesPerRequest = config.getInt("reporter.study.parallelism");
+        setStudyLogInterval(config.getInt("reporter.log.study.interval"));
+    }
+
+    /**
+     * Per-study progress is logged for every this many completed studies of a period, and for the last one, instead of
+     * for every study. Each request also logs one summary when it finishes. Defaults to logging every study.
+     */
+    public final void setStudyLogInterval(int studyLogInterval) {
+        this.studyLogInterval = Math.max(1, studyLogInterval);
+    }
+
+    /**
+     * Max number of studies a single request can have queued or generating on the study executor at once. When
+     * requests are processed concurrently, this keeps a long request from filling the executor's queue, so the studies
+     * of a short request are interleaved with it instead of waiting behind it. Defaults to no limit.
+     */
+    public final void setMaxQueuedStudiesPerRequest(int maxQueuedStudiesPerRequest) {
+        this.maxQueuedStudiesPerRequest = maxQueuedStudiesPerRequest;
+    }
+
+    /** Registry for request duration and study generate and save timers, aggregated across studies. */
+    @Resource(name = "metricRegistry")
+    public final void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    /**
+     * Records which studies of a request have completed, so a redelivered request skips them. If not set, checkpoints
+     * are kept in memory.
+     */
+    @Resource(name = "progressCheckpointStore")
+    public final void setProgressCheckpointStore(ProgressCheckpointStore progressCheckpointStore) {
+        this.progressCheckpointStore = progressCheckpointStore;
+    }
+
+    /**
+     * Process the passed sqs msg as JsonNode. A backfill request is split into one request per report period, which
+     * are all queued on the study executor up front, so their studies are generated and saved as fast as the executor
+     * and the Bridge rate limits allow. Each period succeeds or fails, and is checkpointed, independently.
+     */
     public void process(JsonNode body) throws IOException, PollSqsWorkerBadRequestException, InterruptedException {
         BridgeReporterRequest request = deserializeRequest(body);
 
@@ -56,11 +142,21 @@ public class BridgeReporterProcessor {
         ReportType scheduleType = request.getScheduleType();
         ReportGenerator generator = generatorMap.get(scheduleType);
         
-        LOG.info("Received request for hash[scheduler]=" + scheduler + ", scheduleType=" + scheduleType + ", startDate="
-                + startDateTime + ", endDate=" + endDateTime + ", report generator="
-                + generator.getClass().getSimpleName());
+        LOG.info("Received request for hash[scheduler]={}, scheduleType={}, startDate={}, endDate={}, backfill={}, "
+                + "report generator={}", scheduler, scheduleType, startDateTime, endDateTime, request.isBackfill(),
+                generator.getClass().getSimpleName());
+
+        // Totals for the request's summary log.
+        int numStudies = 0;
+        int numStudiesAttempted = 0;
+        int numStudyErrors = 0;
+        int numPeriods = 1;
+        boolean succeeded = false;
+        Map<String, StudyTimings> timingsByStudy = new ConcurrentHashMap<>();
 
         Stopwatch requestStopwatch = Stopwatch.createStarted();
+        Timer.Context requestTimerContext = metricRegistry.timer(MetricRegistry.name(BridgeReporterProcessor.class,
+                "request", scheduleType.name())).time();
         try {
             List<String> studyIdList;
             if (!request.getStudyWhitelist().isEmpty()) {
@@ -72,19 +168,235 @@ public class BridgeReporterProcessor {
                 studyIdList = studySummaries.stream().map(Study::getIdentifier).collect(Collectors.toList());
             }
 
-            for (String studyId : studyIdList) {
-                Report report = generator.generate(request, studyId);
-                
-                bridgeHelper.saveReportForStudy(report);
-                
-                LOG.info("Saved uploads report for hash[studyId]=" + report.getStudyId() + ", scheduleType=" + scheduleType
-                        + ", startDate=" + startDateTime + ",endDate=" + endDateTime + ", reportId=" + report.getReportId()
-                        + ", reportData=" + report.getData().toString());
+            numStudies = studyIdList.size();
+
+            List<BridgeReporterRequest> periodRequestList = request.isBackfill() ? splitBackfillRequest(request)
+                    : ImmutableList.of(request);
+            numPeriods = periodRequestList.size();
+
+            // Queue every period's studies before waiting on any, so one slow period doesn't hold up the next.
+            Semaphore studyPermits = new Semaphore(maxQueuedStudiesPerRequest);
+            Map<BridgeReporterRequest, Map<String, Future<Future<?>>>> futuresByPeriod = new LinkedHashMap<>();
+            for (BridgeReporterRequest periodRequest : periodRequestList) {
+                futuresByPeriod.put(periodRequest, submitStudies(periodRequest, generator, studyIdList,
+                        studyPermits, timingsByStudy));
+            }
+
+            // Wait for each period in order. A period isn't done until every queued save has finished. Checkpoints are
+            // kept until every period completes, so a redelivered backfill skips the periods that did.
+            List<String> failedPeriodList = new ArrayList<>();
+            Throwable firstError = null;
+            int numPeriodsCompleted = 0;
+            for (Map.Entry<BridgeReporterRequest, Map<String, Future<Future<?>>>> periodEntry
+                    : futuresByPeriod.entrySet()) {
+                BridgeReporterRequest periodRequest = periodEntry.getKey();
+                Map<String, Throwable> errorsByStudy = waitForStudies(periodRequest, periodEntry.getValue());
+                numStudiesAttempted += periodEntry.getValue().size();
+                numStudyErrors += errorsByStudy.size();
+                if (!errorsByStudy.isEmpty()) {
+                    metricRegistry.counter(MetricRegistry.name(BridgeReporterProcessor.class, "study", "errors"))
+                            .inc(errorsByStudy.size());
+                    if (!request.isBackfill()) {
+                        throw new IOException("Error generating reports for " + errorsByStudy.size() + " of "
+                                + studyIdList.size() + " studies: " + errorsByStudy.keySet(),
+                                errorsByStudy.values().iterator().next());
+                    }
+                    failedPeriodList.add(periodRequest.getStartDateTime().toLocalDate().toString());
+                    if (firstError == null) {
+                        firstError = errorsByStudy.values().iterator().next();
+                    }
+                }
+
+                if (request.isBackfill()) {
+                    numPeriodsCompleted++;
+                    metricRegistry.counter(MetricRegistry.name(BridgeReporterProcessor.class, "backfill",
+                            "periods")).inc();
+                    LOG.info("Backfilled {} of {} periods for hash[scheduler]={}, scheduleType={}, "
+                            + "period startDate={}, errors={}, elapsed {} seconds", numPeriodsCompleted, numPeriods,
+                            scheduler, scheduleType, periodRequest.getStartDateTime(), errorsByStudy.size(),
+                            requestStopwatch.elapsed(TimeUnit.SECONDS));
+                }
+            }
+
+            // Backfill periods that failed are retried when the request is redelivered. Periods and studies that
+            // completed are skipped by their checkpoints.
+            if (!failedPeriodList.isEmpty()) {
+                throw new IOException("Error backfilling " + failedPeriodList.size() + " of " + numPeriods
+                        + " periods: " + failedPeriodList, firstError);
+            }
+
+            // Every study of every period completed. Clear the checkpoints, so that if this request is ever sent
+            // again on purpose, all studies are regenerated.
+            for (BridgeReporterRequest periodRequest : periodRequestList) {
+                progressCheckpointStore.clear(getCheckpointKey(periodRequest));
+            }
+            succeeded = true;
+        } finally {
+            requestTimerContext.stop();
+            // One summary per request. Studies skipped by checkpoints are counted in neither attempted nor errors. The
+            // per-study breakdown is only logged here, since per-study metrics would be registered forever.
+            LOG.info("Request took {} seconds for hash[scheduler]={}, scheduleType={}, startDate={}, endDate={}, "
+                    + "succeeded={}, studies={}, periods={}, attempted={}, errors={}, slowest studies={}",
+                    requestStopwatch.elapsed(TimeUnit.SECONDS), scheduler, scheduleType, startDateTime, endDateTime,
+                    succeeded, numStudies, numPeriods, numStudiesAttempted, numStudyErrors,
+                    slowestStudies(timingsByStudy));
+        }
+    }
+
+    // Splits a backfill request into one request per report period of its schedule type, starting at its start date.
+    // The last period is clipped to the end date. Each period's end is inclusive, like the request's.
+    static List<BridgeReporterRequest> splitBackfillRequest(BridgeReporterRequest request) {
+        Period reportPeriod = request.getScheduleType().getReportPeriod();
+        DateTime endDateTime = request.getEndDateTime();
+
+        List<BridgeReporterRequest> periodRequestList = new ArrayList<>();
+        for (DateTime periodStartDateTime = request.getStartDateTime(); !periodStartDateTime.isAfter(endDateTime);
+                periodStartDateTime = periodStartDateTime.plus(reportPeriod)) {
+            DateTime periodEndDateTime = periodStartDateTime.plus(reportPeriod).minusMillis(1);
+            if (periodEndDateTime.isAfter(endDateTime)) {
+                periodEndDateTime = endDateTime;
+            }
+            periodRequestList.add(BridgeReporterRequest.Builder.copyOf(request)
+                    .withStartDateTime(periodStartDateTime).withEndDateTime(periodEndDateTime).withBackfill(false)
+                    .build());
+        }
+        return periodRequestList;
+    }
+
+    // Fans out one task per study. Each study succeeds or fails independently, so one bad study doesn't stop the
+    // others. Each task generates its study's report and queues it to be saved, then moves on, so saving overlaps
+    // with generating the next study. If this request was delivered before and failed partway through, studies that
+    // already completed are skipped. Each study holds one of the request's permits until it's generated, so this
+    // blocks once the request has as many studies queued as it has permits.
+    private Map<String, Future<Future<?>>> submitStudies(BridgeReporterRequest request, ReportGenerator generator,
+            List<String> studyIdList, Semaphore studyPermits, Map<String, StudyTimings> timingsByStudy)
+            throws IOException, InterruptedException {
+        String scheduler = request.getScheduler();
+        ReportType scheduleType = request.getScheduleType();
+        String checkpointKey = getCheckpointKey(request);
+        Set<String> completedStudySet = progressCheckpointStore.getCompletedStudies(checkpointKey);
+        if (!completedStudySet.isEmpty()) {
+            LOG.info("Resuming request for hash[scheduler]={}, scheduleType={}, startDate={}, skipping {} already "
+                    + "completed studies", scheduler, scheduleType, request.getStartDateTime(),
+                    completedStudySet.size());
+        }
+
+        int numStudies = studyIdList.size();
+        AtomicInteger numCompleted = new AtomicInteger(completedStudySet.size());
+        Map<String, Future<Future<?>>> futuresByStudy = new LinkedHashMap<>();
+        for (String studyId : studyIdList) {
+            if (completedStudySet.contains(studyId)) {
+                continue;
+            }
+            studyPermits.acquire();
+            try {
+                futuresByStudy.put(studyId, studyExecutorService.submit(() -> {
+                    try {
+                        StudyTimings timings = timingsByStudy.computeIfAbsent(studyId, key -> new StudyTimings());
+                        return generateAndQueueReport(request, generator, studyId, timings, () -> {
+                            markStudyCompleted(checkpointKey, studyId);
+                            int completed = numCompleted.incrementAndGet();
+                            if (completed % studyLogInterval == 0 || completed == numStudies) {
+                                LOG.info("Completed {} of {} studies for hash[scheduler]={}, scheduleType={}, "
+                                        + "startDate={}", completed, numStudies, scheduler, scheduleType,
+                                        request.getStartDateTime());
+                            }
+                        });
+                    } finally {
+                        studyPermits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException ex) {
+                studyPermits.release();
+                throw ex;
             }
+        }
+        return futuresByStudy;
+    }
+
+    // Waits for all studies to be generated and saved, and collects errors per study.
+    private Map<String, Throwable> waitForStudies(BridgeReporterRequest request,
+            Map<String, Future<Future<?>>> futuresByStudy) throws InterruptedException {
+        Map<String, Throwable> errorsByStudy = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Future<?>>> futureEntry : futuresByStudy.entrySet()) {
+            String studyId = futureEntry.getKey();
+            try {
+                futureEntry.getValue().get().get();
+            } catch (ExecutionException ex) {
+                LOG.error("Error generating report for hash[studyId]={}, scheduleType={}, startDate={}, endDate={}: {}",
+                        studyId, request.getScheduleType(), request.getStartDateTime(), request.getEndDateTime(),
+                        ex.getCause().getMessage(), ex.getCause());
+                errorsByStudy.put(studyId, ex.getCause());
+            }
+        }
+        return errorsByStudy;
+    }
+
+    // Generates the report for a single study and queues it to be saved. Returns the save's future. Generation is
+    // timed, and so is saving, from when the report is queued to when it's saved. The timers are aggregated across
+    // studies, and the study's own times are added to its timings for the request's summary.
+    private Future<?> generateAndQueueReport(BridgeReporterRequest request, ReportGenerator generator, String studyId,
+            StudyTimings timings, Runnable afterSave) throws IOException {
+        Report report;
+        Timer.Context timerContext = studyTimer("generate").time();
+        try {
+            report = generator.generate(request, studyId);
         } finally {
-            LOG.info("Request took " + requestStopwatch.elapsed(TimeUnit.SECONDS) + " seconds for hash[scheduler]="
-                    + scheduler + ", scheduleType=" + scheduleType + ", startDate=" + startDateTime + ", endDate="
-                    + endDateTime);
+            timings.generateNanos.addAndGet(timerContext.stop());
+        }
+
+        Stopwatch saveStopwatch = Stopwatch.createStarted();
+        return reportSaver.submit(report, () -> {
+            long saveNanos = saveStopwatch.elapsed(TimeUnit.NANOSECONDS);
+            studyTimer("save").update(saveNanos, TimeUnit.NANOSECONDS);
+            timings.saveNanos.addAndGet(saveNanos);
+            // Report data is only serialized if debug logging is on.
+            LOG.debug("Saved report for hash[studyId]={}, scheduleType={}, startDate={}, endDate={}, reportId={}, "
+                    + "reportData={}", report.getStudyId(), request.getScheduleType(), request.getStartDateTime(),
+                    request.getEndDateTime(), report.getReportId(), report.getData());
+            afterSave.run();
+        });
+    }
+
+    // Checkpoints are an optimization for redelivery. Failing to write one shouldn't fail a study whose report was
+    // saved.
+    private void markStudyCompleted(String checkpointKey, String studyId) {
+        try {
+            progressCheckpointStore.markStudyCompleted(checkpointKey, studyId);
+        } catch (IOException ex) {
+            LOG.warn("Error checkpointing hash[studyId]={}: {}", studyId, ex.getMessage(), ex);
+        }
+    }
+
+    // Identifies a request for checkpointing, so a redelivered request finds the checkpoint of the original.
+    static String getCheckpointKey(BridgeReporterRequest request) {
+        return request.getScheduler() + "|" + request.getScheduleType() + "|" + request.getStartDateTime() + "|"
+                + request.getEndDateTime();
+    }
+
+    private Timer studyTimer(String phase) {
+        return metricRegistry.timer(MetricRegistry.name(BridgeReporterProcessor.class, "study", phase));
+    }
+
+    // The studies that took longest to generate and save, slowest first, for the request's summary.
+    static String slowestStudies(Map<String, StudyTimings> timingsByStudy) {
+        return timingsByStudy.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, StudyTimings> entry) -> entry.getValue()
+                        .totalNanos()).reversed())
+                .limit(NUM_SLOWEST_STUDIES_LOGGED)
+                .map(entry -> entry.getKey() + " generate=" + TimeUnit.NANOSECONDS.toMillis(entry.getValue()
+                        .generateNanos.get()) + "ms save=" + TimeUnit.NANOSECONDS.toMillis(entry.getValue()
+                        .saveNanos.get()) + "ms")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    // Time one study spent generating and saving within a request, summed across backfill periods.
+    static final class StudyTimings {
+        final AtomicLong generateNanos = new AtomicLong();
+        final AtomicLong saveNanos = new AtomicLong();
+
+        long totalNanos() {
+            return generateNanos.get() + saveNanos.get();
         }
     }
 
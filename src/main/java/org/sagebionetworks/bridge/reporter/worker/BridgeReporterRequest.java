@@ -21,15 +21,17 @@ public class BridgeReporterRequest {
     private final String scheduler;
     private final List<String> studyWhitelist;
     private final ReportType reportType;
+    private final boolean backfill;
 
     /** Private constructor. To build, use Builder. */
     private BridgeReporterRequest(DateTime startDateTime, DateTime endDateTime, String scheduler,
-            List<String> studyWhitelist, ReportType scheduleType) {
+            List<String> studyWhitelist, ReportType scheduleType, boolean backfill) {
         this.startDateTime = startDateTime;
         this.endDateTime = endDateTime;
         this.scheduler = scheduler;
         this.studyWhitelist = studyWhitelist;
         this.reportType = scheduleType;
+        this.backfill = backfill;
     }
 
     /** Start time (inclusive) of the report. */
@@ -62,6 +64,16 @@ public class BridgeReporterRequest {
         return this.reportType;
     }
 
+    /**
+     * True if this is a backfill request. A backfill request's date range is split into one report period of the
+     * schedule type each (see {@link ReportType#getReportPeriod}), and a report is generated for each period, dated
+     * with the start of that period. Defaults to false, which generates one report for the whole date range.
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean isBackfill() {
+        return backfill;
+    }
+
     /** Bridge-Reporter request builder */
     public static class Builder {
         private DateTime startDateTime;
@@ -69,6 +81,14 @@ public class BridgeReporterRequest {
         private String scheduler;
         private List<String> studyWhitelist;
         private ReportType reportType;
+        private boolean backfill;
+
+        /** Creates a builder with the same values as the given request. */
+        public static Builder copyOf(BridgeReporterRequest request) {
+            return new Builder().withStartDateTime(request.startDateTime).withEndDateTime(request.endDateTime)
+                    .withScheduler(request.scheduler).withStudyWhitelist(request.studyWhitelist)
+                    .withScheduleType(request.reportType).withBackfill(request.backfill);
+        }
 
         /** @see BridgeReporterRequest#getStartDateTime */
         @JsonDeserialize(using = DateTimeDeserializer.class)
@@ -102,6 +122,12 @@ public class BridgeReporterRequest {
             return this;
         }
 
+        /** @see BridgeReporterRequest#isBackfill */
+        public Builder withBackfill(boolean backfill) {
+            this.backfill = backfill;
+            return this;
+        }
+
         /** Builds a request. */
         public BridgeReporterRequest build() {
             if (Strings.isNullOrEmpty(scheduler)) {
@@ -132,7 +158,8 @@ public class BridgeReporterRequest {
                 studyWhitelistCopy = ImmutableList.of();
             }
 
-            return new BridgeReporterRequest(startDateTime, endDateTime, scheduler, studyWhitelistCopy, reportType);
+            return new BridgeReporterRequest(startDateTime, endDateTime, scheduler, studyWhitelistCopy, reportType,
+                    backfill);
         }
     }
 }
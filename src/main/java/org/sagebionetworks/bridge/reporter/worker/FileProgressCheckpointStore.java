@@ -0,0 +1,62 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+
+/**
+ * Progress checkpoints in local files, so they survive the worker restarting. There is one file per request, named by
+ * a hash of the request key, with one completed study ID per line. Study IDs are appended as studies complete, so a
+ * crash loses at most the study being written.
+ */
+public class FileProgressCheckpointStore implements ProgressCheckpointStore {
+    private static final String FILE_SUFFIX = ".checkpoint";
+
+    private final Path checkpointDir;
+
+    /** Creates a store that keeps its checkpoint files in the given directory, creating it if needed. */
+    public FileProgressCheckpointStore(Path checkpointDir) throws IOException {
+        this.checkpointDir = checkpointDir;
+        Files.createDirectories(checkpointDir);
+    }
+
+    @Override
+    public synchronized Set<String> getCompletedStudies(String requestKey) throws IOException {
+        Path checkpointFile = getCheckpointFile(requestKey);
+        if (!Files.exists(checkpointFile)) {
+            return ImmutableSet.of();
+        }
+
+        ImmutableSet.Builder<String> completedStudies = ImmutableSet.builder();
+        for (String line : Files.readAllLines(checkpointFile, StandardCharsets.UTF_8)) {
+            // A crash mid-write can leave a partial last line. The worst case is that study is regenerated.
+            if (!line.isEmpty()) {
+                completedStudies.add(line);
+            }
+        }
+        return completedStudies.build();
+    }
+
+    @Override
+    public synchronized void markStudyCompleted(String requestKey, String studyId) throws IOException {
+        Files.write(getCheckpointFile(requestKey), (studyId + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+    }
+
+    @Override
+    public synchronized void clear(String requestKey) throws IOException {
+        Files.deleteIfExists(getCheckpointFile(requestKey));
+    }
+
+    // Request keys contain characters that aren't safe in file names, so hash them.
+    private Path getCheckpointFile(String requestKey) {
+        String fileName = Hashing.sha256().hashString(requestKey, StandardCharsets.UTF_8).toString() + FILE_SUFFIX;
+        return checkpointDir.resolve(fileName);
+    }
+}
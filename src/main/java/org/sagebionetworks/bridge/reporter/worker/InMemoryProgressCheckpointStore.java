@@ -0,0 +1,31 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Progress checkpoints held in memory. These survive redelivery to the same worker process, but not a restart. Use
+ * {@link FileProgressCheckpointStore} to survive restarts.
+ */
+public class InMemoryProgressCheckpointStore implements ProgressCheckpointStore {
+    private final Map<String, Set<String>> completedStudiesByRequest = new ConcurrentHashMap<>();
+
+    @Override
+    public Set<String> getCompletedStudies(String requestKey) {
+        Set<String> completedStudies = completedStudiesByRequest.get(requestKey);
+        return completedStudies != null ? ImmutableSet.copyOf(completedStudies) : ImmutableSet.of();
+    }
+
+    @Override
+    public void markStudyCompleted(String requestKey, String studyId) {
+        completedStudiesByRequest.computeIfAbsent(requestKey, key -> ConcurrentHashMap.newKeySet()).add(studyId);
+    }
+
+    @Override
+    public void clear(String requestKey) {
+        completedStudiesByRequest.remove(requestKey);
+    }
+}
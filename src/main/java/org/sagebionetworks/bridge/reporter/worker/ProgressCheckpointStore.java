@@ -0,0 +1,21 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Records which studies of a request have already had their report saved, so that when SQS redelivers a request that
+ * failed partway through, only the remaining studies are regenerated. Checkpoints are keyed by a string identifying
+ * the request (scheduler, schedule type, start and end date-time). Implementations must be thread-safe, since studies
+ * complete in parallel.
+ */
+public interface ProgressCheckpointStore {
+    /** Studies already completed for the given request key. Returns an empty set if there is no checkpoint. */
+    Set<String> getCompletedStudies(String requestKey) throws IOException;
+
+    /** Records that the given study's report was saved for the given request key. */
+    void markStudyCompleted(String requestKey, String studyId) throws IOException;
+
+    /** Deletes the checkpoint for the given request key. Called once every study in the request has completed. */
+    void clear(String requestKey) throws IOException;
+}
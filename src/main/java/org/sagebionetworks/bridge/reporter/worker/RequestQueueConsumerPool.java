@@ -0,0 +1,234 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.sqs.PollSqsWorkerBadRequestException;
+
+/**
+ * Pool of SQS consumers for the reporter request queue. Each consumer receives one request at a time and owns it
+ * until it's processed, so a long request only ties up its own consumer, and short requests keep flowing through the
+ * others.
+ *
+ * While a request is being processed, a heartbeat extends the message's visibility timeout, so the message isn't
+ * redelivered to another consumer, up to the max processing time. Requests that succeed, or can never succeed because
+ * they're malformed, are deleted. Requests that fail are left on the queue, and are redelivered once the visibility
+ * timeout expires.
+ */
+public class RequestQueueConsumerPool {
+    private static final Logger LOG = LoggerFactory.getLogger(RequestQueueConsumerPool.class);
+
+    // Max SQS long polling wait.
+    private static final int RECEIVE_WAIT_SECONDS = 20;
+    private static final String ATTR_SENT_TIMESTAMP = "SentTimestamp";
+    private static final int DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_MAX_PROCESSING_SECONDS = (int) TimeUnit.HOURS.toSeconds(6);
+
+    private final AmazonSQS sqsClient;
+    private final String queueUrl;
+    private final BridgeReporterProcessor processor;
+    private final int numConsumers;
+    private final int visibilityTimeoutSeconds;
+    private final long errorSleepMillis;
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private int shutdownTimeoutSeconds = DEFAULT_SHUTDOWN_TIMEOUT_SECONDS;
+    private int maxProcessingSeconds = DEFAULT_MAX_PROCESSING_SECONDS;
+
+    private final ScheduledExecutorService heartbeatExecutorService = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("sqs-visibility-heartbeat-%d").setDaemon(true).build());
+    private volatile boolean running = false;
+    private ExecutorService consumerExecutorService;
+
+    /**
+     * Creates a consumer pool. Messages are received with the given visibility timeout, which the heartbeat extends
+     * every half timeout. After an error receiving messages, a consumer sleeps for the error sleep time before
+     * receiving again.
+     */
+    public RequestQueueConsumerPool(AmazonSQS sqsClient, String queueUrl, BridgeReporterProcessor processor,
+            int numConsumers, int visibilityTimeoutSeconds, long errorSleepMillis) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+        this.processor = processor;
+        this.numConsumers = numConsumers;
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        this.errorSleepMillis = errorSleepMillis;
+    }
+
+    /** Registry for queue wait timers and message counters. */
+    public final void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    /** How long stop() waits for consumers to finish the requests they're processing. Defaults to 30 seconds. */
+    public final void setShutdownTimeoutSeconds(int shutdownTimeoutSeconds) {
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    /**
+     * Once a request has been processing this long, the heartbeat stops extending its visibility, so a stuck request
+     * is eventually redelivered. Defaults to 6 hours.
+     */
+    public final void setMaxProcessingSeconds(int maxProcessingSeconds) {
+        this.maxProcessingSeconds = maxProcessingSeconds;
+    }
+
+    /** Starts the consumers. If the pool has no consumers, this does nothing. */
+    public synchronized void start() {
+        if (numConsumers <= 0 || running) {
+            return;
+        }
+        running = true;
+        consumerExecutorService = Executors.newFixedThreadPool(numConsumers, new ThreadFactoryBuilder()
+                .setNameFormat("sqs-consumer-%d").build());
+        for (int i = 0; i < numConsumers; i++) {
+            consumerExecutorService.execute(this::consume);
+        }
+        LOG.info("Started {} consumers for queue {}", numConsumers, queueUrl);
+    }
+
+    /**
+     * Stops the consumers. Consumers finish the request they're processing, but don't receive any more. Waits up to
+     * the shutdown timeout. Requests still in progress when the wait runs out are redelivered once their visibility
+     * timeout expires.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            heartbeatExecutorService.shutdownNow();
+            return;
+        }
+        running = false;
+        consumerExecutorService.shutdown();
+        if (!consumerExecutorService.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            LOG.warn("Consumers for queue {} still processing after {} seconds, stopping anyway", queueUrl,
+                    shutdownTimeoutSeconds);
+            consumerExecutorService.shutdownNow();
+        }
+        heartbeatExecutorService.shutdownNow();
+    }
+
+    /** True if the consumers are running. */
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                ReceiveMessageRequest receiveRequest = new ReceiveMessageRequest(queueUrl).withMaxNumberOfMessages(1)
+                        .withWaitTimeSeconds(RECEIVE_WAIT_SECONDS).withVisibilityTimeout(visibilityTimeoutSeconds)
+                        .withAttributeNames(ATTR_SENT_TIMESTAMP);
+                List<Message> messageList = sqsClient.receiveMessage(receiveRequest).getMessages();
+                for (Message message : messageList) {
+                    processMessage(message);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                LOG.error("Error polling queue {}: {}", queueUrl, ex.getMessage(), ex);
+                try {
+                    Thread.sleep(errorSleepMillis);
+                } catch (InterruptedException interruptedEx) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Processes one message, with a heartbeat extending its visibility until it's done, or until it hits the max
+    // processing time. Package-scoped for unit tests.
+    void processMessage(Message message) throws InterruptedException {
+        String messageId = message.getMessageId();
+        String receiptHandle = message.getReceiptHandle();
+        recordQueueWait(message);
+
+        long maxProcessingEndMillis = DateTimeUtils.currentTimeMillis() + TimeUnit.SECONDS.toMillis(
+                maxProcessingSeconds);
+        AtomicBoolean heartbeatStopped = new AtomicBoolean(false);
+        long heartbeatIntervalSeconds = Math.max(1, visibilityTimeoutSeconds / 2);
+        ScheduledFuture<?> heartbeatFuture = heartbeatExecutorService.scheduleAtFixedRate(() -> {
+            if (DateTimeUtils.currentTimeMillis() < maxProcessingEndMillis) {
+                extendVisibility(messageId, receiptHandle);
+            } else if (heartbeatStopped.compareAndSet(false, true)) {
+                LOG.warn("Message {} still processing after {} seconds, no longer extending its visibility",
+                        messageId, maxProcessingSeconds);
+            }
+        }, heartbeatIntervalSeconds, heartbeatIntervalSeconds, TimeUnit.SECONDS);
+        boolean delete;
+        try {
+            processor.process(parseBody(message));
+            delete = true;
+            metricRegistry.meter(MetricRegistry.name(RequestQueueConsumerPool.class, "succeeded")).mark();
+        } catch (PollSqsWorkerBadRequestException ex) {
+            // Malformed requests will never succeed. Don't let them be redelivered.
+            LOG.error("Bad request in message {}, deleting: {}", messageId, ex.getMessage(), ex);
+            delete = true;
+            metricRegistry.meter(MetricRegistry.name(RequestQueueConsumerPool.class, "bad-request")).mark();
+        } catch (InterruptedException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            // Leave the message, so it's redelivered when its visibility expires.
+            LOG.error("Error processing message {}, will be redelivered: {}", messageId, ex.getMessage(), ex);
+            delete = false;
+            metricRegistry.meter(MetricRegistry.name(RequestQueueConsumerPool.class, "failed")).mark();
+        } finally {
+            heartbeatFuture.cancel(false);
+        }
+
+        if (delete) {
+            sqsClient.deleteMessage(queueUrl, receiptHandle);
+        }
+    }
+
+    private static JsonNode parseBody(Message message) throws PollSqsWorkerBadRequestException {
+        JsonNode body;
+        try {
+            body = DefaultObjectMapper.INSTANCE.readTree(message.getBody());
+        } catch (IOException ex) {
+            throw new PollSqsWorkerBadRequestException("Error parsing message body: " + ex.getMessage(), ex);
+        }
+        if (body == null) {
+            throw new PollSqsWorkerBadRequestException("Message body is empty");
+        }
+        return body;
+    }
+
+    // Extends the message's visibility by a full timeout from now. If this fails, the next heartbeat tries again
+    // before the current timeout runs out.
+    private void extendVisibility(String messageId, String receiptHandle) {
+        try {
+            sqsClient.changeMessageVisibility(queueUrl, receiptHandle, visibilityTimeoutSeconds);
+        } catch (RuntimeException ex) {
+            LOG.warn("Error extending visibility of message {}: {}", messageId, ex.getMessage(), ex);
+        }
+    }
+
+    // Time from the request being sent to the queue to a consumer receiving it.
+    private void recordQueueWait(Message message) {
+        String sentTimestamp = message.getAttributes() != null ? message.getAttributes().get(ATTR_SENT_TIMESTAMP)
+                : null;
+        if (sentTimestamp != null) {
+            long queueWaitMillis = DateTimeUtils.currentTimeMillis() - Long.parseLong(sentTimestamp);
+            metricRegistry.timer(MetricRegistry.name(RequestQueueConsumerPool.class, "queue-wait"))
+                    .update(Math.max(0L, queueWaitMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+}
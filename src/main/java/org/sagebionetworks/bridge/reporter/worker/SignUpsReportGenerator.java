@@ -1,38 +1,68 @@
 package org.sagebionetworks.bridge.reporter.worker;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Resource;
 
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import org.sagebionetworks.bridge.reporter.aggregation.Aggregation;
+import org.sagebionetworks.bridge.reporter.aggregation.EnumCountAggregator;
+import org.sagebionetworks.bridge.reporter.aggregation.EnumCounter;
+import org.sagebionetworks.bridge.reporter.aggregation.ReportDefinition;
 import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+import org.sagebionetworks.bridge.reporter.helper.ParticipantDetailCache;
 import org.sagebionetworks.bridge.reporter.request.ReportType;
 import org.sagebionetworks.bridge.rest.model.AccountStatus;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
 import org.sagebionetworks.bridge.rest.model.SharingScope;
 import org.sagebionetworks.bridge.rest.model.StudyParticipant;
 
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
-
 /**
  * Generate a report of signups by account statuses.
  *
+ * Account status comes straight from the account summary pages. Full participant details are only fetched for enabled
+ * accounts, since sharing scope isn't part of the account summary. Details are cached across runs, so reruns and
+ * overlapping windows only fetch participants that are new or changed.
  */
 @Component
 public class SignUpsReportGenerator implements ReportGenerator {
-    
+    // Report keys, by enum ordinal.
+    private static final String[] STATUS_KEYS = EnumCounter.lowerCaseNames(AccountStatus.class);
+    private static final String[] SHARING_SCOPE_KEYS = EnumCounter.lowerCaseNames(SharingScope.class);
+
+    /**
+     * Signups report: counts by sharing scope and by account status. JSON includes properties for all enumerations,
+     * even if zero.
+     */
+    static final ReportDefinition<SignUpRecord> REPORT_DEFINITION = new ReportDefinition.Builder<SignUpRecord>()
+            .withAggregator("bySharing", () -> new EnumCountAggregator<>(SignUpRecord::getSharingScope,
+                    SHARING_SCOPE_KEYS, true))
+            .withAggregator("byStatus", () -> new EnumCountAggregator<>(SignUpRecord::getStatus, STATUS_KEYS,
+                    true))
+            .build();
+
     private BridgeHelper bridgeHelper;
+    private ParticipantDetailCache participantDetailCache = new ParticipantDetailCache(null, 0, 0L);
     
     @Autowired
     @Qualifier("ReporterHelper")
     public final void setBridgeHelper(BridgeHelper bridgeHelper) {
         this.bridgeHelper = bridgeHelper;
     }
+
+    /** Cache of participant details. If not set, nothing is cached. */
+    @Resource(name = "participantDetailCache")
+    public final void setParticipantDetailCache(ParticipantDetailCache participantDetailCache) {
+        this.participantDetailCache = participantDetailCache;
+    }
     
     @Override
     public Report generate(BridgeReporterRequest request, String studyId) throws IOException {
@@ -43,40 +73,74 @@ public class SignUpsReportGenerator implements ReportGenerator {
 
         String reportId = scheduler + scheduleType.getSuffix();
 
-        Multiset<AccountStatus> statuses = HashMultiset.create();
-        Multiset<SharingScope> sharingScopes = HashMultiset.create();
+        // A single record is reused for every participant, so aggregating doesn't allocate.
+        Aggregation<SignUpRecord> aggregation = REPORT_DEFINITION.newAggregation();
+        SignUpRecord record = new SignUpRecord();
 
-        List<StudyParticipant> participants = bridgeHelper.getParticipantsForStudy(studyId, startDate, endDate);
-        for (StudyParticipant participant : participants) {
-            statuses.add(participant.getStatus());
-            // Accounts that aren't enabled do not have interesting sharing statuses. We'd like to count these
-            // for consented accounts, but this isn't easy to do.
-            if (participant.getStatus() == AccountStatus.ENABLED) {
-                sharingScopes.add(participant.getSharingScope());    
+        bridgeHelper.forEachParticipantSummaryPage(studyId, startDate, endDate, page -> {
+            // Summaries whose details we need: enabled accounts that aren't cached, and summaries missing the status.
+            // Their details are fetched in one batch per page.
+            List<AccountSummary> fetchSummaryList = new ArrayList<>();
+            for (AccountSummary summary : page) {
+                AccountStatus status = summary.getStatus();
+                if (status == null) {
+                    // Summary is missing the status. Fall back to the full participant.
+                    fetchSummaryList.add(summary);
+                } else if (status != AccountStatus.ENABLED) {
+                    // Accounts that aren't enabled do not have interesting sharing statuses. We'd like to count these
+                    // for consented accounts, but this isn't easy to do.
+                    aggregation.add(record.set(status, null));
+                } else {
+                    SharingScope cachedSharingScope = participantDetailCache.getSharingScope(studyId, summary);
+                    if (cachedSharingScope != null) {
+                        aggregation.add(record.set(status, cachedSharingScope));
+                    } else {
+                        // Aggregated once we have the participant's details.
+                        fetchSummaryList.add(summary);
+                    }
+                }
             }
-        }
+            if (fetchSummaryList.isEmpty()) {
+                return;
+            }
+
+            List<String> fetchUserIdList = fetchSummaryList.stream().map(AccountSummary::getId)
+                    .collect(Collectors.toList());
+            List<StudyParticipant> participantList = bridgeHelper.getParticipantDetails(studyId, fetchUserIdList);
+            for (int i = 0; i < participantList.size(); i++) {
+                AccountSummary summary = fetchSummaryList.get(i);
+                StudyParticipant participant = participantList.get(i);
+                AccountStatus status = summary.getStatus() != null ? summary.getStatus() : participant.getStatus();
+                aggregation.add(record.set(status, status == AccountStatus.ENABLED ? participant.getSharingScope()
+                        : null));
+                // Summaries without a status can't be validated later, so the cache skips them.
+                participantDetailCache.put(studyId, summary, participant);
+            }
+        });
+        participantDetailCache.flushIfDue();
         
-        // Multiset doesn't record zeroes, so add these first for all enum values, then overwrite
-        // (so JSON includes properties for all enumerations, even if missing).
-        Map<String, Integer> statusData = new HashMap<>();
-        for (AccountStatus status : AccountStatus.values()) {
-            statusData.put(status.name().toLowerCase(), 0);
-        }
-        for (AccountStatus status : statuses) {
-            statusData.put(status.name().toLowerCase(), statuses.count(status));
-        }
-        Map<String, Integer> sharingData = new HashMap<>();
-        for (SharingScope scope : SharingScope.values()) {
-            sharingData.put(scope.name().toLowerCase(), 0);
+        Map<String, Object> reportData = aggregation.getReportData();
+        return new Report.Builder().withStudyId(studyId).withReportId(reportId).withDate(startDate.toLocalDate())
+                .withReportData(reportData).build();
+    }
+
+    // Status and sharing scope of one participant. Aggregators don't hold onto records, so this is reused.
+    static final class SignUpRecord {
+        private AccountStatus status;
+        private SharingScope sharingScope;
+
+        SignUpRecord set(AccountStatus status, SharingScope sharingScope) {
+            this.status = status;
+            this.sharingScope = sharingScope;
+            return this;
         }
-        for (SharingScope scope : sharingScopes) {
-            sharingData.put(scope.name().toLowerCase(), sharingScopes.count(scope));
+
+        AccountStatus getStatus() {
+            return status;
         }
-        Map<String, Map<String,Integer>> reportData = new HashMap<>();
-        reportData.put("bySharing", sharingData);
-        reportData.put("byStatus", statusData);
 
-        return new Report.Builder().withStudyId(studyId).withReportId(reportId).withDate(startDate.toLocalDate())
-                .withReportData(reportData).build();
+        SharingScope getSharingScope() {
+            return sharingScope;
+        }
     }
 }
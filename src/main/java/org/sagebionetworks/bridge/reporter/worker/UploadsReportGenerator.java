@@ -1,26 +1,96 @@
 package org.sagebionetworks.bridge.reporter.worker;
 
-import static java.util.stream.Collectors.counting;
-
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Resource;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import org.sagebionetworks.bridge.config.Config;
+import org.sagebionetworks.bridge.reporter.aggregation.Aggregation;
+import org.sagebionetworks.bridge.reporter.aggregation.AggregationExecutor;
+import org.sagebionetworks.bridge.reporter.aggregation.DistinctCountAggregator;
+import org.sagebionetworks.bridge.reporter.aggregation.EnumCountAggregator;
+import org.sagebionetworks.bridge.reporter.aggregation.EnumCounter;
+import org.sagebionetworks.bridge.reporter.aggregation.LatencyHistogramAggregator;
+import org.sagebionetworks.bridge.reporter.aggregation.RecordSource;
+import org.sagebionetworks.bridge.reporter.aggregation.ReportDefinition;
 import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
 import org.sagebionetworks.bridge.reporter.request.ReportType;
+import org.sagebionetworks.bridge.rest.model.ReportData;
 import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
 
+/**
+ * Generate a report of uploads by upload status (DAILY, WEEKLY), of upload processing latency (DAILY_UPLOAD_LATENCY,
+ * WEEKLY_UPLOAD_LATENCY), or of distinct uploaders (DAILY_UNIQUE_UPLOADERS, WEEKLY_UNIQUE_UPLOADERS,
+ * MONTHLY_UNIQUE_UPLOADERS). Each report type's report data is computed by the aggregation engine, from its
+ * definition in {@link #REPORT_DEFINITIONS}.
+ *
+ * Roll-up reports (WEEKLY, WEEKLY_UPLOAD_LATENCY, WEEKLY_UNIQUE_UPLOADERS, MONTHLY_UNIQUE_UPLOADERS) can be computed by
+ * merging the daily reports already saved for each day in the date range. Uploads are only rescanned for days whose
+ * daily report is missing.
+ *
+ * Wide date ranges can be split into time slices, which are scanned in parallel and whose results are merged. Each
+ * slice is its own chain of pages, so wall-clock time depends on the number of slices in flight rather than the total
+ * number of pages.
+ */
 @Component
 public class UploadsReportGenerator implements ReportGenerator {
-    
+    // Report keys, by enum ordinal.
+    private static final String[] STATUS_KEYS = EnumCounter.stringValues(UploadStatus.class);
+
+    /** Upload report: counts by upload status, at the top level of the report data. Zero counts are left out. */
+    static final ReportDefinition<Upload> STATUS_REPORT_DEFINITION = new ReportDefinition.Builder<Upload>()
+            .withFlattenedAggregator(() -> new EnumCountAggregator<>(Upload::getStatus, STATUS_KEYS, false))
+            .build();
+
+    /**
+     * Upload latency report: count, p50, p90, p99, and max time from upload requested to upload completed, in
+     * milliseconds, with the histogram they were computed from. Uploads that haven't completed aren't counted.
+     */
+    static final ReportDefinition<Upload> LATENCY_REPORT_DEFINITION = new ReportDefinition.Builder<Upload>()
+            .withFlattenedAggregator(() -> new LatencyHistogramAggregator<>(UploadsReportGenerator::getLatencyMillis))
+            .build();
+
+    /**
+     * Unique uploaders report: estimated number of distinct health codes that uploaded, with the HyperLogLog sketch it
+     * was estimated from. Memory is the same however many uploads there are, and daily sketches merge into weekly and
+     * monthly ones.
+     */
+    static final ReportDefinition<Upload> UNIQUE_UPLOADERS_REPORT_DEFINITION = new ReportDefinition.Builder<Upload>()
+            .withFlattenedAggregator(() -> new DistinctCountAggregator<>(Upload::getHealthCode))
+            .build();
+
+    /** Report definition for each report type this generator handles. */
+    static final Map<ReportType, ReportDefinition<Upload>> REPORT_DEFINITIONS =
+            new ImmutableMap.Builder<ReportType, ReportDefinition<Upload>>()
+                    .put(ReportType.DAILY, STATUS_REPORT_DEFINITION)
+                    .put(ReportType.WEEKLY, STATUS_REPORT_DEFINITION)
+                    .put(ReportType.DAILY_UPLOAD_LATENCY, LATENCY_REPORT_DEFINITION)
+                    .put(ReportType.WEEKLY_UPLOAD_LATENCY, LATENCY_REPORT_DEFINITION)
+                    .put(ReportType.DAILY_UNIQUE_UPLOADERS, UNIQUE_UPLOADERS_REPORT_DEFINITION)
+                    .put(ReportType.WEEKLY_UNIQUE_UPLOADERS, UNIQUE_UPLOADERS_REPORT_DEFINITION)
+                    .put(ReportType.MONTHLY_UNIQUE_UPLOADERS, UNIQUE_UPLOADERS_REPORT_DEFINITION)
+                    .build();
+
     private BridgeHelper bridgeHelper;
+    private boolean rollupEnabled = false;
+    private int scanSliceHours = 0;
+    private AggregationExecutor aggregationExecutor = new AggregationExecutor(
+            MoreExecutors.newDirectExecutorService());
     
     @Autowired
     @Qualifier("ReporterHelper")
@@ -28,26 +98,127 @@ public class UploadsReportGenerator implements ReportGenerator {
         this.bridgeHelper = bridgeHelper;
     }
 
+    /** Bridge Reporter config. */
+    @Resource(name = "reporterConfigProperties")
+    public final void setConfig(Config config) {
+        this.rollupEnabled = Boolean.parseBoolean(config.get("reporter.weekly.rollup.enabled"));
+        this.scanSliceHours = config.getInt("reporter.upload.scan.slice.hours");
+    }
+
+    /** True if roll-up reports should be computed from saved DAILY reports. Defaults to false. */
+    public final void setRollupEnabled(boolean rollupEnabled) {
+        this.rollupEnabled = rollupEnabled;
+    }
+
+    /**
+     * Upload scans longer than this many hours are split into slices of this many hours (24 for one slice per day),
+     * which are scanned in parallel. 0 turns slicing off. Defaults to 0.
+     */
+    public final void setScanSliceHours(int scanSliceHours) {
+        this.scanSliceHours = scanSliceHours;
+    }
+
+    /**
+     * Executor that upload scan slices run on. Its pool size bounds how many slices are scanned at once, across all
+     * studies. If not set, slices are scanned one at a time on the calling thread.
+     */
+    @Resource(name = "uploadScanExecutorService")
+    public final void setUploadScanExecutorService(ExecutorService uploadScanExecutorService) {
+        this.aggregationExecutor = new AggregationExecutor(uploadScanExecutorService);
+    }
+
     @Override
     public Report generate(BridgeReporterRequest request, String studyId) throws IOException {
         DateTime startDateTime = request.getStartDateTime();
         DateTime endDateTime = request.getEndDateTime();
         String scheduler = request.getScheduler();
         ReportType scheduleType = request.getScheduleType();
+        // Any other report type gets upload status counts, which is what this generator always did.
+        ReportDefinition<Upload> definition = REPORT_DEFINITIONS.getOrDefault(scheduleType,
+                STATUS_REPORT_DEFINITION);
 
         String reportId = scheduler + scheduleType.getSuffix();
         
-        Map<String, Integer> data = new HashMap<>();
+        Aggregation<Upload> aggregation;
+        // Daily reports only line up with the date range if it starts at the start of a day.
+        if (rollupEnabled && scheduleType.isRollup()
+                && startDateTime.equals(startDateTime.withTimeAtStartOfDay())) {
+            aggregation = rollupDailyReports(definition, scheduler, scheduleType.getRollupDailyType(), studyId,
+                    startDateTime, endDateTime);
+        } else {
+            aggregation = aggregationExecutor.aggregate(definition, getUploadSlices(studyId, startDateTime,
+                    endDateTime));
+        }
 
-        // get all uploads for this studyid
-        List<Upload> uploadsForStudy = bridgeHelper.getUploadsForStudy(studyId, startDateTime, endDateTime);
+        return new Report.Builder().withStudyId(studyId).withReportId(reportId).withDate(startDateTime.toLocalDate())
+                .withReportData(aggregation.getReportData()).build();
+    }
 
-        // aggregate and grouping by upload status
-        uploadsForStudy.stream()
-                .collect(Collectors.groupingBy(Upload::getStatus, counting()))
-                .forEach((status, cnt) -> data.put(status.toString(), cnt.intValue()));
+    // Merges the saved daily report for each day. Days without a daily report are rescanned, in parallel.
+    private Aggregation<Upload> rollupDailyReports(ReportDefinition<Upload> definition, String scheduler,
+            ReportType dailyType, String studyId, DateTime startDateTime, DateTime endDateTime) throws IOException {
+        LocalDate startDate = startDateTime.toLocalDate();
+        LocalDate endDate = endDateTime.toLocalDate();
+        String dailyReportId = scheduler + dailyType.getSuffix();
 
-        return new Report.Builder().withStudyId(studyId).withReportId(reportId).withDate(startDateTime.toLocalDate())
-                .withReportData(data).build();
+        Map<LocalDate, Object> dailyDataByDate = new HashMap<>();
+        for (ReportData dailyReport : bridgeHelper.getReportsForStudy(studyId, dailyReportId, startDate, endDate)) {
+            dailyDataByDate.put(LocalDate.parse(dailyReport.getDate()), dailyReport.getData());
+        }
+
+        Aggregation<Upload> savedAggregation = definition.newAggregation();
+        List<RecordSource<Upload>> missingDayList = new ArrayList<>();
+        DateTimeZone timeZone = startDateTime.getZone();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            Object dailyData = dailyDataByDate.get(date);
+            if (dailyData instanceof Map) {
+                savedAggregation.mergeReportData((Map<?, ?>) dailyData);
+            } else {
+                // Daily report is missing. Rescan just this day, clipped to the end of the date range.
+                DateTime dayStartDateTime = date.toDateTimeAtStartOfDay(timeZone);
+                DateTime dayEndDateTime = date.plusDays(1).toDateTimeAtStartOfDay(timeZone).minusMillis(1);
+                if (dayEndDateTime.isAfter(endDateTime)) {
+                    dayEndDateTime = endDateTime;
+                }
+                missingDayList.addAll(getUploadSlices(studyId, dayStartDateTime, dayEndDateTime));
+            }
+        }
+
+        if (!missingDayList.isEmpty()) {
+            savedAggregation.merge(aggregationExecutor.aggregate(definition, missingDayList));
+        }
+        return savedAggregation;
+    }
+
+    // Uploads for the date range. If the date range is wider than a slice, it's split into slices, which are scanned
+    // in parallel.
+    private List<RecordSource<Upload>> getUploadSlices(String studyId, DateTime startDateTime, DateTime endDateTime) {
+        List<RecordSource<Upload>> sliceList = new ArrayList<>();
+        if (scanSliceHours <= 0 || !startDateTime.plusHours(scanSliceHours).isBefore(endDateTime)) {
+            sliceList.add(pageHandler -> bridgeHelper.forEachUploadPage(studyId, startDateTime, endDateTime,
+                    pageHandler));
+        } else {
+            // Slices are back to back, and like the date range itself, each slice's end is inclusive.
+            for (DateTime sliceStartDateTime = startDateTime; !sliceStartDateTime.isAfter(endDateTime);
+                    sliceStartDateTime = sliceStartDateTime.plusHours(scanSliceHours)) {
+                DateTime sliceStart = sliceStartDateTime;
+                DateTime sliceEnd = sliceStartDateTime.plusHours(scanSliceHours).minusMillis(1);
+                if (sliceEnd.isAfter(endDateTime)) {
+                    sliceEnd = endDateTime;
+                }
+                DateTime sliceEndFinal = sliceEnd;
+                sliceList.add(pageHandler -> bridgeHelper.forEachUploadPage(studyId, sliceStart, sliceEndFinal,
+                        pageHandler));
+            }
+        }
+        return sliceList;
+    }
+
+    // Time from upload requested to upload completed, or null if the upload hasn't completed.
+    private static Long getLatencyMillis(Upload upload) {
+        if (upload.getRequestedOn() == null || upload.getCompletedOn() == null) {
+            return null;
+        }
+        return upload.getCompletedOn().getMillis() - upload.getRequestedOn().getMillis();
     }
 }
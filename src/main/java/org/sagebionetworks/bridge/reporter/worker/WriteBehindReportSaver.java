@@ -0,0 +1,93 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.Resource;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import org.sagebionetworks.bridge.config.Config;
+import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+
+/**
+ * Saves reports to Bridge in the background, so that generating the next study's report doesn't wait on saving the
+ * last one. Saves run on a dedicated sender executor. Retries are left to BridgeHelper, which only retries errors
+ * that are worth retrying. The number of reports waiting to be saved is bounded. Once the bound is reached,
+ * submitting a report blocks until a save finishes, so a slow Bridge slows generation down rather than filling memory
+ * with reports.
+ *
+ * Bridge has no batch report API, so each report is still one saveReport call.
+ */
+@Component
+public class WriteBehindReportSaver {
+    private static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    private BridgeHelper bridgeHelper;
+    private ExecutorService reportSaveExecutorService = MoreExecutors.newDirectExecutorService();
+    private Semaphore queuePermits = new Semaphore(DEFAULT_QUEUE_CAPACITY);
+
+    @Autowired
+    @Qualifier("ReporterHelper")
+    public final void setBridgeHelper(BridgeHelper bridgeHelper) {
+        this.bridgeHelper = bridgeHelper;
+    }
+
+    /** Bridge Reporter config. */
+    @Resource(name = "reporterConfigProperties")
+    public final void setConfig(Config config) {
+        setQueueCapacity(config.getInt("reporter.save.queue.capacity"));
+    }
+
+    /**
+     * Executor that reports are saved on. Its pool size bounds how many saves are in flight at once. If not set,
+     * reports are saved on the calling thread.
+     */
+    @Resource(name = "reportSaveExecutorService")
+    public final void setReportSaveExecutorService(ExecutorService reportSaveExecutorService) {
+        this.reportSaveExecutorService = reportSaveExecutorService;
+    }
+
+    /** Max number of reports submitted but not yet saved, including saves in progress. */
+    public final void setQueueCapacity(int queueCapacity) {
+        this.queuePermits = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * Queues the report to be saved, blocking if the queue is full. Once the report is saved, afterSave is run on the
+     * sender thread, and then the returned future completes. If the report can't be saved, the future fails with the
+     * error.
+     */
+    public Future<?> submit(Report report, Runnable afterSave) throws IOException {
+        try {
+            queuePermits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to queue report for hash[studyId]="
+                    + report.getStudyId());
+        }
+
+        Semaphore permits = queuePermits;
+        try {
+            return reportSaveExecutorService.submit(() -> {
+                try {
+                    bridgeHelper.saveReportForStudy(report);
+                    afterSave.run();
+                    return null;
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+}
@@ -1,9 +1,65 @@
 package org.sagebionetworks.bridge.reporter;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+import org.sagebionetworks.bridge.reporter.helper.PageHandler;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.Upload;
+
 public class Tests {
     
     public static String unescapeJson(String json) {
         return json.replaceAll("'", "\"");
     }
-    
+
+    /** Mocks BridgeHelper.forEachUploadPage() to return the given uploads as a single page, for any study. */
+    @SuppressWarnings("unchecked")
+    public static void mockUploads(BridgeHelper mockBridgeHelper, List<Upload> uploads) throws IOException {
+        doAnswer(invocation -> {
+            PageHandler<Upload> pageHandler = invocation.getArgumentAt(3, PageHandler.class);
+            pageHandler.handlePage(uploads);
+            return null;
+        }).when(mockBridgeHelper).forEachUploadPage(any(), any(), any(), any());
+    }
+
+    /**
+     * Mocks BridgeHelper.forEachParticipantSummaryPage() to return summaries for the given participants as a single
+     * page, for any study, and BridgeHelper.getParticipantDetails() to return the participants themselves.
+     */
+    @SuppressWarnings("unchecked")
+    public static void mockParticipants(BridgeHelper mockBridgeHelper, List<StudyParticipant> participants)
+            throws IOException {
+        List<AccountSummary> summaryList = new ArrayList<>();
+        Map<String, StudyParticipant> participantsById = new HashMap<>();
+        for (int i = 0; i < participants.size(); i++) {
+            StudyParticipant participant = participants.get(i);
+            String userId = participant.getId() != null ? participant.getId() : "user" + i;
+            summaryList.add(new AccountSummary().id(userId).status(participant.getStatus())
+                    .createdOn(participant.getCreatedOn()));
+            participantsById.put(userId, participant);
+        }
+
+        doAnswer(invocation -> {
+            PageHandler<AccountSummary> pageHandler = invocation.getArgumentAt(3, PageHandler.class);
+            pageHandler.handlePage(summaryList);
+            return null;
+        }).when(mockBridgeHelper).forEachParticipantSummaryPage(any(), any(), any(), any());
+
+        doAnswer(invocation -> {
+            List<String> userIdList = invocation.getArgumentAt(1, List.class);
+            return userIdList.stream().map(participantsById::get).collect(Collectors.toList());
+        }).when(mockBridgeHelper).getParticipantDetails(anyString(), anyListOf(String.class));
+    }
 }
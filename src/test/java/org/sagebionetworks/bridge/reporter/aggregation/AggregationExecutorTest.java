@@ -0,0 +1,80 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+
+public class AggregationExecutorTest {
+    private static final ReportDefinition<Upload> DEFINITION = new ReportDefinition.Builder<Upload>()
+            .withAggregator("byStatus", () -> new EnumCountAggregator<>(Upload::getStatus,
+                    EnumCounter.stringValues(UploadStatus.class), false))
+            .build();
+
+    private ExecutorService executorService;
+
+    @BeforeClass
+    public void before() {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void after() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void singleSource() throws Exception {
+        AggregationExecutor executor = new AggregationExecutor(MoreExecutors.newDirectExecutorService());
+        Aggregation<Upload> aggregation = executor.aggregate(DEFINITION, pageHandler -> {
+            pageHandler.handlePage(ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED)));
+            pageHandler.handlePage(ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED)));
+        });
+        assertEquals(aggregation.getReportData(), ImmutableMap.of("byStatus", ImmutableMap.of("succeeded", 2)));
+    }
+
+    @Test
+    public void sourcesMerged() throws Exception {
+        List<RecordSource<Upload>> sourceList = ImmutableList.of(
+                pageHandler -> pageHandler.handlePage(ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED))),
+                pageHandler -> pageHandler.handlePage(ImmutableList.of(new Upload().status(UploadStatus.REQUESTED))),
+                pageHandler -> pageHandler.handlePage(ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED))));
+
+        AggregationExecutor executor = new AggregationExecutor(executorService);
+        Aggregation<Upload> aggregation = executor.aggregate(DEFINITION, sourceList);
+        assertEquals(aggregation.getReportData(), ImmutableMap.of("byStatus", ImmutableMap.of("requested", 1,
+                "succeeded", 2)));
+    }
+
+    @Test
+    public void sourceFailure() throws Exception {
+        IOException sourceException = new IOException("test exception");
+        List<RecordSource<Upload>> sourceList = ImmutableList.of(
+                pageHandler -> pageHandler.handlePage(ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED))),
+                pageHandler -> {
+                    throw sourceException;
+                });
+
+        AggregationExecutor executor = new AggregationExecutor(executorService);
+        try {
+            executor.aggregate(DEFINITION, sourceList);
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertSame(ex, sourceException);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+
+public class AggregationTest {
+    private static final String[] STATUS_KEYS = EnumCounter.stringValues(UploadStatus.class);
+
+    // Several metrics over the same uploads, in one pass.
+    private static final ReportDefinition<Upload> DEFINITION = new ReportDefinition.Builder<Upload>()
+            .withFlattenedAggregator(() -> new EnumCountAggregator<>(Upload::getStatus, STATUS_KEYS, false))
+            .withAggregator("totalBytes", () -> new SumAggregator<>(Upload::getContentLength))
+            .withAggregator("bytes", () -> new MinMaxAggregator<>(Upload::getContentLength))
+            .build();
+
+    @Test
+    public void singlePass() {
+        Aggregation<Upload> aggregation = DEFINITION.newAggregation();
+        aggregation.addAll(ImmutableList.of(upload(UploadStatus.SUCCEEDED, 100L),
+                upload(UploadStatus.SUCCEEDED, 300L), upload(UploadStatus.REQUESTED, null)));
+
+        Map<String, Object> reportData = aggregation.getReportData();
+        assertEquals(reportData, ImmutableMap.of("succeeded", 2, "requested", 1, "totalBytes", 400L, "bytes",
+                ImmutableMap.of("min", 100L, "max", 300L)));
+    }
+
+    @Test
+    public void merge() {
+        Aggregation<Upload> aggregation = DEFINITION.newAggregation();
+        aggregation.add(upload(UploadStatus.SUCCEEDED, 100L));
+        Aggregation<Upload> otherAggregation = DEFINITION.newAggregation();
+        otherAggregation.add(upload(UploadStatus.SUCCEEDED, 50L));
+        otherAggregation.add(upload(UploadStatus.VALIDATION_FAILED, 500L));
+        aggregation.merge(otherAggregation);
+
+        assertEquals(aggregation.getReportData(), ImmutableMap.of("succeeded", 2, "validation_failed", 1,
+                "totalBytes", 650L, "bytes", ImmutableMap.of("min", 50L, "max", 500L)));
+    }
+
+    @Test
+    public void empty() {
+        assertEquals(DEFINITION.newAggregation().getReportData(), ImmutableMap.of("totalBytes", 0L, "bytes",
+                ImmutableMap.of()));
+    }
+
+    @Test
+    public void mergeReportData() {
+        Aggregation<Upload> aggregation = DEFINITION.newAggregation();
+        aggregation.add(upload(UploadStatus.SUCCEEDED, 100L));
+
+        // Saved report data comes back from Bridge with double values.
+        aggregation.mergeReportData(ImmutableMap.of("succeeded", 2.0, "requested", 1.0, "totalBytes", 1000.0,
+                "bytes", ImmutableMap.of("min", 10.0, "max", 800.0)));
+
+        assertEquals(aggregation.getReportData(), ImmutableMap.of("succeeded", 3, "requested", 1, "totalBytes",
+                1100L, "bytes", ImmutableMap.of("min", 10L, "max", 800L)));
+    }
+
+    @Test
+    public void mergeReportDataSkipsLatencyWithoutMax() {
+        ReportDefinition<Long> latencyDefinition = new ReportDefinition.Builder<Long>()
+                .withAggregator("latency", () -> new LatencyHistogramAggregator<>(latency -> latency)).build();
+        Aggregation<Long> aggregation = latencyDefinition.newAggregation();
+        aggregation.add(20L);
+
+        // Neither a missing max nor a malformed one is merged.
+        aggregation.mergeReportData(ImmutableMap.of("latency", ImmutableMap.of("count", 1.0, "histogram",
+                ImmutableMap.of("40", 1.0))));
+        aggregation.mergeReportData(ImmutableMap.of("latency", ImmutableMap.of("count", 1.0, "max", "40",
+                "histogram", ImmutableMap.of("40", 1.0))));
+
+        Map<?, ?> latencyData = (Map<?, ?>) aggregation.getReportData().get("latency");
+        assertEquals(latencyData.get("count"), 1L);
+        assertEquals(latencyData.get("max"), 20L);
+    }
+
+    private static Upload upload(UploadStatus status, Long contentLength) {
+        return new Upload().status(status).contentLength(contentLength);
+    }
+}
@@ -0,0 +1,46 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.rest.model.AccountStatus;
+
+public class EnumCounterTest {
+    private static final String[] STATUS_KEYS = EnumCounter.lowerCaseNames(AccountStatus.class);
+
+    @Test
+    public void reportDataIncludesZeroes() {
+        EnumCounter<AccountStatus> counter = new EnumCounter<>(STATUS_KEYS);
+        counter.add(AccountStatus.ENABLED);
+        counter.add(AccountStatus.ENABLED);
+        counter.add(AccountStatus.DISABLED);
+        counter.add(null);
+
+        assertEquals(counter.count(AccountStatus.ENABLED), 2);
+        Map<String, Integer> reportData = counter.toReportData(true);
+        assertEquals(reportData.size(), AccountStatus.values().length);
+        assertEquals(reportData.get("enabled").intValue(), 2);
+        assertEquals(reportData.get("disabled").intValue(), 1);
+        assertEquals(reportData.get("unverified").intValue(), 0);
+
+        // Keys are in enum order.
+        assertEquals(ImmutableList.copyOf(reportData.keySet()), ImmutableList.copyOf(STATUS_KEYS));
+    }
+
+    @Test
+    public void addAllWithoutZeroes() {
+        EnumCounter<AccountStatus> counter = new EnumCounter<>(STATUS_KEYS);
+        counter.add(AccountStatus.ENABLED);
+        EnumCounter<AccountStatus> otherCounter = new EnumCounter<>(STATUS_KEYS);
+        otherCounter.add(AccountStatus.ENABLED);
+        otherCounter.add(AccountStatus.UNVERIFIED);
+        counter.addAll(otherCounter);
+
+        assertEquals(counter.toReportData(false), ImmutableMap.of("enabled", 2, "unverified", 1));
+    }
+}
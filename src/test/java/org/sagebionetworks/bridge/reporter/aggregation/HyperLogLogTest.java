@@ -0,0 +1,86 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class HyperLogLogTest {
+    @Test
+    public void empty() {
+        assertEquals(new HyperLogLog().getEstimate(), 0L);
+    }
+
+    @Test
+    public void smallCounts() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            // Duplicates aren't counted twice.
+            sketch.add("healthCode-" + i);
+            sketch.add("healthCode-" + i);
+        }
+        // Small counts use linear counting, which is within a couple of the true count.
+        assertTrue(Math.abs(sketch.getEstimate() - 100L) <= 2L, "expected ~100, was " + sketch.getEstimate());
+    }
+
+    @Test
+    public void largeCountsWithinError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100000; i++) {
+            sketch.add("healthCode-" + i);
+        }
+        // Standard error is about 1.6%. Allow 3 standard errors.
+        assertWithinError(sketch.getEstimate(), 100000L);
+    }
+
+    @Test
+    public void zeroHashDoesNotOverflow() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.addHash(0L);
+        assertEquals(sketch.getEstimate(), 1L);
+    }
+
+    @Test
+    public void mergeIsSameAsOneSketch() {
+        HyperLogLog sketch = new HyperLogLog();
+        HyperLogLog otherSketch = new HyperLogLog();
+        HyperLogLog combinedSketch = new HyperLogLog();
+        for (int i = 0; i < 30000; i++) {
+            // The two sketches overlap by 10000 values.
+            String value = "healthCode-" + i;
+            if (i < 20000) {
+                sketch.add(value);
+            }
+            if (i >= 10000) {
+                otherSketch.add(value);
+            }
+            combinedSketch.add(value);
+        }
+
+        sketch.merge(otherSketch);
+        assertEquals(sketch.toBase64(), combinedSketch.toBase64());
+        assertWithinError(sketch.getEstimate(), 30000L);
+    }
+
+    @Test
+    public void base64RoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("healthCode-" + i);
+        }
+
+        HyperLogLog savedSketch = new HyperLogLog();
+        savedSketch.mergeBase64(sketch.toBase64());
+        assertEquals(savedSketch.toBase64(), sketch.toBase64());
+        assertEquals(savedSketch.getEstimate(), sketch.getEstimate());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void mergeBase64WrongSize() {
+        new HyperLogLog().mergeBase64("AAAA");
+    }
+
+    private static void assertWithinError(long actual, long expected) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.05, "expected ~" + expected + ", was " + actual);
+    }
+}
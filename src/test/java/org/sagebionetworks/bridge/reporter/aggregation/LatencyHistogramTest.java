@@ -0,0 +1,96 @@
+package org.sagebionetworks.bridge.reporter.aggregation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getTotalCount(), 0L);
+        assertEquals(histogram.getPercentile(50.0), 0L);
+        assertEquals(histogram.getMax(), 0L);
+        assertTrue(histogram.toBucketMap().isEmpty());
+    }
+
+    @Test
+    public void smallLatenciesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(histogram.getTotalCount(), 10L);
+        assertEquals(histogram.getPercentile(50.0), 5L);
+        assertEquals(histogram.getPercentile(90.0), 9L);
+        assertEquals(histogram.getPercentile(100.0), 10L);
+        assertEquals(histogram.getMax(), 10L);
+    }
+
+    @Test
+    public void largeLatenciesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 10);
+        }
+
+        // Percentiles err high by at most 1/32.
+        assertWithinError(histogram.getPercentile(50.0), 500000L);
+        assertWithinError(histogram.getPercentile(90.0), 900000L);
+        assertWithinError(histogram.getPercentile(99.0), 990000L);
+        assertEquals(histogram.getMax(), 1000000L);
+    }
+
+    @Test
+    public void bucketBoundaries() {
+        assertEquals(LatencyHistogram.bucketIndex(63L), 63);
+        assertEquals(LatencyHistogram.bucketIndex(64L), 64);
+        assertEquals(LatencyHistogram.bucketIndex(65L), 64);
+        assertEquals(LatencyHistogram.bucketIndex(66L), 65);
+        assertEquals(LatencyHistogram.bucketUpperBound(64), 65L);
+        assertEquals(LatencyHistogram.bucketIndex(Long.MAX_VALUE), LatencyHistogram.NUM_BUCKETS - 1);
+
+        // Every bucket's upper bound is in that bucket, and the next value is in the next bucket.
+        for (int i = 0; i < LatencyHistogram.NUM_BUCKETS - 1; i++) {
+            long upperBound = LatencyHistogram.bucketUpperBound(i);
+            assertEquals(LatencyHistogram.bucketIndex(upperBound), i);
+            assertEquals(LatencyHistogram.bucketIndex(upperBound + 1), i + 1);
+        }
+    }
+
+    @Test
+    public void negativeLatencyRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        assertEquals(histogram.getPercentile(50.0), 0L);
+    }
+
+    @Test
+    public void mergeAndBucketMap() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10L);
+        histogram.record(5000L);
+        LatencyHistogram otherHistogram = new LatencyHistogram();
+        otherHistogram.record(20L);
+        histogram.merge(otherHistogram);
+        assertEquals(histogram.getTotalCount(), 3L);
+        assertEquals(histogram.getPercentile(50.0), 20L);
+        assertEquals(histogram.getMax(), 5000L);
+
+        // Round trip through the bucket map gives the same histogram.
+        Map<String, Long> bucketMap = histogram.toBucketMap();
+        LatencyHistogram savedHistogram = new LatencyHistogram();
+        savedHistogram.mergeBucketMap(bucketMap, histogram.getMax());
+        assertEquals(savedHistogram.toBucketMap(), bucketMap);
+        assertEquals(savedHistogram.getTotalCount(), 3L);
+        assertEquals(savedHistogram.getPercentile(99.0), 5000L);
+    }
+
+    private static void assertWithinError(long actual, long expected) {
+        assertTrue(actual >= expected && actual <= expected + expected / 32, "expected ~" + expected + ", was "
+                + actual);
+    }
+}
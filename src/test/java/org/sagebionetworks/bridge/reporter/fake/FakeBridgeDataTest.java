@@ -0,0 +1,70 @@
+package org.sagebionetworks.bridge.reporter.fake;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+
+public class FakeBridgeDataTest {
+    private static final DateTime START_TIME = DateTime.parse("2018-01-11T00:00:00.000Z");
+    private static final DateTime END_TIME = DateTime.parse("2018-01-11T23:59:59.999Z");
+    private static final String STUDY_ID = "study0";
+
+    private final FakeBridgeData data = new FakeBridgeData(1234L, 3, 25, 15);
+
+    @Test
+    public void studies() {
+        assertEquals(data.getStudies().getItems().size(), 3);
+        assertEquals(data.getStudies().getItems().get(2).getIdentifier(), "study2");
+    }
+
+    @Test
+    public void uploadPages() {
+        UploadList firstPage = data.getUploads(STUDY_ID, START_TIME, END_TIME, 10, null);
+        assertEquals(firstPage.getItems().size(), 10);
+        assertEquals(firstPage.getNextPageOffsetKey(), "10");
+
+        UploadList lastPage = data.getUploads(STUDY_ID, START_TIME, END_TIME, 10, "20");
+        assertEquals(lastPage.getItems().size(), 5);
+        assertNull(lastPage.getNextPageOffsetKey());
+
+        for (Upload upload : lastPage.getItems()) {
+            assertTrue(!upload.getRequestedOn().isBefore(START_TIME));
+            assertTrue(!upload.getRequestedOn().isAfter(END_TIME));
+        }
+    }
+
+    @Test
+    public void deterministic() {
+        FakeBridgeData otherData = new FakeBridgeData(1234L, 3, 25, 15);
+        assertEquals(otherData.getUpload(STUDY_ID, 7, START_TIME, END_TIME),
+                data.getUpload(STUDY_ID, 7, START_TIME, END_TIME));
+        assertEquals(otherData.getParticipant(STUDY_ID, "user3"), data.getParticipant(STUDY_ID, "user3"));
+    }
+
+    @Test
+    public void participantsMatchSummaries() {
+        AccountSummaryList summaryList = data.getParticipants(STUDY_ID, 10, 10);
+        assertEquals(summaryList.getItems().size(), 5);
+        assertEquals(summaryList.getTotal().intValue(), 15);
+
+        for (AccountSummary summary : summaryList.getItems()) {
+            StudyParticipant participant = data.getParticipant(STUDY_ID, summary.getId());
+            assertEquals(participant.getStatus(), summary.getStatus());
+        }
+    }
+
+    @Test
+    public void unknownParticipant() {
+        assertNull(data.getParticipant(STUDY_ID, "user15"));
+        assertNull(data.getParticipant(STUDY_ID, "not-a-user"));
+    }
+}
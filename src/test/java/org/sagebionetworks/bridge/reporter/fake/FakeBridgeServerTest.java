@@ -0,0 +1,122 @@
+package org.sagebionetworks.bridge.reporter.fake;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.reporter.helper.BridgeEndpoint;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
+import org.sagebionetworks.bridge.rest.model.StudyList;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+
+public class FakeBridgeServerTest {
+    private static final String UPLOADS_PATH = "/v3/studies/study0/uploads?startTime=2018-01-11T00:00:00.000Z"
+            + "&endTime=2018-01-11T23:59:59.999Z&pageSize=50";
+
+    private FakeBridgeServer server;
+
+    @AfterMethod
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void servesData() throws Exception {
+        startServer(FakeEndpointBehavior.NONE);
+
+        StudyList studyList = get("/v3/studies?summary=true", StudyList.class);
+        assertEquals(studyList.getItems().size(), 2);
+
+        // Page size is capped by the server.
+        UploadList uploadList = get(UPLOADS_PATH, UploadList.class);
+        assertEquals(uploadList.getItems().size(), 10);
+        assertEquals(uploadList.getNextPageOffsetKey(), "10");
+
+        AccountSummaryList summaryList = get("/v3/studies/study0/participants?offsetBy=0&pageSize=5",
+                AccountSummaryList.class);
+        assertEquals(summaryList.getItems().size(), 5);
+        assertEquals(summaryList.getTotal().intValue(), 7);
+
+        assertEquals(server.getRequestCount(BridgeEndpoint.GET_UPLOADS), 1);
+    }
+
+    @Test
+    public void savesAndReadsReports() throws Exception {
+        startServer(FakeEndpointBehavior.NONE);
+
+        HttpURLConnection connection = open("/v3/studies/study0/reports/test-report");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream requestBody = connection.getOutputStream()) {
+            requestBody.write("{\"date\":\"2018-01-11\",\"data\":{\"succeeded\":3}}".getBytes(
+                    StandardCharsets.UTF_8));
+        }
+        assertEquals(connection.getResponseCode(), 201);
+
+        ReportDataList reportDataList = get("/v3/studies/study0/reports/test-report?startDate=2018-01-10"
+                + "&endDate=2018-01-12", ReportDataList.class);
+        assertEquals(reportDataList.getItems().size(), 1);
+        assertEquals(reportDataList.getItems().get(0).getDate(), "2018-01-11");
+
+        ReportDataList otherDates = get("/v3/studies/study0/reports/test-report?startDate=2018-01-12"
+                + "&endDate=2018-01-13", ReportDataList.class);
+        assertEquals(otherDates.getItems().size(), 0);
+    }
+
+    @Test
+    public void injectsThrottling() throws Exception {
+        startServer(new FakeEndpointBehavior(0, 0, 1.0, 0.0));
+        assertEquals(open(UPLOADS_PATH).getResponseCode(), 429);
+        assertEquals(server.getRequestCount(BridgeEndpoint.GET_UPLOADS), 1);
+    }
+
+    @Test
+    public void injectsErrors() throws Exception {
+        startServer(new FakeEndpointBehavior(0, 0, 0.0, 1.0));
+        assertEquals(open(UPLOADS_PATH).getResponseCode(), 503);
+    }
+
+    @Test
+    public void unknownParticipant() throws Exception {
+        startServer(FakeEndpointBehavior.NONE);
+        assertEquals(open("/v3/studies/study0/participants/user7").getResponseCode(), 404);
+    }
+
+    @Test
+    public void unknownPath() throws Exception {
+        startServer(FakeEndpointBehavior.NONE);
+        assertEquals(open("/v3/nothing-here").getResponseCode(), 404);
+    }
+
+    private void startServer(FakeEndpointBehavior uploadsBehavior) throws IOException {
+        FakeBridgeData data = new FakeBridgeData(1234L, 2, 25, 7);
+        server = new FakeBridgeServer(data, ImmutableMap.of(BridgeEndpoint.GET_UPLOADS, uploadsBehavior), 0, 10, 2);
+        server.start();
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+
+    private <T> T get(String path, Class<T> clazz) throws IOException {
+        HttpURLConnection connection = open(path);
+        assertEquals(connection.getResponseCode(), 200);
+        try (InputStream inputStream = connection.getInputStream();
+                Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            return RestUtils.GSON.fromJson(reader, clazz);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+public class AdaptivePageSizerTest {
+    private static final long LATENCY_THRESHOLD_MILLIS = 1000L;
+
+    @Test
+    public void growsOnHealthyPages() {
+        // Range of 200, so each healthy page adds 10.
+        AdaptivePageSizer pageSizer = new AdaptivePageSizer(100, 50, 250, LATENCY_THRESHOLD_MILLIS);
+
+        pageSizer.onSuccess(10L);
+        assertEquals(pageSizer.getPageSize(), 110);
+        pageSizer.onSuccess(10L);
+        assertEquals(pageSizer.getPageSize(), 120);
+    }
+
+    @Test
+    public void cappedAtMax() {
+        AdaptivePageSizer pageSizer = new AdaptivePageSizer(245, 50, 250, LATENCY_THRESHOLD_MILLIS);
+        pageSizer.onSuccess(10L);
+        assertEquals(pageSizer.getPageSize(), 250);
+    }
+
+    @Test
+    public void smallRangeGrowsByOne() {
+        AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 10, 20, LATENCY_THRESHOLD_MILLIS);
+        pageSizer.onSuccess(10L);
+        assertEquals(pageSizer.getPageSize(), 11);
+    }
+
+    @Test
+    public void shrinksOnThrottling() {
+        AdaptivePageSizer pageSizer = new AdaptivePageSizer(100, 30, 250, LATENCY_THRESHOLD_MILLIS);
+
+        pageSizer.onThrottled();
+        assertEquals(pageSizer.getPageSize(), 50);
+
+        // Floored at min page size.
+        pageSizer.onThrottled();
+        assertEquals(pageSizer.getPageSize(), 30);
+    }
+
+    @Test
+    public void shrinksOnSlowPages() {
+        AdaptivePageSizer pageSizer = new AdaptivePageSizer(100, 10, 250, LATENCY_THRESHOLD_MILLIS);
+        pageSizer.onSuccess(LATENCY_THRESHOLD_MILLIS + 1);
+        assertEquals(pageSizer.getPageSize(), 50);
+    }
+
+    @Test
+    public void fixedPageSize() {
+        AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 10, 10, LATENCY_THRESHOLD_MILLIS);
+        pageSizer.onSuccess(10L);
+        assertEquals(pageSizer.getPageSize(), 10);
+        pageSizer.onThrottled();
+        assertEquals(pageSizer.getPageSize(), 10);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void initialOutOfRange() {
+        new AdaptivePageSizer(5, 10, 20, LATENCY_THRESHOLD_MILLIS);
+    }
+}
@@ -0,0 +1,71 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class AdaptiveRateLimiterTest {
+    private static final double DELTA = 0.0001;
+    private static final long LATENCY_THRESHOLD_MILLIS = 1000L;
+
+    @Test
+    public void speedsUpOnHealthyCalls() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1.0, 0.5, 1.25, LATENCY_THRESHOLD_MILLIS);
+
+        rateLimiter.onSuccess(10L);
+        assertEquals(rateLimiter.getRate(), 1.1, DELTA);
+        rateLimiter.onSuccess(10L);
+        assertEquals(rateLimiter.getRate(), 1.2, DELTA);
+
+        // Capped at max rate.
+        rateLimiter.onSuccess(10L);
+        assertEquals(rateLimiter.getRate(), 1.25, DELTA);
+    }
+
+    @Test
+    public void tryAcquireDoesNotWait() {
+        // One permit per minute. The first permit is free, and the next isn't available for another minute.
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1.0 / 60, 1.0 / 60, 1.0, LATENCY_THRESHOLD_MILLIS);
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    public void backsOffOnThrottling() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(4.0, 1.5, 10.0, LATENCY_THRESHOLD_MILLIS);
+
+        rateLimiter.onThrottled();
+        assertEquals(rateLimiter.getRate(), 2.0, DELTA);
+
+        // Floored at min rate.
+        rateLimiter.onThrottled();
+        assertEquals(rateLimiter.getRate(), 1.5, DELTA);
+    }
+
+    @Test
+    public void backsOffOnSlowCalls() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(4.0, 1.0, 10.0, LATENCY_THRESHOLD_MILLIS);
+        rateLimiter.onSuccess(LATENCY_THRESHOLD_MILLIS + 1);
+        assertEquals(rateLimiter.getRate(), 2.0, DELTA);
+    }
+
+    @Test
+    public void acquire() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1.0, 1.0, 1.0, LATENCY_THRESHOLD_MILLIS);
+
+        // First permit is available immediately.
+        assertEquals(rateLimiter.acquire(), 0.0, DELTA);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void initialRateOutOfBounds() {
+        new AdaptiveRateLimiter(20.0, 1.0, 10.0, LATENCY_THRESHOLD_MILLIS);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void nonPositiveMinRate() {
+        new AdaptiveRateLimiter(1.0, 0.0, 10.0, LATENCY_THRESHOLD_MILLIS);
+    }
+}
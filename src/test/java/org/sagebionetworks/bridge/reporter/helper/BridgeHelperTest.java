@@ -2,26 +2,54 @@ package org.sagebionetworks.bridge.reporter.helper;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sagebionetworks.bridge.reporter.helper.BridgeHelper.MAX_PAGE_SIZE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import okhttp3.ResponseBody;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import org.sagebionetworks.bridge.reporter.Tests;
@@ -30,10 +58,12 @@ import org.sagebionetworks.bridge.rest.ClientManager;
 import org.sagebionetworks.bridge.rest.RestUtils;
 import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
 import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
 import org.sagebionetworks.bridge.rest.model.AccountSummary;
 import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
 import org.sagebionetworks.bridge.rest.model.Message;
 import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
 import org.sagebionetworks.bridge.rest.model.RequestParams;
 import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.rest.model.StudyList;
@@ -99,6 +129,79 @@ public class BridgeHelperTest {
         assertEquals(retSummaryList, ImmutableList.of(TEST_STUDY_SUMMARY));
     }
 
+    @Test
+    public void studiesCacheServesStaleWhileRefreshing() throws Exception {
+        Study otherStudy = new Study().identifier("other-study").name("other-study");
+        Call<StudyList> firstCall = makeCall(new StudyList().addItemsItem(TEST_STUDY_SUMMARY));
+        Call<StudyList> secondCall = makeCall(new StudyList().addItemsItem(TEST_STUDY_SUMMARY)
+                .addItemsItem(otherStudy));
+
+        StudiesApi mockStudyClient = mock(StudiesApi.class);
+        when(mockStudyClient.getStudies(true)).thenReturn(firstCall, secondCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(StudiesApi.class)).thenReturn(mockStudyClient);
+
+        // Background refreshes are queued up, so the test can run them when it wants.
+        List<Runnable> backgroundTaskList = new ArrayList<>();
+        ExecutorService mockExecutorService = mock(ExecutorService.class);
+        doAnswer(invocation -> backgroundTaskList.add(invocation.getArgumentAt(0, Runnable.class)))
+                .when(mockExecutorService).execute(any());
+
+        FakeTicker ticker = new FakeTicker();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setPageFetchExecutorService(mockExecutorService);
+        bridgeHelper.setStudiesCacheTtl(60, 600, ticker);
+
+        // Back-to-back requests only fetch once.
+        assertEquals(bridgeHelper.getAllStudiesSummary(), ImmutableList.of(TEST_STUDY_SUMMARY));
+        assertEquals(bridgeHelper.getAllStudiesSummary(), ImmutableList.of(TEST_STUDY_SUMMARY));
+        verify(mockStudyClient, times(1)).getStudies(true);
+
+        // Past the refresh time, callers get the stale list while it's refreshed in the background.
+        ticker.advanceSeconds(61);
+        assertEquals(bridgeHelper.getAllStudiesSummary(), ImmutableList.of(TEST_STUDY_SUMMARY));
+        assertEquals(backgroundTaskList.size(), 1);
+        backgroundTaskList.get(0).run();
+        assertEquals(bridgeHelper.getAllStudiesSummary(), ImmutableList.of(TEST_STUDY_SUMMARY, otherStudy));
+        verify(mockStudyClient, times(2)).getStudies(true);
+    }
+
+    @Test
+    public void studiesCacheInvalidated() throws Exception {
+        Call<StudyList> firstCall = makeCall(new StudyList().addItemsItem(TEST_STUDY_SUMMARY));
+        Call<StudyList> secondCall = makeCall(new StudyList().addItemsItem(TEST_STUDY_SUMMARY));
+
+        StudiesApi mockStudyClient = mock(StudiesApi.class);
+        when(mockStudyClient.getStudies(true)).thenReturn(firstCall, secondCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(StudiesApi.class)).thenReturn(mockStudyClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setStudiesCacheTtl(60, 600);
+
+        bridgeHelper.getAllStudiesSummary();
+        bridgeHelper.invalidateStudiesCache();
+        bridgeHelper.getAllStudiesSummary();
+        verify(mockStudyClient, times(2)).getStudies(true);
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos = 0;
+
+        void advanceSeconds(long seconds) {
+            nanos += TimeUnit.SECONDS.toNanos(seconds);
+        }
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+
     @Test
     public void testGetUploadsForStudy() throws Exception {
         // mock SDK get uploads call
@@ -109,8 +212,8 @@ public class BridgeHelperTest {
         when(mockCall.execute()).thenReturn(response);
 
         ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
-        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null)).thenReturn(
-                mockCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
 
         ClientManager mockClientManager = mock(ClientManager.class);
         when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
@@ -140,10 +243,10 @@ public class BridgeHelperTest {
         when(secondMockCall.execute()).thenReturn(secondResponse);
 
         ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
-        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null)).thenReturn(
-                mockCall);
-        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, "offsetKey")).thenReturn(
-                secondMockCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey")).thenReturn(secondMockCall);
 
         ClientManager mockClientManager = mock(ClientManager.class);
         when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
@@ -163,10 +266,176 @@ public class BridgeHelperTest {
         assertEquals(retUploadsForStudy, ImmutableList.of(testUpload, testUpload));
     }
 
+    @Test
+    public void testForEachUploadPage() throws Exception {
+        // mock SDK get uploads call, two pages
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        uploadList.setNextPageOffsetKey("offsetKey");
+        Call<UploadList> mockCall = makeCall(uploadList);
+        UploadList secondUploadList = new UploadList().addItemsItem(testUpload).addItemsItem(testUpload);
+        Call<UploadList> secondMockCall = makeCall(secondUploadList);
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey")).thenReturn(secondMockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        // set up BridgeHelper
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+
+        // execute
+        List<Integer> pageSizeList = new ArrayList<>();
+        bridgeHelper.forEachUploadPage(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME,
+                page -> pageSizeList.add(page.size()));
+
+        // verify each page was handled separately
+        assertEquals(pageSizeList, ImmutableList.of(1, 2));
+    }
+
+    @Test
+    public void identicalFetchesCoalesced() throws Exception {
+        // The call blocks until the test releases it, so the second fetch is made while the first is in flight.
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        CountDownLatch callStartedLatch = new CountDownLatch(1);
+        CountDownLatch releaseCallLatch = new CountDownLatch(1);
+        Call<UploadList> mockCall = mock(Call.class);
+        when(mockCall.execute()).thenAnswer(invocation -> {
+            callStartedLatch.countDown();
+            releaseCallLatch.await();
+            return Response.success(uploadList);
+        });
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setMetricRegistry(metricRegistry);
+        bridgeHelper.setCoalescingEnabled(true);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Upload>> firstFuture = executorService.submit(() -> bridgeHelper.getUploadsForStudy(
+                    TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME));
+            assertTrue(callStartedLatch.await(10, TimeUnit.SECONDS));
+
+            // The same window in a different time zone is the same fetch. Wait for it to join the in-flight fetch.
+            Future<List<Upload>> secondFuture = executorService.submit(() -> bridgeHelper.getUploadsForStudy(
+                    TEST_STUDY_ID, TEST_START_DATETIME.withZone(DateTimeZone.forOffsetHours(-8)),
+                    TEST_END_DATETIME.withZone(DateTimeZone.forOffsetHours(-8))));
+            Meter coalescedMeter = metricRegistry.meter(MetricRegistry.name(BridgeHelper.class, "getUploads",
+                    "coalesced"));
+            while (coalescedMeter.getCount() == 0 && !secondFuture.isDone()) {
+                Thread.sleep(10);
+            }
+            releaseCallLatch.countDown();
+
+            assertEquals(firstFuture.get(10, TimeUnit.SECONDS), ImmutableList.of(testUpload));
+            assertEquals(secondFuture.get(10, TimeUnit.SECONDS), ImmutableList.of(testUpload));
+        } finally {
+            releaseCallLatch.countDown();
+            executorService.shutdown();
+        }
+
+        // Bridge was only called once.
+        verify(mockCall, times(1)).execute();
+    }
+
+    @Test
+    public void completedFetchesNotKept() throws Exception {
+        Call<UploadList> mockCall = makeCall(new UploadList().addItemsItem(testUpload));
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setCoalescingEnabled(true);
+
+        // Fetches one after the other aren't shared, since results aren't kept once the fetch completes.
+        bridgeHelper.getUploadsForStudy(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME);
+        bridgeHelper.getUploadsForStudy(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME);
+        verify(mockCall, times(2)).execute();
+    }
+
+    @Test
+    public void failedFetchesNotCoalesced() throws Exception {
+        Call<StudyParticipant> mockCall = mock(Call.class);
+        when(mockCall.execute()).thenThrow(new IOException("test exception")).thenReturn(Response.success(
+                new StudyParticipant().id(USER_ID_1)));
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getParticipantById(TEST_STUDY_ID, USER_ID_1, false)).thenReturn(mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setCoalescingEnabled(true);
+
+        try {
+            bridgeHelper.getParticipantDetails(TEST_STUDY_ID, ImmutableList.of(USER_ID_1));
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertEquals(ex.getMessage(), "test exception");
+        }
+
+        // The failure isn't shared with the next fetch, which succeeds.
+        assertEquals(bridgeHelper.getParticipantDetails(TEST_STUDY_ID, ImmutableList.of(USER_ID_1)).get(0).getId(),
+                USER_ID_1);
+        verify(mockCall, times(2)).execute();
+    }
+
+    @Test
+    public void metricsRecordedForPagesAndCalls() throws Exception {
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        uploadList.setNextPageOffsetKey("offsetKey");
+        Call<UploadList> mockCall = makeCall(uploadList);
+        UploadList secondUploadList = new UploadList().addItemsItem(testUpload).addItemsItem(testUpload);
+        Call<UploadList> secondMockCall = makeCall(secondUploadList);
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey")).thenReturn(secondMockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setMetricRegistry(metricRegistry);
+
+        bridgeHelper.getUploadsForStudy(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME);
+
+        String prefix = BridgeHelper.class.getName() + ".getUploads.";
+        assertEquals(metricRegistry.timer(prefix + "requests").getCount(), 2);
+        assertEquals(metricRegistry.timer(prefix + "rate-limit-wait").getCount(), 2);
+        assertEquals(metricRegistry.meter(prefix + "pages").getCount(), 2);
+        assertEquals(metricRegistry.meter(prefix + "records").getCount(), 3);
+        assertEquals(metricRegistry.counter(prefix + "errors").getCount(), 0);
+    }
+
     @Test
     public void testSaveReportForStudy() throws Exception {
         // mock SDK save report call
-        Call<Message> mockCall = mock(Call.class);
+        Call<Message> mockCall = makeCall(new Message());
         ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
         when(mockWorkerClient.saveReport(TEST_STUDY_ID, TEST_REPORT_ID, TEST_REPORT)).thenReturn(mockCall);
 
@@ -185,6 +454,28 @@ public class BridgeHelperTest {
         verify(mockCall).execute();
     }
     
+    @Test
+    public void testGetReportsForStudy() throws Exception {
+        LocalDate startDate = LocalDate.parse("2016-10-19");
+        LocalDate endDate = LocalDate.parse("2016-10-25");
+        ReportDataList reportDataList = new ReportDataList().addItemsItem(TEST_REPORT);
+        Call<ReportDataList> mockCall = makeCall(reportDataList);
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getStudyReportRecords(TEST_STUDY_ID, TEST_REPORT_ID, startDate, endDate)).thenReturn(
+                mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+
+        List<ReportData> reportList = bridgeHelper.getReportsForStudy(TEST_STUDY_ID, TEST_REPORT_ID, startDate,
+                endDate);
+        assertEquals(reportList, ImmutableList.of(TEST_REPORT));
+    }
+
     @Test
     public void testGetParticipantsForStudy() throws Exception {
         ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
@@ -233,6 +524,179 @@ public class BridgeHelperTest {
         verify(mockWorkerClient).getParticipantById(TEST_STUDY_ID, USER_ID_4, false);
     }
     
+    @Test
+    public void testGetParticipantDetailsConcurrent() throws Exception {
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        List<StudyParticipant> stubParticipants = newArrayList();
+        stubParticipants.add(mockCallForParticipant(mockWorkerClient, USER_ID_1));
+        stubParticipants.add(mockCallForParticipant(mockWorkerClient, USER_ID_2));
+        stubParticipants.add(mockCallForParticipant(mockWorkerClient, USER_ID_3));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            BridgeHelper bridgeHelper = new BridgeHelper();
+            bridgeHelper.setBridgeClientManager(mockClientManager);
+            bridgeHelper.setParticipantFetchExecutorService(executorService);
+
+            // Participants come back in the same order as the user IDs, even though they're fetched in parallel.
+            List<StudyParticipant> participants = bridgeHelper.getParticipantDetails(TEST_STUDY_ID,
+                    ImmutableList.of(USER_ID_1, USER_ID_2, USER_ID_3));
+            assertEquals(participants.size(), 3);
+            assertSame(participants.get(0), stubParticipants.get(0));
+            assertSame(participants.get(1), stubParticipants.get(1));
+            assertSame(participants.get(2), stubParticipants.get(2));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void rateLimiterSpeedsUpOnSuccess() throws Exception {
+        StudyList studySummaryList = new StudyList().addItemsItem(TEST_STUDY_SUMMARY);
+        Call<StudyList> mockCall = makeCall(studySummaryList);
+
+        StudiesApi mockStudyClient = mock(StudiesApi.class);
+        when(mockStudyClient.getStudies(true)).thenReturn(mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(StudiesApi.class)).thenReturn(mockStudyClient);
+
+        AdaptiveRateLimiter mockRateLimiter = mock(AdaptiveRateLimiter.class);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mockRateLimiter));
+
+        bridgeHelper.getAllStudiesSummary();
+        verify(mockRateLimiter).acquire();
+        verify(mockRateLimiter).onSuccess(anyLong());
+        verify(mockRateLimiter, never()).onThrottled();
+    }
+
+    @Test
+    public void rateLimiterBacksOffOnThrottling() throws Exception {
+        BridgeSDKException mockException = mock(BridgeSDKException.class);
+        when(mockException.getStatusCode()).thenReturn(429);
+
+        Call<StudyList> mockCall = mock(Call.class);
+        when(mockCall.execute()).thenThrow(mockException);
+
+        StudiesApi mockStudyClient = mock(StudiesApi.class);
+        when(mockStudyClient.getStudies(true)).thenReturn(mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(StudiesApi.class)).thenReturn(mockStudyClient);
+
+        AdaptiveRateLimiter mockRateLimiter = mock(AdaptiveRateLimiter.class);
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mockRateLimiter));
+        bridgeHelper.setMetricRegistry(metricRegistry);
+
+        try {
+            bridgeHelper.getAllStudiesSummary();
+        } catch (BridgeSDKException ex) {
+            // expected exception
+        }
+        verify(mockRateLimiter).acquire();
+        verify(mockRateLimiter).onThrottled();
+        verify(mockRateLimiter, never()).onSuccess(anyLong());
+
+        String prefix = BridgeHelper.class.getName() + ".getStudies.";
+        assertEquals(metricRegistry.timer(prefix + "requests").getCount(), 1);
+        assertEquals(metricRegistry.counter(prefix + "errors").getCount(), 1);
+    }
+
+    private static Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMapOf(BridgeEndpoint endpoint,
+            AdaptiveRateLimiter rateLimiter) {
+        Map<BridgeEndpoint, AdaptiveRateLimiter> rateLimiterMap = new EnumMap<>(BridgeEndpoint.class);
+        rateLimiterMap.put(endpoint, rateLimiter);
+        return rateLimiterMap;
+    }
+
+    @Test
+    public void testForEachParticipantSummaryPagePrefetched() throws Exception {
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        // Three pages, total of 250.
+        AccountSummary summary1 = new AccountSummary().id(USER_ID_1).email(USER_EMAIL_1);
+        AccountSummary summary2 = new AccountSummary().id(USER_ID_2).email(USER_EMAIL_2);
+        AccountSummary summary3 = new AccountSummary().id(USER_ID_3).email(USER_EMAIL_3);
+        for (int offset = 0; offset <= 200; offset += 100) {
+            AccountSummary summary = offset == 0 ? summary1 : offset == 100 ? summary2 : summary3;
+            Call<AccountSummaryList> mockCall = createResponseForOffset(offset, summary);
+            mockCall.execute().body().setTotal(250);
+            when(mockWorkerClient.getParticipants(TEST_STUDY_ID, offset, 100, null, null, TEST_START_DATETIME,
+                    TEST_END_DATETIME)).thenReturn(mockCall);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            BridgeHelper bridgeHelper = new BridgeHelper();
+            bridgeHelper.setBridgeClientManager(mockClientManager);
+            bridgeHelper.setPageFetchExecutorService(executorService);
+            bridgeHelper.setParticipantPagePrefetchDepth(2);
+
+            // Pages are handled in order, even though pages 2 and 3 are fetched in parallel.
+            List<AccountSummary> summaryList = new ArrayList<>();
+            bridgeHelper.forEachParticipantSummaryPage(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME,
+                    summaryList::addAll);
+            assertEquals(summaryList, ImmutableList.of(summary1, summary2, summary3));
+        } finally {
+            executorService.shutdown();
+        }
+
+        verify(mockWorkerClient, times(3)).getParticipants(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testForEachUploadPagePrefetched() throws Exception {
+        // mock SDK get uploads call, three pages
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        uploadList.setNextPageOffsetKey("offsetKey1");
+        UploadList secondUploadList = new UploadList().addItemsItem(testUpload).addItemsItem(testUpload);
+        secondUploadList.setNextPageOffsetKey("offsetKey2");
+        UploadList thirdUploadList = new UploadList().addItemsItem(testUpload).addItemsItem(testUpload)
+                .addItemsItem(testUpload);
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        Call<UploadList> mockCall = makeCall(uploadList);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+        Call<UploadList> secondMockCall = makeCall(secondUploadList);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey1")).thenReturn(secondMockCall);
+        Call<UploadList> thirdMockCall = makeCall(thirdUploadList);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey2")).thenReturn(thirdMockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            BridgeHelper bridgeHelper = new BridgeHelper();
+            bridgeHelper.setBridgeClientManager(mockClientManager);
+            bridgeHelper.setPageFetchExecutorService(executorService);
+
+            List<Integer> pageSizeList = new ArrayList<>();
+            bridgeHelper.forEachUploadPage(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME,
+                    page -> pageSizeList.add(page.size()));
+            assertEquals(pageSizeList, ImmutableList.of(1, 2, 3));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     private StudyParticipant mockCallForParticipant(ForWorkersApi client, String userId) throws Exception {
         StudyParticipant studyParticipant = new StudyParticipant();
         Call<StudyParticipant> spCall = makeCall(studyParticipant);
@@ -240,6 +704,665 @@ public class BridgeHelperTest {
         return studyParticipant;
     }
     
+    @Test
+    public void pageSizesGrowWhileHealthy() throws Exception {
+        UploadList firstUploadList = new UploadList().addItemsItem(testUpload);
+        firstUploadList.setNextPageOffsetKey("offsetKey");
+        Call<UploadList> firstUploadCall = makeCall(firstUploadList);
+        Call<UploadList> secondUploadCall = makeCall(new UploadList().addItemsItem(testUpload));
+        Call<UploadList> nextScanUploadCall = makeCall(new UploadList().addItemsItem(testUpload));
+        Call<AccountSummaryList> firstSummaryCall = createResponseForOffset(0, new AccountSummary().id(USER_ID_1));
+        Call<AccountSummaryList> secondSummaryCall = createResponseForOffset(100, new AccountSummary().id(USER_ID_2));
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 10, null))
+                .thenReturn(firstUploadCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 10, "offsetKey"))
+                .thenReturn(secondUploadCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 12, null))
+                .thenReturn(nextScanUploadCall);
+        when(mockWorkerClient.getParticipants(TEST_STUDY_ID, 0, 100, null, null, TEST_START_DATETIME,
+                TEST_END_DATETIME)).thenReturn(firstSummaryCall);
+        when(mockWorkerClient.getParticipants(TEST_STUDY_ID, 100, 100, null, null, TEST_START_DATETIME,
+                TEST_END_DATETIME)).thenReturn(secondSummaryCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        // Uploads grow by 1 per healthy page, and account summaries by 5.
+        Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap = new EnumMap<>(BridgeEndpoint.class);
+        pageSizerMap.put(BridgeEndpoint.GET_UPLOADS, new AdaptivePageSizer(10, 10, 30, 1000L));
+        pageSizerMap.put(BridgeEndpoint.GET_PARTICIPANTS, new AdaptivePageSizer(100, 50, 150, 1000L));
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setPageSizerMap(pageSizerMap);
+        bridgeHelper.setMetricRegistry(metricRegistry);
+
+        // A scan keeps the page size it started with. The next scan uses the grown page size.
+        List<Upload> uploadList = bridgeHelper.getUploadsForStudy(TEST_STUDY_ID, TEST_START_DATETIME,
+                TEST_END_DATETIME);
+        assertEquals(uploadList.size(), 2);
+        uploadList = bridgeHelper.getUploadsForStudy(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME);
+        assertEquals(uploadList.size(), 1);
+
+        List<AccountSummary> summaryList = new ArrayList<>();
+        bridgeHelper.forEachParticipantSummaryPage(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME,
+                summaryList::addAll);
+        assertEquals(summaryList.size(), 2);
+
+        verify(mockWorkerClient).getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 10, "offsetKey");
+        verify(mockWorkerClient).getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 12, null);
+        verify(mockWorkerClient).getParticipants(TEST_STUDY_ID, 100, 100, null, null, TEST_START_DATETIME,
+                TEST_END_DATETIME);
+        assertEquals(metricRegistry.histogram(MetricRegistry.name(BridgeHelper.class, "getUploads", "page-size"))
+                .getCount(), 2);
+    }
+
+    @Test
+    public void concurrentScansKeepOnePageSize() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        Meter coalescedMeter = metricRegistry.meter(MetricRegistry.name(BridgeHelper.class, "getUploads",
+                "coalesced"));
+
+        // Each page blocks until the other scan has joined it, so both scans are in flight together.
+        UploadList firstUploadList = new UploadList().addItemsItem(testUpload);
+        firstUploadList.setNextPageOffsetKey("offsetKey");
+        Call<UploadList> firstUploadCall = mock(Call.class);
+        when(firstUploadCall.execute()).thenAnswer(invocation -> {
+            awaitCount(coalescedMeter, 1);
+            return Response.success(firstUploadList);
+        });
+        Call<UploadList> secondUploadCall = mock(Call.class);
+        when(secondUploadCall.execute()).thenAnswer(invocation -> {
+            awaitCount(coalescedMeter, 2);
+            return Response.success(new UploadList().addItemsItem(testUpload));
+        });
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 10, null))
+                .thenReturn(firstUploadCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 10, "offsetKey"))
+                .thenReturn(secondUploadCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        // The page sizer changes every time it's asked.
+        AdaptivePageSizer mockPageSizer = mock(AdaptivePageSizer.class);
+        when(mockPageSizer.getPageSize()).thenReturn(10, 11, 12, 13);
+        Map<BridgeEndpoint, AdaptivePageSizer> pageSizerMap = new EnumMap<>(BridgeEndpoint.class);
+        pageSizerMap.put(BridgeEndpoint.GET_UPLOADS, mockPageSizer);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setPageSizerMap(pageSizerMap);
+        bridgeHelper.setMetricRegistry(metricRegistry);
+        bridgeHelper.setCoalescingEnabled(true);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Upload>> firstFuture = executorService.submit(() -> bridgeHelper.getUploadsForStudy(
+                    TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME));
+            Future<List<Upload>> secondFuture = executorService.submit(() -> bridgeHelper.getUploadsForStudy(
+                    TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME));
+            assertEquals(firstFuture.get(10, TimeUnit.SECONDS).size(), 2);
+            assertEquals(secondFuture.get(10, TimeUnit.SECONDS).size(), 2);
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Both scans used the first page size for both pages, and shared each page.
+        verify(mockPageSizer, times(1)).getPageSize();
+        verify(firstUploadCall, times(1)).execute();
+        verify(secondUploadCall, times(1)).execute();
+        verify(mockWorkerClient, never()).getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, 11,
+                "offsetKey");
+    }
+
+    @Test
+    public void defaultRateLimitIsNotOneCallPerSecond() throws Exception {
+        Call<StudyList> call = makeCall(new StudyList().addItemsItem(TEST_STUDY_SUMMARY));
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockStudiesClientManager(call));
+
+        // At the old fixed rate, 5 calls would take 4 seconds.
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (int i = 0; i < 5; i++) {
+            bridgeHelper.getAllStudiesSummary();
+        }
+        assertTrue(stopwatch.elapsed(TimeUnit.MILLISECONDS) < 2000L);
+    }
+
+    @Test
+    public void retriesTransientFailures() throws Exception {
+        // Network error, then 503, then success. Retrofit calls can't be re-executed, so retries use clones.
+        Call<StudyList> firstCall = mock(Call.class);
+        when(firstCall.execute()).thenThrow(new IOException("connection reset"));
+        Call<StudyList> secondCall = mock(Call.class);
+        when(secondCall.execute()).thenReturn(Response.error(503, ResponseBody.create(null, "")));
+        Call<StudyList> thirdCall = makeCall(new StudyList().addItemsItem(TEST_STUDY_SUMMARY));
+        when(firstCall.clone()).thenReturn(secondCall);
+        when(secondCall.clone()).thenReturn(thirdCall);
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockStudiesClientManager(firstCall));
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mock(AdaptiveRateLimiter.class)));
+        bridgeHelper.setMetricRegistry(metricRegistry);
+        bridgeHelper.setRetryPolicy(3, 1L, 2L, 0L);
+
+        assertEquals(bridgeHelper.getAllStudiesSummary(), ImmutableList.of(TEST_STUDY_SUMMARY));
+        verify(thirdCall).execute();
+        assertEquals(metricRegistry.meter(BridgeHelper.class.getName() + ".getStudies.retries").getCount(), 2);
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        BridgeSDKException mockException = mock(BridgeSDKException.class);
+        when(mockException.getStatusCode()).thenReturn(404);
+        Call<StudyList> mockCall = mock(Call.class);
+        when(mockCall.execute()).thenThrow(mockException);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockStudiesClientManager(mockCall));
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mock(AdaptiveRateLimiter.class)));
+        bridgeHelper.setRetryPolicy(3, 1L, 2L, 0L);
+
+        try {
+            bridgeHelper.getAllStudiesSummary();
+            fail("expected exception");
+        } catch (BridgeSDKException ex) {
+            assertSame(ex, mockException);
+        }
+        verify(mockCall).execute();
+        verify(mockCall, never()).clone();
+    }
+
+    @Test
+    public void emptyBodyFailsAfterMaxAttempts() throws Exception {
+        Call<StudyList> firstCall = makeCall(null);
+        Call<StudyList> secondCall = makeCall(null);
+        when(firstCall.clone()).thenReturn(secondCall);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockStudiesClientManager(firstCall));
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mock(AdaptiveRateLimiter.class)));
+        bridgeHelper.setRetryPolicy(2, 1L, 2L, 0L);
+
+        try {
+            bridgeHelper.getAllStudiesSummary();
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertEquals(ex.getMessage(), "Bridge call getStudies returned an empty body");
+        }
+        verify(secondCall).execute();
+        verify(secondCall, never()).clone();
+    }
+
+    @Test
+    public void noRetryPastDeadline() throws Exception {
+        Call<StudyList> mockCall = mock(Call.class);
+        when(mockCall.execute()).thenThrow(new IOException("connection reset"));
+
+        // The backoff alone is past the deadline.
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockStudiesClientManager(mockCall));
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mock(AdaptiveRateLimiter.class)));
+        bridgeHelper.setRetryPolicy(3, 10000L, 10000L, 1000L);
+
+        try {
+            bridgeHelper.getAllStudiesSummary();
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertEquals(ex.getMessage(), "connection reset");
+        }
+        verify(mockCall, never()).clone();
+    }
+
+    @Test
+    public void openCircuitFailsFast() throws Exception {
+        Call<StudyList> mockCall = mock(Call.class);
+        when(mockCall.execute()).thenThrow(new IOException("connection reset"));
+
+        Map<BridgeEndpoint, CircuitBreaker> circuitBreakerMap = new EnumMap<>(BridgeEndpoint.class);
+        circuitBreakerMap.put(BridgeEndpoint.GET_STUDIES, new CircuitBreaker(2, 60000L));
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockStudiesClientManager(mockCall));
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_STUDIES, mock(AdaptiveRateLimiter.class)));
+        bridgeHelper.setCircuitBreakerMap(circuitBreakerMap);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                bridgeHelper.getAllStudiesSummary();
+                fail("expected exception");
+            } catch (IOException ex) {
+                // expected exception
+            }
+        }
+
+        // The third call never went to Bridge.
+        verify(mockCall, times(2)).execute();
+        assertEquals(circuitBreakerMap.get(BridgeEndpoint.GET_STUDIES).getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void forEachUploadPageAsync() throws Exception {
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        uploadList.setNextPageOffsetKey("offsetKey");
+        UploadList secondUploadList = new UploadList().addItemsItem(testUpload).addItemsItem(testUpload);
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        Call<UploadList> mockCall = makeAsyncCall(uploadList);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+        Call<UploadList> secondMockCall = makeAsyncCall(secondUploadList);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey")).thenReturn(secondMockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
+        ExecutorService pageHandlerExecutorService = newPageHandlerExecutorService();
+        try {
+            BridgeHelper bridgeHelper = new BridgeHelper();
+            bridgeHelper.setBridgeClientManager(mockClientManager);
+            bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_UPLOADS,
+                    new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+            bridgeHelper.setAsyncExecutorService(executorService);
+
+            // Pages are handled in order, on the page handler executor, and no call is executed synchronously.
+            List<Integer> pageSizeList = new ArrayList<>();
+            List<String> handlerThreadNameList = new ArrayList<>();
+            bridgeHelper.forEachUploadPageAsync(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, page -> {
+                pageSizeList.add(page.size());
+                handlerThreadNameList.add(Thread.currentThread().getName());
+            }, pageHandlerExecutorService).get(10, TimeUnit.SECONDS);
+            assertEquals(pageSizeList, ImmutableList.of(1, 2));
+            for (String handlerThreadName : handlerThreadNameList) {
+                assertTrue(handlerThreadName.startsWith("page-handler-"), handlerThreadName);
+            }
+            verify(mockCall, never()).execute();
+            verify(secondMockCall, never()).execute();
+        } finally {
+            executorService.shutdown();
+            pageHandlerExecutorService.shutdown();
+        }
+    }
+
+    @Test
+    public void forEachUploadPageAsyncHandlerError() throws Exception {
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        Call<UploadList> mockCall = makeAsyncCall(uploadList);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(mockCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setAsyncEnabled(true);
+
+        // The sync method fetches pages on the async path, handles them on the calling thread, and still throws the
+        // handler's IOException.
+        Thread callingThread = Thread.currentThread();
+        try {
+            bridgeHelper.forEachUploadPage(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, page -> {
+                assertSame(Thread.currentThread(), callingThread);
+                throw new IOException("test exception");
+            });
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertEquals(ex.getMessage(), "test exception");
+        }
+        verify(mockCall, never()).execute();
+    }
+
+    @Test
+    public void getParticipantDetailsAsync() throws Exception {
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        List<StudyParticipant> stubParticipants = newArrayList();
+        for (String userId : ImmutableList.of(USER_ID_1, USER_ID_2, USER_ID_3)) {
+            StudyParticipant participant = new StudyParticipant();
+            Call<StudyParticipant> call = makeAsyncCall(participant);
+            when(mockWorkerClient.getParticipantById(TEST_STUDY_ID, userId, false)).thenReturn(call);
+            stubParticipants.add(participant);
+        }
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_PARTICIPANT_BY_ID,
+                new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+
+        // Participants come back in the same order as the user IDs.
+        List<StudyParticipant> participants = bridgeHelper.getParticipantDetailsAsync(TEST_STUDY_ID,
+                ImmutableList.of(USER_ID_1, USER_ID_2, USER_ID_3)).get(10, TimeUnit.SECONDS);
+        assertEquals(participants.size(), 3);
+        assertSame(participants.get(0), stubParticipants.get(0));
+        assertSame(participants.get(1), stubParticipants.get(1));
+        assertSame(participants.get(2), stubParticipants.get(2));
+    }
+
+    @Test
+    public void saveReportForStudyAsyncRetriesTransientFailures() throws Exception {
+        // Network error, then success. The retry uses a clone, like the blocking path.
+        Call<Message> firstCall = mock(Call.class);
+        doAnswer(invocation -> {
+            invocation.getArgumentAt(0, Callback.class).onFailure(firstCall, new IOException("connection reset"));
+            return null;
+        }).when(firstCall).enqueue(any());
+        Call<Message> secondCall = makeAsyncCall(new Message());
+        when(firstCall.clone()).thenReturn(secondCall);
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.saveReport(TEST_STUDY_ID, TEST_REPORT_ID, TEST_REPORT)).thenReturn(firstCall);
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.SAVE_REPORT,
+                new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+        bridgeHelper.setMetricRegistry(metricRegistry);
+        bridgeHelper.setRetryPolicy(3, 1L, 2L, 0L);
+
+        Report report = new Report.Builder().withStudyId(TEST_STUDY_ID)
+                .withReportId(TEST_REPORT_ID).withDate(LocalDate.parse(TEST_REPORT.getDate()))
+                .withReportData(TEST_REPORT.getData()).build();
+        bridgeHelper.saveReportForStudyAsync(report).get(10, TimeUnit.SECONDS);
+
+        verify(secondCall).enqueue(any());
+        assertEquals(metricRegistry.meter(BridgeHelper.class.getName() + ".saveReport.retries").getCount(), 1);
+    }
+
+    @Test
+    public void getParticipantDetailsAsyncBoundsCallsInFlight() throws Exception {
+        // Calls respond only when the test runs their responder.
+        BlockingQueue<Runnable> responderQueue = new LinkedBlockingQueue<>();
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        List<String> userIdList = ImmutableList.of(USER_ID_1, USER_ID_2, USER_ID_3, "user-4");
+        List<StudyParticipant> stubParticipants = newArrayList();
+        for (String userId : userIdList) {
+            StudyParticipant participant = new StudyParticipant();
+            Call<StudyParticipant> call = mock(Call.class);
+            doAnswer(invocation -> {
+                Callback<StudyParticipant> callback = invocation.getArgumentAt(0, Callback.class);
+                responderQueue.add(() -> callback.onResponse(call, Response.success(participant)));
+                return null;
+            }).when(call).enqueue(any());
+            when(mockWorkerClient.getParticipantById(TEST_STUDY_ID, userId, false)).thenReturn(call);
+            stubParticipants.add(participant);
+        }
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_PARTICIPANT_BY_ID,
+                new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+        bridgeHelper.setParticipantFetchParallelism(2);
+
+        // Only 2 calls are sent until one of them responds.
+        CompletableFuture<List<StudyParticipant>> future = bridgeHelper.getParticipantDetailsAsync(TEST_STUDY_ID,
+                userIdList);
+        Runnable firstResponder = responderQueue.poll(10, TimeUnit.SECONDS);
+        Runnable secondResponder = responderQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(firstResponder);
+        assertNotNull(secondResponder);
+        assertNull(responderQueue.poll(200, TimeUnit.MILLISECONDS));
+
+        firstResponder.run();
+        Runnable thirdResponder = responderQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(thirdResponder);
+        assertNull(responderQueue.poll(200, TimeUnit.MILLISECONDS));
+
+        secondResponder.run();
+        thirdResponder.run();
+        Runnable fourthResponder = responderQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(fourthResponder);
+        fourthResponder.run();
+
+        List<StudyParticipant> participants = future.get(10, TimeUnit.SECONDS);
+        assertEquals(participants.size(), 4);
+        for (int i = 0; i < 4; i++) {
+            assertSame(participants.get(i), stubParticipants.get(i));
+        }
+    }
+
+    @Test
+    public void rateLimitedAsyncCallsSentInOrder() throws Exception {
+        // Calls record the order they're sent in.
+        List<String> sentUserIdList = Collections.synchronizedList(new ArrayList<>());
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        List<String> userIdList = newArrayList();
+        for (int i = 0; i < 5; i++) {
+            String userId = "user-" + i;
+            userIdList.add(userId);
+            Call<StudyParticipant> call = mock(Call.class);
+            doAnswer(invocation -> {
+                sentUserIdList.add(userId);
+                invocation.getArgumentAt(0, Callback.class).onResponse(call, Response.success(
+                        new StudyParticipant()));
+                return null;
+            }).when(call).enqueue(any());
+            when(mockWorkerClient.getParticipantById(TEST_STUDY_ID, userId, false)).thenReturn(call);
+        }
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_PARTICIPANT_BY_ID,
+                new AdaptiveRateLimiter(20.0, 20.0, 20.0, 1000L)));
+        bridgeHelper.setParticipantFetchParallelism(5);
+
+        // All calls wait on the rate limiter at once, and are sent in the order they started waiting.
+        bridgeHelper.getParticipantDetailsAsync(TEST_STUDY_ID, userIdList).get(10, TimeUnit.SECONDS);
+        assertEquals(sentUserIdList, userIdList);
+    }
+
+    @Test
+    public void forEachParticipantSummaryPageAsync() throws Exception {
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        Call<AccountSummaryList> firstCall = makeAsyncCall(createSummaryListForOffset(0,
+                new AccountSummary().id(USER_ID_1)));
+        when(mockWorkerClient.getParticipants(TEST_STUDY_ID, 0, 100, null, null, TEST_START_DATETIME,
+                TEST_END_DATETIME)).thenReturn(firstCall);
+        Call<AccountSummaryList> secondCall = makeAsyncCall(createSummaryListForOffset(100,
+                new AccountSummary().id(USER_ID_2)));
+        when(mockWorkerClient.getParticipants(TEST_STUDY_ID, 100, 100, null, null, TEST_START_DATETIME,
+                TEST_END_DATETIME)).thenReturn(secondCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        BridgeHelper bridgeHelper = new BridgeHelper();
+        bridgeHelper.setBridgeClientManager(mockClientManager);
+        bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_PARTICIPANTS,
+                new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+
+        // Pages are handled in order, on the page handler executor, and no call is executed synchronously.
+        List<String> userIdList = new ArrayList<>();
+        List<String> handlerThreadNameList = new ArrayList<>();
+        ExecutorService pageHandlerExecutorService = newPageHandlerExecutorService();
+        try {
+            bridgeHelper.forEachParticipantSummaryPageAsync(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME,
+                    page -> {
+                        page.forEach(summary -> userIdList.add(summary.getId()));
+                        handlerThreadNameList.add(Thread.currentThread().getName());
+                    }, pageHandlerExecutorService).get(10, TimeUnit.SECONDS);
+        } finally {
+            pageHandlerExecutorService.shutdown();
+        }
+        assertEquals(userIdList, ImmutableList.of(USER_ID_1, USER_ID_2));
+        for (String handlerThreadName : handlerThreadNameList) {
+            assertTrue(handlerThreadName.startsWith("page-handler-"), handlerThreadName);
+        }
+        verify(firstCall, never()).execute();
+        verify(secondCall, never()).execute();
+
+        // With async calls enabled, the blocking method fetches pages on the async path, and handles them on the
+        // calling thread.
+        bridgeHelper.setAsyncEnabled(true);
+        Thread callingThread = Thread.currentThread();
+        List<Thread> handlerThreadList = new ArrayList<>();
+        bridgeHelper.forEachParticipantSummaryPage(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME,
+                page -> handlerThreadList.add(Thread.currentThread()));
+        assertEquals(handlerThreadList, ImmutableList.of(callingThread, callingThread));
+        verify(firstCall, never()).execute();
+        verify(secondCall, never()).execute();
+    }
+
+    @Test
+    public void forEachUploadPageAsyncCancelsNextPageOnHandlerError() throws Exception {
+        UploadList uploadList = new UploadList().addItemsItem(testUpload);
+        uploadList.setNextPageOffsetKey("offsetKey");
+        Call<UploadList> firstCall = makeAsyncCall(uploadList);
+
+        // The next page is sent, but never responds.
+        CountDownLatch secondCallSentLatch = new CountDownLatch(1);
+        CountDownLatch secondCallCancelledLatch = new CountDownLatch(1);
+        Call<UploadList> secondCall = mock(Call.class);
+        doAnswer(invocation -> {
+            secondCallSentLatch.countDown();
+            return null;
+        }).when(secondCall).enqueue(any());
+        doAnswer(invocation -> {
+            secondCallCancelledLatch.countDown();
+            return null;
+        }).when(secondCall).cancel();
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(firstCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey")).thenReturn(secondCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        ExecutorService pageHandlerExecutorService = newPageHandlerExecutorService();
+        try {
+            BridgeHelper bridgeHelper = new BridgeHelper();
+            bridgeHelper.setBridgeClientManager(mockClientManager);
+            bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_UPLOADS,
+                    new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+
+            // The handler fails once the next page has been sent.
+            CompletableFuture<Void> future = bridgeHelper.forEachUploadPageAsync(TEST_STUDY_ID,
+                    TEST_START_DATETIME, TEST_END_DATETIME, page -> {
+                        try {
+                            secondCallSentLatch.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                        throw new IOException("test exception");
+                    }, pageHandlerExecutorService);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("expected exception");
+            } catch (ExecutionException ex) {
+                assertEquals(ex.getCause().getMessage(), "test exception");
+            }
+
+            // The next page's call was cancelled.
+            assertTrue(secondCallCancelledLatch.await(10, TimeUnit.SECONDS));
+        } finally {
+            pageHandlerExecutorService.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelledPageStillSharedWithOtherScans() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        Meter coalescedMeter = metricRegistry.meter(MetricRegistry.name(BridgeHelper.class, "getUploads",
+                "coalesced"));
+
+        // Both pages respond when the test responds to them.
+        CompletableFuture<Callback<UploadList>> firstCallbackFuture = new CompletableFuture<>();
+        Call<UploadList> firstCall = mock(Call.class);
+        doAnswer(invocation -> firstCallbackFuture.complete(invocation.getArgumentAt(0, Callback.class)))
+                .when(firstCall).enqueue(any());
+        CompletableFuture<Callback<UploadList>> secondCallbackFuture = new CompletableFuture<>();
+        Call<UploadList> secondCall = mock(Call.class);
+        doAnswer(invocation -> secondCallbackFuture.complete(invocation.getArgumentAt(0, Callback.class)))
+                .when(secondCall).enqueue(any());
+
+        ForWorkersApi mockWorkerClient = mock(ForWorkersApi.class);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE, null))
+                .thenReturn(firstCall);
+        when(mockWorkerClient.getUploads(TEST_STUDY_ID, TEST_START_DATETIME, TEST_END_DATETIME, MAX_PAGE_SIZE,
+                "offsetKey")).thenReturn(secondCall);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(ForWorkersApi.class)).thenReturn(mockWorkerClient);
+
+        ExecutorService pageHandlerExecutorService = newPageHandlerExecutorService();
+        try {
+            BridgeHelper bridgeHelper = new BridgeHelper();
+            bridgeHelper.setBridgeClientManager(mockClientManager);
+            bridgeHelper.setRateLimiterMap(rateLimiterMapOf(BridgeEndpoint.GET_UPLOADS,
+                    new AdaptiveRateLimiter(1000.0, 1000.0, 1000.0, 1000L)));
+            bridgeHelper.setMetricRegistry(metricRegistry);
+            bridgeHelper.setCoalescingEnabled(true);
+
+            // The first scan fails once the second scan has joined the next page, which cancels its next page.
+            CompletableFuture<Void> failedFuture = bridgeHelper.forEachUploadPageAsync(TEST_STUDY_ID,
+                    TEST_START_DATETIME, TEST_END_DATETIME, page -> {
+                        try {
+                            awaitCount(coalescedMeter, 2);
+                        } catch (InterruptedException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                        throw new IOException("test exception");
+                    }, pageHandlerExecutorService);
+            List<Integer> pageSizeList = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture<Void> future = bridgeHelper.forEachUploadPageAsync(TEST_STUDY_ID, TEST_START_DATETIME,
+                    TEST_END_DATETIME, page -> pageSizeList.add(page.size()), pageHandlerExecutorService);
+            assertEquals(coalescedMeter.getCount(), 1);
+
+            UploadList uploadList = new UploadList().addItemsItem(testUpload);
+            uploadList.setNextPageOffsetKey("offsetKey");
+            firstCallbackFuture.get(10, TimeUnit.SECONDS).onResponse(firstCall, Response.success(uploadList));
+            try {
+                failedFuture.get(10, TimeUnit.SECONDS);
+                fail("expected exception");
+            } catch (ExecutionException ex) {
+                assertEquals(ex.getCause().getMessage(), "test exception");
+            }
+
+            // The other scan still gets the next page.
+            secondCallbackFuture.get(10, TimeUnit.SECONDS).onResponse(secondCall, Response.success(
+                    new UploadList().addItemsItem(testUpload).addItemsItem(testUpload)));
+            future.get(10, TimeUnit.SECONDS);
+            assertEquals(pageSizeList, ImmutableList.of(1, 2));
+            verify(secondCall, times(1)).enqueue(any());
+            verify(secondCall, never()).cancel();
+        } finally {
+            pageHandlerExecutorService.shutdown();
+        }
+    }
+
+    private static ClientManager mockStudiesClientManager(Call<StudyList> call) {
+        StudiesApi mockStudyClient = mock(StudiesApi.class);
+        when(mockStudyClient.getStudies(true)).thenReturn(call);
+
+        ClientManager mockClientManager = mock(ClientManager.class);
+        when(mockClientManager.getClient(StudiesApi.class)).thenReturn(mockStudyClient);
+        return mockClientManager;
+    }
+
     private <T> Call<T> makeCall(T object) throws IOException {
         Response<T> response = Response.success(object);
         Call<T> mockCall = mock(Call.class);
@@ -247,7 +1370,35 @@ public class BridgeHelperTest {
         return mockCall;
     }
     
-    private Call<AccountSummaryList> createResponseForOffset(int offsetBy, AccountSummary... summaries) throws IOException {
+    // Mock call that only supports enqueue, and responds on the calling thread.
+    private <T> Call<T> makeAsyncCall(T object) {
+        Call<T> mockCall = mock(Call.class);
+        doAnswer(invocation -> {
+            invocation.getArgumentAt(0, Callback.class).onResponse(mockCall, Response.success(object));
+            return null;
+        }).when(mockCall).enqueue(any());
+        return mockCall;
+    }
+
+    // Stands in for a study executor. Its threads are named, so tests can tell them apart from async executor threads.
+    private static ExecutorService newPageHandlerExecutorService() {
+        return Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setNameFormat("page-handler-%d").build());
+    }
+
+    // Waits up to 10 seconds for the meter to reach the count.
+    private static void awaitCount(Meter meter, long count) throws InterruptedException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        while (meter.getCount() < count && stopwatch.elapsed(TimeUnit.SECONDS) < 10) {
+            Thread.sleep(10);
+        }
+    }
+
+    private Call<AccountSummaryList> createResponseForOffset(int offsetBy, AccountSummary... summaries)
+            throws IOException {
+        return makeCall(createSummaryListForOffset(offsetBy, summaries));
+    }
+
+    private static AccountSummaryList createSummaryListForOffset(int offsetBy, AccountSummary... summaries) {
         List<AccountSummary> page = new ArrayList<>();
         RequestParams requestParams = new RequestParams().offsetBy(offsetBy).pageSize(100)
                 .startTime(TEST_START_DATETIME).endTime(TEST_END_DATETIME);
@@ -259,10 +1410,6 @@ public class BridgeHelperTest {
         for (AccountSummary summary : summaries) {
             list.addItemsItem(summary);
         }
-        Response<AccountSummaryList> response = Response.success(list);
-        
-        Call<AccountSummaryList> mockCall = mock(Call.class);
-        when(mockCall.execute()).thenReturn(response);
-        return mockCall;
+        return list;
     }
 }
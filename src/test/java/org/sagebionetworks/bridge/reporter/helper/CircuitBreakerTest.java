@@ -0,0 +1,79 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.joda.time.DateTimeUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CircuitBreakerTest {
+    private static final long MOCK_NOW_MILLIS = 1516752000000L;
+    private static final long OPEN_MILLIS = 30000L;
+
+    @BeforeMethod
+    public void before() {
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS);
+    }
+
+    @AfterMethod
+    public void after() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, OPEN_MILLIS);
+        assertFalse(circuitBreaker.onFailure());
+        assertFalse(circuitBreaker.onFailure());
+        assertTrue(circuitBreaker.allowRequest());
+
+        assertTrue(circuitBreaker.onFailure());
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.OPEN);
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, OPEN_MILLIS);
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        assertFalse(circuitBreaker.onFailure());
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void trialCallClosesCircuit() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, OPEN_MILLIS);
+        circuitBreaker.onFailure();
+
+        // Once the open period is over, only one trial call is let through.
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS + OPEN_MILLIS);
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        assertFalse(circuitBreaker.allowRequest());
+
+        circuitBreaker.onSuccess();
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.CLOSED);
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void failedTrialCallReopensCircuit() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(5, OPEN_MILLIS);
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.onFailure();
+        }
+
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS + OPEN_MILLIS);
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.onFailure());
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.OPEN);
+
+        // The open period starts over.
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS + 2 * OPEN_MILLIS - 1);
+        assertFalse(circuitBreaker.allowRequest());
+    }
+}
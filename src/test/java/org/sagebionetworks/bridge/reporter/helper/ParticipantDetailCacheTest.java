@@ -0,0 +1,160 @@
+package org.sagebionetworks.bridge.reporter.helper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.rest.model.AccountStatus;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+
+public class ParticipantDetailCacheTest {
+    private static final String STUDY_ID = "test-study";
+    private static final DateTime CREATED_ON = DateTime.parse("2018-01-11T12:00:00.000Z");
+    private static final long MOCK_NOW_MILLIS = DateTime.parse("2018-01-12T00:00:00.000Z").getMillis();
+    private static final long TTL_MILLIS = 60000L;
+
+    private static final AccountSummary SUMMARY_1 = new AccountSummary().id("user1").status(AccountStatus.ENABLED)
+            .createdOn(CREATED_ON);
+    private static final AccountSummary SUMMARY_2 = new AccountSummary().id("user2").status(AccountStatus.ENABLED)
+            .createdOn(CREATED_ON);
+    private static final AccountSummary SUMMARY_3 = new AccountSummary().id("user3").status(AccountStatus.ENABLED)
+            .createdOn(CREATED_ON);
+    private static final StudyParticipant PARTICIPANT = new StudyParticipant().status(AccountStatus.ENABLED)
+            .sharingScope(SharingScope.SPONSORS_AND_PARTNERS);
+
+    @BeforeMethod
+    public void before() {
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS);
+    }
+
+    @AfterMethod
+    public void after() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void cachedParticipant() {
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 10, TTL_MILLIS);
+        assertNull(cache.getSharingScope(STUDY_ID, SUMMARY_1));
+
+        cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+        assertEquals(cache.getSharingScope(STUDY_ID, SUMMARY_1), SharingScope.SPONSORS_AND_PARTNERS);
+
+        // Same user in another study isn't cached.
+        assertNull(cache.getSharingScope("other-study", SUMMARY_1));
+    }
+
+    @Test
+    public void staleWhenSummaryChanges() {
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 10, TTL_MILLIS);
+        cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+
+        assertNull(cache.getSharingScope(STUDY_ID, new AccountSummary().id("user1").status(AccountStatus.DISABLED)
+                .createdOn(CREATED_ON)));
+        assertNull(cache.getSharingScope(STUDY_ID, new AccountSummary().id("user1").status(AccountStatus.ENABLED)
+                .createdOn(CREATED_ON.plusDays(1))));
+    }
+
+    @Test
+    public void staleAfterTtl() {
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 10, TTL_MILLIS);
+        cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS + TTL_MILLIS + 1);
+        assertNull(cache.getSharingScope(STUDY_ID, SUMMARY_1));
+    }
+
+    @Test
+    public void zeroTtlCachesNothing() {
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 10, 0L);
+        cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+
+        assertEquals(cache.size(), 0);
+        assertNull(cache.getSharingScope(STUDY_ID, SUMMARY_1));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 2, TTL_MILLIS);
+        cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+        cache.put(STUDY_ID, SUMMARY_2, PARTICIPANT);
+
+        // Using user1 makes user2 the least recently used.
+        cache.getSharingScope(STUDY_ID, SUMMARY_1);
+        cache.put(STUDY_ID, SUMMARY_3, PARTICIPANT);
+
+        assertEquals(cache.size(), 2);
+        assertNull(cache.getSharingScope(STUDY_ID, SUMMARY_2));
+        assertEquals(cache.getSharingScope(STUDY_ID, SUMMARY_1), SharingScope.SPONSORS_AND_PARTNERS);
+        assertEquals(cache.getSharingScope(STUDY_ID, SUMMARY_3), SharingScope.SPONSORS_AND_PARTNERS);
+    }
+
+    @Test
+    public void summaryWithoutCreatedOnNotCached() {
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 10, TTL_MILLIS);
+        AccountSummary summary = new AccountSummary().id("user1").status(AccountStatus.ENABLED);
+        cache.put(STUDY_ID, summary, PARTICIPANT);
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void participantWithoutSharingScopeNotCached() {
+        // A null sharing scope would look like a miss, so it's fetched again instead.
+        ParticipantDetailCache cache = new ParticipantDetailCache(null, 10, TTL_MILLIS);
+        cache.put(STUDY_ID, SUMMARY_1, new StudyParticipant().status(AccountStatus.ENABLED));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void persistsToFile() throws Exception {
+        Path cacheFile = Files.createTempFile("participant-cache", ".tsv");
+        try {
+            ParticipantDetailCache cache = new ParticipantDetailCache(cacheFile, 10, TTL_MILLIS);
+            cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+            cache.put(STUDY_ID, SUMMARY_2, new StudyParticipant().status(AccountStatus.ENABLED)
+                    .sharingScope(SharingScope.NO_SHARING));
+            cache.flush();
+
+            ParticipantDetailCache reloadedCache = new ParticipantDetailCache(cacheFile, 10, TTL_MILLIS);
+            reloadedCache.load();
+            assertEquals(reloadedCache.size(), 2);
+            assertEquals(reloadedCache.getSharingScope(STUDY_ID, SUMMARY_1), SharingScope.SPONSORS_AND_PARTNERS);
+            assertEquals(reloadedCache.getSharingScope(STUDY_ID, SUMMARY_2), SharingScope.NO_SHARING);
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    @Test
+    public void usableWhileFlushing() throws Exception {
+        Path cacheFile = Files.createTempFile("participant-cache", ".tsv");
+        try {
+            ParticipantDetailCache cache = new ParticipantDetailCache(cacheFile, 10, TTL_MILLIS);
+            cache.put(STUDY_ID, SUMMARY_1, PARTICIPANT);
+
+            // Hold the flush lock, like a flush writing the file. Gets and puts still go through.
+            synchronized (cache.flushLock) {
+                cache.put(STUDY_ID, SUMMARY_2, PARTICIPANT);
+                assertEquals(cache.getSharingScope(STUDY_ID, SUMMARY_2), SharingScope.SPONSORS_AND_PARTNERS);
+            }
+
+            // Entries put while a flush is in progress are written by the next flush.
+            cache.flush();
+            ParticipantDetailCache reloadedCache = new ParticipantDetailCache(cacheFile, 10, TTL_MILLIS);
+            reloadedCache.load();
+            assertEquals(reloadedCache.size(), 2);
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+}
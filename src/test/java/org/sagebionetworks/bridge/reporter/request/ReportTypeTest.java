@@ -1,7 +1,11 @@
 package org.sagebionetworks.bridge.reporter.request;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
+import org.joda.time.Period;
 import org.testng.annotations.Test;
 
 public class ReportTypeTest {
@@ -11,6 +15,11 @@ public class ReportTypeTest {
         assertEquals(ReportType.valueOf("DAILY"), ReportType.DAILY);
         assertEquals(ReportType.valueOf("WEEKLY"), ReportType.WEEKLY);
         assertEquals(ReportType.valueOf("DAILY_SIGNUPS"), ReportType.DAILY_SIGNUPS);
+        assertEquals(ReportType.valueOf("DAILY_UPLOAD_LATENCY"), ReportType.DAILY_UPLOAD_LATENCY);
+        assertEquals(ReportType.valueOf("WEEKLY_UPLOAD_LATENCY"), ReportType.WEEKLY_UPLOAD_LATENCY);
+        assertEquals(ReportType.valueOf("DAILY_UNIQUE_UPLOADERS"), ReportType.DAILY_UNIQUE_UPLOADERS);
+        assertEquals(ReportType.valueOf("WEEKLY_UNIQUE_UPLOADERS"), ReportType.WEEKLY_UNIQUE_UPLOADERS);
+        assertEquals(ReportType.valueOf("MONTHLY_UNIQUE_UPLOADERS"), ReportType.MONTHLY_UNIQUE_UPLOADERS);
     }
     
     @Test
@@ -18,5 +27,40 @@ public class ReportTypeTest {
         assertEquals(ReportType.DAILY.getSuffix(), "-daily-upload-report");
         assertEquals(ReportType.WEEKLY.getSuffix(), "-weekly-upload-report");
         assertEquals(ReportType.DAILY_SIGNUPS.getSuffix(), "-daily-signups-report");
+        assertEquals(ReportType.DAILY_UPLOAD_LATENCY.getSuffix(), "-daily-upload-latency-report");
+        assertEquals(ReportType.WEEKLY_UPLOAD_LATENCY.getSuffix(), "-weekly-upload-latency-report");
+        assertEquals(ReportType.DAILY_UNIQUE_UPLOADERS.getSuffix(), "-daily-unique-uploaders-report");
+        assertEquals(ReportType.WEEKLY_UNIQUE_UPLOADERS.getSuffix(), "-weekly-unique-uploaders-report");
+        assertEquals(ReportType.MONTHLY_UNIQUE_UPLOADERS.getSuffix(), "-monthly-unique-uploaders-report");
+    }
+
+    @Test
+    public void isRollup() {
+        assertFalse(ReportType.DAILY.isRollup());
+        assertTrue(ReportType.WEEKLY.isRollup());
+        assertFalse(ReportType.DAILY_SIGNUPS.isRollup());
+        assertFalse(ReportType.DAILY_UPLOAD_LATENCY.isRollup());
+        assertTrue(ReportType.WEEKLY_UPLOAD_LATENCY.isRollup());
+        assertFalse(ReportType.DAILY_UNIQUE_UPLOADERS.isRollup());
+        assertTrue(ReportType.WEEKLY_UNIQUE_UPLOADERS.isRollup());
+        assertTrue(ReportType.MONTHLY_UNIQUE_UPLOADERS.isRollup());
+    }
+
+    @Test
+    public void getReportPeriod() {
+        assertEquals(ReportType.DAILY.getReportPeriod(), Period.days(1));
+        assertEquals(ReportType.DAILY_SIGNUPS.getReportPeriod(), Period.days(1));
+        assertEquals(ReportType.WEEKLY.getReportPeriod(), Period.weeks(1));
+        assertEquals(ReportType.WEEKLY_UPLOAD_LATENCY.getReportPeriod(), Period.weeks(1));
+        assertEquals(ReportType.MONTHLY_UNIQUE_UPLOADERS.getReportPeriod(), Period.months(1));
+    }
+
+    @Test
+    public void getRollupDailyType() {
+        assertEquals(ReportType.WEEKLY.getRollupDailyType(), ReportType.DAILY);
+        assertEquals(ReportType.WEEKLY_UPLOAD_LATENCY.getRollupDailyType(), ReportType.DAILY_UPLOAD_LATENCY);
+        assertEquals(ReportType.WEEKLY_UNIQUE_UPLOADERS.getRollupDailyType(), ReportType.DAILY_UNIQUE_UPLOADERS);
+        assertEquals(ReportType.MONTHLY_UNIQUE_UPLOADERS.getRollupDailyType(), ReportType.DAILY_UNIQUE_UPLOADERS);
+        assertNull(ReportType.DAILY.getRollupDailyType());
     }
 }
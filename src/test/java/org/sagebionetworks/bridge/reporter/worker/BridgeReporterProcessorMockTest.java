@@ -2,16 +2,31 @@ package org.sagebionetworks.bridge.reporter.worker;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -61,6 +76,9 @@ public class BridgeReporterProcessorMockTest {
         // Set up reporter processor.
         processor = new BridgeReporterProcessor();
         processor.setBridgeHelper(mockBridgeHelper);
+        WriteBehindReportSaver reportSaver = new WriteBehindReportSaver();
+        reportSaver.setBridgeHelper(mockBridgeHelper);
+        processor.setReportSaver(reportSaver);
         processor.setGeneratorMap(generatorMap);
     }
 
@@ -112,6 +130,252 @@ public class BridgeReporterProcessorMockTest {
         verifyNoMoreInteractions(mockGenerator, mockBridgeHelper);
     }
 
+    @Test
+    public void parallelStudies() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            processor.setStudyExecutorService(executorService);
+
+            // Make request.
+            BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                    .withEndDateTime(END_DATE_TIME).withScheduler(REPORT_ID).withScheduleType(ReportType.DAILY)
+                    .build();
+            JsonNode requestNode = DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+
+            // Execute.
+            processor.process(requestNode);
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Verify reports. Studies may complete in any order, so sort by study ID.
+        ArgumentCaptor<Report> reportCaptor = ArgumentCaptor.forClass(Report.class);
+        verify(mockBridgeHelper, times(3)).saveReportForStudy(reportCaptor.capture());
+
+        List<Report> reportList = reportCaptor.getAllValues();
+        reportList.sort(Comparator.comparing(Report::getStudyId));
+        validateSavedReport(reportList.get(0), STUDY_ID_1);
+        validateSavedReport(reportList.get(1), STUDY_ID_2);
+        validateSavedReport(reportList.get(2), STUDY_ID_3);
+    }
+
+    @Test
+    public void maxQueuedStudiesPerRequest() throws Exception {
+        // Track how many studies are generating at once.
+        AtomicInteger numInFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(numInFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            numInFlight.decrementAndGet();
+            String studyId = invocation.getArgumentAt(1, String.class);
+            return new Report.Builder().withDate(REPORT_DATE).withReportData(DUMMY_DATA_PREFIX + studyId)
+                    .withReportId(REPORT_ID).withStudyId(studyId).build();
+        }).when(mockGenerator).generate(any(), any());
+
+        // The executor has room for 3 studies, but the request may only have 1 queued at a time.
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            processor.setStudyExecutorService(executorService);
+            processor.setMaxQueuedStudiesPerRequest(1);
+
+            BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                    .withEndDateTime(END_DATE_TIME).withScheduler(REPORT_ID).withScheduleType(ReportType.DAILY)
+                    .build();
+            processor.process(DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class));
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertEquals(maxInFlight.get(), 1);
+        verify(mockBridgeHelper, times(3)).saveReportForStudy(any());
+    }
+
+    @Test
+    public void errorInOneStudyDoesNotStopOthers() throws Exception {
+        IOException studyException = new IOException("test exception");
+        doThrow(studyException).when(mockGenerator).generate(any(), eq(STUDY_ID_2));
+
+        // Make request.
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                .withEndDateTime(END_DATE_TIME).withScheduler(REPORT_ID).withScheduleType(ReportType.DAILY).build();
+        JsonNode requestNode = DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+
+        // Execute.
+        try {
+            processor.process(requestNode);
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains(STUDY_ID_2));
+            assertEquals(ex.getCause(), studyException);
+        }
+
+        // Studies 1 and 3 were still saved.
+        ArgumentCaptor<Report> reportCaptor = ArgumentCaptor.forClass(Report.class);
+        verify(mockBridgeHelper, times(2)).saveReportForStudy(reportCaptor.capture());
+
+        List<Report> reportList = reportCaptor.getAllValues();
+        validateSavedReport(reportList.get(0), STUDY_ID_1);
+        validateSavedReport(reportList.get(1), STUDY_ID_3);
+    }
+
+    @Test
+    public void redeliveredRequestSkipsCompletedStudies() throws Exception {
+        doThrow(new IOException("test exception")).when(mockGenerator).generate(any(), eq(STUDY_ID_2));
+
+        // Make request.
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                .withEndDateTime(END_DATE_TIME).withScheduler(REPORT_ID).withScheduleType(ReportType.DAILY).build();
+        JsonNode requestNode = DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+
+        // First delivery fails on study 2.
+        try {
+            processor.process(requestNode);
+            fail("expected exception");
+        } catch (IOException ex) {
+            // expected exception
+        }
+        verify(mockBridgeHelper, times(2)).saveReportForStudy(any());
+
+        // Redelivery only regenerates study 2.
+        reset(mockGenerator);
+        when(mockGenerator.generate(any(), any())).thenAnswer(invocation -> {
+            String studyId = invocation.getArgumentAt(1, String.class);
+            return new Report.Builder().withDate(REPORT_DATE).withReportData(DUMMY_DATA_PREFIX + studyId)
+                    .withReportId(REPORT_ID).withStudyId(studyId).build();
+        });
+        processor.process(requestNode);
+        verify(mockGenerator).generate(any(), eq(STUDY_ID_2));
+        verifyNoMoreInteractions(mockGenerator);
+        verify(mockBridgeHelper, times(3)).saveReportForStudy(any());
+
+        // The checkpoint is cleared once every study completes, so sending the request again regenerates every study.
+        processor.process(requestNode);
+        verify(mockGenerator).generate(any(), eq(STUDY_ID_1));
+        verify(mockGenerator, times(2)).generate(any(), eq(STUDY_ID_2));
+        verify(mockGenerator).generate(any(), eq(STUDY_ID_3));
+    }
+
+    @Test
+    public void recordsMetrics() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        processor.setMetricRegistry(metricRegistry);
+        doThrow(new IOException("test exception")).when(mockGenerator).generate(any(), eq(STUDY_ID_2));
+
+        // Make request.
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                .withEndDateTime(END_DATE_TIME).withScheduler(REPORT_ID).withScheduleType(ReportType.DAILY).build();
+        JsonNode requestNode = DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+
+        // Execute.
+        try {
+            processor.process(requestNode);
+            fail("expected exception");
+        } catch (IOException ex) {
+            // expected exception
+        }
+
+        // Validate metrics.
+        String prefix = BridgeReporterProcessor.class.getName();
+        assertEquals(metricRegistry.timer(prefix + ".request.DAILY").getCount(), 1);
+        assertEquals(metricRegistry.timer(prefix + ".study.generate").getCount(), 3);
+        assertEquals(metricRegistry.timer(prefix + ".study.save").getCount(), 2);
+        assertEquals(metricRegistry.counter(prefix + ".study.errors").getCount(), 1);
+
+        // Study timers are aggregated, so metrics don't grow with the number of studies.
+        assertTrue(metricRegistry.getNames().stream().noneMatch(name -> name.contains(STUDY_ID_1)));
+    }
+
+    @Test
+    public void slowestStudies() {
+        Map<String, BridgeReporterProcessor.StudyTimings> timingsByStudy = new LinkedHashMap<>();
+        for (int i = 1; i <= 7; i++) {
+            BridgeReporterProcessor.StudyTimings timings = new BridgeReporterProcessor.StudyTimings();
+            timings.generateNanos.set(TimeUnit.MILLISECONDS.toNanos(i * 10));
+            timings.saveNanos.set(TimeUnit.MILLISECONDS.toNanos(i));
+            timingsByStudy.put("study" + i, timings);
+        }
+
+        // Only the 5 slowest are logged, slowest first.
+        assertEquals(BridgeReporterProcessor.slowestStudies(timingsByStudy), "[study7 generate=70ms save=7ms, "
+                + "study6 generate=60ms save=6ms, study5 generate=50ms save=5ms, study4 generate=40ms save=4ms, "
+                + "study3 generate=30ms save=3ms]");
+    }
+
+    @Test
+    public void backfill() throws Exception {
+        // Backfill 3 days for study 1. Day 2 fails.
+        DateTime backfillEndDateTime = DateTime.parse("2018-01-13T23:59:59.999-0800");
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                .withEndDateTime(backfillEndDateTime).withScheduler(REPORT_ID).withScheduleType(ReportType.DAILY)
+                .withStudyWhitelist(ImmutableList.of(STUDY_ID_1)).withBackfill(true).build();
+        JsonNode requestNode = DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+        doAnswer(invocation -> {
+            BridgeReporterRequest periodRequest = invocation.getArgumentAt(0, BridgeReporterRequest.class);
+            LocalDate reportDate = periodRequest.getStartDateTime().toLocalDate();
+            if (reportDate.equals(LocalDate.parse("2018-01-12"))) {
+                throw new IOException("test exception");
+            }
+            return new Report.Builder().withDate(reportDate).withReportData(DUMMY_DATA_PREFIX + STUDY_ID_1)
+                    .withReportId(REPORT_ID).withStudyId(STUDY_ID_1).build();
+        }).when(mockGenerator).generate(any(), any());
+
+        // Execute. The failed day fails the request, but not the other days.
+        try {
+            processor.process(requestNode);
+            fail("expected exception");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains("2018-01-12"));
+        }
+
+        // Each day is generated as its own request.
+        ArgumentCaptor<BridgeReporterRequest> requestCaptor = ArgumentCaptor.forClass(BridgeReporterRequest.class);
+        verify(mockGenerator, times(3)).generate(requestCaptor.capture(), eq(STUDY_ID_1));
+        List<BridgeReporterRequest> periodRequestList = requestCaptor.getAllValues();
+        periodRequestList.sort(Comparator.comparing(BridgeReporterRequest::getStartDateTime));
+        for (int i = 0; i < 3; i++) {
+            BridgeReporterRequest periodRequest = periodRequestList.get(i);
+            assertEquals(periodRequest.getStartDateTime(), START_DATE_TIME.plusDays(i));
+            assertEquals(periodRequest.getEndDateTime(), END_DATE_TIME.plusDays(i));
+            assertEquals(periodRequest.getStudyWhitelist(), ImmutableList.of(STUDY_ID_1));
+            assertFalse(periodRequest.isBackfill());
+        }
+
+        // Each report is saved under its own date.
+        ArgumentCaptor<Report> reportCaptor = ArgumentCaptor.forClass(Report.class);
+        verify(mockBridgeHelper, times(2)).saveReportForStudy(reportCaptor.capture());
+        assertEquals(reportCaptor.getAllValues().stream().map(Report::getDate).sorted().collect(Collectors.toList()),
+                ImmutableList.of(LocalDate.parse("2018-01-11"), LocalDate.parse("2018-01-13")));
+
+        // Redelivery only regenerates the failed day.
+        reset(mockGenerator);
+        when(mockGenerator.generate(any(), any())).thenAnswer(invocation -> new Report.Builder()
+                .withDate(LocalDate.parse("2018-01-12")).withReportData(DUMMY_DATA_PREFIX + STUDY_ID_1)
+                .withReportId(REPORT_ID).withStudyId(STUDY_ID_1).build());
+        processor.process(requestNode);
+        verify(mockGenerator).generate(requestCaptor.capture(), eq(STUDY_ID_1));
+        assertEquals(requestCaptor.getValue().getStartDateTime(), START_DATE_TIME.plusDays(1));
+        verifyNoMoreInteractions(mockGenerator);
+    }
+
+    @Test
+    public void splitBackfillRequestByWeek() {
+        // 2 weeks and 3 days, so the last week is clipped.
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withStartDateTime(START_DATE_TIME)
+                .withEndDateTime(END_DATE_TIME.plusDays(16)).withScheduler(REPORT_ID)
+                .withScheduleType(ReportType.WEEKLY).withBackfill(true).build();
+
+        List<BridgeReporterRequest> periodRequestList = BridgeReporterProcessor.splitBackfillRequest(request);
+        assertEquals(periodRequestList.size(), 3);
+        assertEquals(periodRequestList.get(0).getStartDateTime(), START_DATE_TIME);
+        assertEquals(periodRequestList.get(0).getEndDateTime(), END_DATE_TIME.plusDays(6));
+        assertEquals(periodRequestList.get(1).getStartDateTime(), START_DATE_TIME.plusDays(7));
+        assertEquals(periodRequestList.get(1).getEndDateTime(), END_DATE_TIME.plusDays(13));
+        assertEquals(periodRequestList.get(2).getStartDateTime(), START_DATE_TIME.plusDays(14));
+        assertEquals(periodRequestList.get(2).getEndDateTime(), END_DATE_TIME.plusDays(16));
+        assertEquals(periodRequestList.get(2).getScheduleType(), ReportType.WEEKLY);
+    }
+
     private void validateGeneratorCall(BridgeReporterRequest expectedRequest, String expectedStudyId) throws Exception {
         ArgumentCaptor<BridgeReporterRequest> requestCaptor = ArgumentCaptor.forClass(BridgeReporterRequest.class);
         verify(mockGenerator).generate(requestCaptor.capture(), eq(expectedStudyId));
@@ -48,15 +48,15 @@ public class BridgeReporterProcessorTest {
     
     private static final Map<String, Integer> TEST_REPORT_DATA = ImmutableMap.of("succeeded", 1);
     private static final Map<String, Integer> TEST_REPORT_DATA_WEEKLY = ImmutableMap.of("succeeded", 1);
-    private static final ReportData TEST_REPORT = new ReportData().date(TEST_START_DATETIME.toLocalDate().toString()).data(
-            TEST_REPORT_DATA);
-    private static final ReportData TEST_REPORT_WEEKLY = new ReportData().date(TEST_START_DATETIME.toLocalDate().toString()).data(
-            TEST_REPORT_DATA_WEEKLY);
+    private static final ReportData TEST_REPORT = new ReportData().date(TEST_START_DATETIME.toLocalDate().toString())
+            .data(TEST_REPORT_DATA);
+    private static final ReportData TEST_REPORT_WEEKLY = new ReportData()
+            .date(TEST_START_DATETIME.toLocalDate().toString()).data(TEST_REPORT_DATA_WEEKLY);
 
     private static final Map<String, Integer> TEST_REPORT_DATA_2 = ImmutableMap.<String, Integer>builder()
             .put("succeeded", 2).put("requested", 1).build();
-    private static final ReportData TEST_REPORT_2 = new ReportData().date(TEST_START_DATETIME.toLocalDate().toString()).data(
-            TEST_REPORT_DATA_2);
+    private static final ReportData TEST_REPORT_2 = new ReportData().date(TEST_START_DATETIME.toLocalDate().toString())
+            .data(TEST_REPORT_DATA_2);
     
     private static final Study TEST_STUDY_SUMMARY = new Study().identifier(TEST_STUDY_ID).name(TEST_STUDY_ID);
     private static final Study TEST_STUDY_SUMMARY_2 = new Study().identifier(TEST_STUDY_ID_2).name(TEST_STUDY_ID_2);
@@ -161,7 +161,7 @@ public class BridgeReporterProcessorTest {
     public void setup() throws Exception {
         mockBridgeHelper = mock(BridgeHelper.class);
         when(mockBridgeHelper.getAllStudiesSummary()).thenReturn(TEST_STUDY_SUMMARY_LIST);
-        when(mockBridgeHelper.getUploadsForStudy(any(), any(), any())).thenReturn(testUploads);
+        Tests.mockUploads(mockBridgeHelper, testUploads);
 
         UploadsReportGenerator uploadsGenerator = new UploadsReportGenerator();
         uploadsGenerator.setBridgeHelper(mockBridgeHelper);
@@ -177,6 +177,9 @@ public class BridgeReporterProcessorTest {
         processor = new BridgeReporterProcessor();
         processor.setGeneratorMap(generators);
         processor.setBridgeHelper(mockBridgeHelper);
+        WriteBehindReportSaver reportSaver = new WriteBehindReportSaver();
+        reportSaver.setBridgeHelper(mockBridgeHelper);
+        processor.setReportSaver(reportSaver);
     }
 
     @Test
@@ -188,7 +191,8 @@ public class BridgeReporterProcessorTest {
 
         // verify
         verify(mockBridgeHelper).getAllStudiesSummary();
-        verify(mockBridgeHelper).getUploadsForStudy(eq(TEST_STUDY_ID), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME));
+        verify(mockBridgeHelper).forEachUploadPage(eq(TEST_STUDY_ID), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME),
+                any());
         
         verify(mockBridgeHelper).saveReportForStudy(reportCaptor.capture());
         Report report = reportCaptor.getValue();
@@ -207,7 +211,7 @@ public class BridgeReporterProcessorTest {
 
         // verify
         verify(mockBridgeHelper).getAllStudiesSummary();
-        verify(mockBridgeHelper, times(1)).getUploadsForStudy(eq(TEST_STUDY_ID), any(), any());
+        verify(mockBridgeHelper, times(1)).forEachUploadPage(eq(TEST_STUDY_ID), any(), any(), any());
 
         verify(mockBridgeHelper).saveReportForStudy(reportCaptor.capture());
         Report report = reportCaptor.getValue();
@@ -222,15 +226,17 @@ public class BridgeReporterProcessorTest {
         ArgumentCaptor<Report> reportCaptor = ArgumentCaptor.forClass(Report.class);
 
         when(mockBridgeHelper.getAllStudiesSummary()).thenReturn(TEST_STUDY_SUMMARY_LIST_2);
-        when(mockBridgeHelper.getUploadsForStudy(any(), any(), any())).thenReturn(testUploads);
+        Tests.mockUploads(mockBridgeHelper, testUploads);
 
         // execute
         processor.process(requestJson);
 
         // verify
         verify(mockBridgeHelper).getAllStudiesSummary();
-        verify(mockBridgeHelper).getUploadsForStudy(eq(TEST_STUDY_ID), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME));
-        verify(mockBridgeHelper).getUploadsForStudy(eq(TEST_STUDY_ID_2), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME));
+        verify(mockBridgeHelper).forEachUploadPage(eq(TEST_STUDY_ID), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME),
+                any());
+        verify(mockBridgeHelper).forEachUploadPage(eq(TEST_STUDY_ID_2), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME),
+                any());
         
         verify(mockBridgeHelper, times(2)).saveReportForStudy(reportCaptor.capture());
         Report report = reportCaptor.getAllValues().get(0);
@@ -251,14 +257,15 @@ public class BridgeReporterProcessorTest {
         ArgumentCaptor<Report> reportCaptor = ArgumentCaptor.forClass(Report.class);
         
         when(mockBridgeHelper.getAllStudiesSummary()).thenReturn(TEST_STUDY_SUMMARY_LIST);
-        when(mockBridgeHelper.getUploadsForStudy(any(), any(), any())).thenReturn(testUploads2);
+        Tests.mockUploads(mockBridgeHelper, testUploads2);
 
         // execute
         processor.process(requestJson);
 
         // verify
         verify(mockBridgeHelper).getAllStudiesSummary();
-        verify(mockBridgeHelper).getUploadsForStudy(eq(TEST_STUDY_ID), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME));
+        verify(mockBridgeHelper).forEachUploadPage(eq(TEST_STUDY_ID), eq(TEST_START_DATETIME), eq(TEST_END_DATETIME),
+                any());
         verify(mockBridgeHelper).saveReportForStudy(reportCaptor.capture());
         
         Report report = reportCaptor.getValue();
@@ -283,13 +290,13 @@ public class BridgeReporterProcessorTest {
         ArgumentCaptor<Report> reportCaptor = ArgumentCaptor.forClass(Report.class);
         
         when(mockBridgeHelper.getAllStudiesSummary()).thenReturn(TEST_STUDY_SUMMARY_LIST);
-        when(mockBridgeHelper.getParticipantsForStudy(TEST_STUDY_ID, startDateTime, endDateTime))
-                .thenReturn(testParticipants);
+        Tests.mockParticipants(mockBridgeHelper, testParticipants);
         
         processor.process(requestJsonDailySignUps);
         
         verify(mockBridgeHelper).getAllStudiesSummary();
-        verify(mockBridgeHelper).getParticipantsForStudy(TEST_STUDY_ID, startDateTime, endDateTime);
+        verify(mockBridgeHelper).forEachParticipantSummaryPage(eq(TEST_STUDY_ID), eq(startDateTime),
+                eq(endDateTime), any());
         verify(mockBridgeHelper).saveReportForStudy(reportCaptor.capture());
         
         Report report = reportCaptor.getValue();
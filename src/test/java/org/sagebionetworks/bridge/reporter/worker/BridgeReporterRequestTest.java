@@ -144,4 +144,24 @@ public class BridgeReporterRequestTest {
         assertEquals(request.getStartDateTime().toString(), "2016-10-19T00:00:00.000-07:00");
         assertEquals(request.getEndDateTime().toString(), "2016-10-20T23:59:59.000-07:00");
     }
+
+    @Test
+    public void backfill() throws Exception {
+        String jsonText = "{\n" +
+                "   \"scheduler\":\"test-scheduler\",\n" +
+                "   \"scheduleType\":\"DAILY\",\n" +
+                "   \"startDateTime\":\"2016-10-19T00:00:00.000Z\",\n" +
+                "   \"endDateTime\":\"2016-10-20T23:59:59.000Z\",\n" +
+                "   \"backfill\":true\n" +
+                "}";
+        BridgeReporterRequest request = DefaultObjectMapper.INSTANCE.readValue(jsonText, BridgeReporterRequest.class);
+        assertTrue(request.isBackfill());
+
+        JsonNode jsonNode = DefaultObjectMapper.INSTANCE.convertValue(request, JsonNode.class);
+        assertTrue(jsonNode.get("backfill").booleanValue());
+
+        // Copy keeps all values.
+        BridgeReporterRequest copy = BridgeReporterRequest.Builder.copyOf(request).build();
+        assertEquals(DefaultObjectMapper.INSTANCE.convertValue(copy, JsonNode.class), jsonNode);
+    }
 }
@@ -0,0 +1,61 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class FileProgressCheckpointStoreTest {
+    private static final String REQUEST_KEY = "test-scheduler|DAILY|2018-01-11T00:00:00.000Z|2018-01-11T23:59:59.999Z";
+    private static final String OTHER_REQUEST_KEY = "test-scheduler|WEEKLY|2018-01-11T00:00:00.000Z|"
+            + "2018-01-17T23:59:59.999Z";
+
+    private Path checkpointDir;
+
+    @BeforeMethod
+    public void before() throws Exception {
+        checkpointDir = Files.createTempDirectory("checkpoint-test");
+    }
+
+    @AfterMethod
+    public void after() throws Exception {
+        File[] files = checkpointDir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(checkpointDir);
+    }
+
+    @Test
+    public void noCheckpoint() throws Exception {
+        FileProgressCheckpointStore store = new FileProgressCheckpointStore(checkpointDir);
+        assertTrue(store.getCompletedStudies(REQUEST_KEY).isEmpty());
+    }
+
+    @Test
+    public void markAndClear() throws Exception {
+        FileProgressCheckpointStore store = new FileProgressCheckpointStore(checkpointDir);
+        store.markStudyCompleted(REQUEST_KEY, "study1");
+        store.markStudyCompleted(REQUEST_KEY, "study2");
+        store.markStudyCompleted(OTHER_REQUEST_KEY, "study3");
+
+        // Checkpoints survive a new store instance, as after a restart.
+        FileProgressCheckpointStore restartedStore = new FileProgressCheckpointStore(checkpointDir);
+        assertEquals(restartedStore.getCompletedStudies(REQUEST_KEY), ImmutableSet.of("study1", "study2"));
+        assertEquals(restartedStore.getCompletedStudies(OTHER_REQUEST_KEY), ImmutableSet.of("study3"));
+
+        // Clearing one request doesn't affect the other.
+        restartedStore.clear(REQUEST_KEY);
+        assertTrue(restartedStore.getCompletedStudies(REQUEST_KEY).isEmpty());
+        assertEquals(restartedStore.getCompletedStudies(OTHER_REQUEST_KEY), ImmutableSet.of("study3"));
+    }
+}
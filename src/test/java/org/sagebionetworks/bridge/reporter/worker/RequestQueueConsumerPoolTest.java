@@ -0,0 +1,185 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.joda.time.DateTimeUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.sqs.PollSqsWorkerBadRequestException;
+
+public class RequestQueueConsumerPoolTest {
+    private static final String QUEUE_URL = "dummy-queue-url";
+    private static final String RECEIPT_HANDLE = "dummy-receipt-handle";
+    private static final String MESSAGE_BODY = "{\"scheduler\":\"test-scheduler\"}";
+    private static final long MOCK_NOW_MILLIS = 1516000000000L;
+
+    private AmazonSQS mockSqsClient;
+    private BridgeReporterProcessor mockProcessor;
+    private RequestQueueConsumerPool consumerPool;
+
+    @BeforeMethod
+    public void setup() {
+        mockSqsClient = mock(AmazonSQS.class);
+        mockProcessor = mock(BridgeReporterProcessor.class);
+        consumerPool = new RequestQueueConsumerPool(mockSqsClient, QUEUE_URL, mockProcessor, 0, 2, 0L);
+    }
+
+    @AfterMethod
+    public void cleanup() throws Exception {
+        consumerPool.stop();
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void successDeletesMessage() throws Exception {
+        consumerPool.processMessage(makeMessage(MESSAGE_BODY));
+        verify(mockProcessor).process(DefaultObjectMapper.INSTANCE.readTree(MESSAGE_BODY));
+        verify(mockSqsClient).deleteMessage(QUEUE_URL, RECEIPT_HANDLE);
+    }
+
+    @Test
+    public void badRequestDeletesMessage() throws Exception {
+        doThrow(new PollSqsWorkerBadRequestException("test exception")).when(mockProcessor).process(any());
+        consumerPool.processMessage(makeMessage(MESSAGE_BODY));
+        verify(mockSqsClient).deleteMessage(QUEUE_URL, RECEIPT_HANDLE);
+    }
+
+    @Test
+    public void malformedJsonDeletesMessage() throws Exception {
+        consumerPool.processMessage(makeMessage("not json"));
+        verify(mockProcessor, never()).process(any());
+        verify(mockSqsClient).deleteMessage(QUEUE_URL, RECEIPT_HANDLE);
+    }
+
+    @Test
+    public void failureLeavesMessageForRedelivery() throws Exception {
+        doThrow(new IOException("test exception")).when(mockProcessor).process(any());
+        consumerPool.processMessage(makeMessage(MESSAGE_BODY));
+        verify(mockSqsClient, never()).deleteMessage(anyString(), anyString());
+    }
+
+    @Test
+    public void heartbeatExtendsVisibilityWhileProcessing() throws Exception {
+        // Visibility timeout is 2 seconds, so the heartbeat runs every second. Processing takes 1.5 seconds.
+        doAnswer(invocation -> {
+            Thread.sleep(1500);
+            return null;
+        }).when(mockProcessor).process(any());
+        consumerPool.processMessage(makeMessage(MESSAGE_BODY));
+        verify(mockSqsClient, atLeastOnce()).changeMessageVisibility(QUEUE_URL, RECEIPT_HANDLE, 2);
+        verify(mockSqsClient).deleteMessage(QUEUE_URL, RECEIPT_HANDLE);
+    }
+
+    @Test
+    public void heartbeatStopsAfterMaxProcessingTime() throws Exception {
+        // The heartbeat runs every second, but stops extending visibility after 1 second of processing.
+        consumerPool.setMaxProcessingSeconds(1);
+        doAnswer(invocation -> {
+            Thread.sleep(2500);
+            return null;
+        }).when(mockProcessor).process(any());
+        consumerPool.processMessage(makeMessage(MESSAGE_BODY));
+        verify(mockSqsClient, never()).changeMessageVisibility(anyString(), anyString(), anyInt());
+        verify(mockSqsClient).deleteMessage(QUEUE_URL, RECEIPT_HANDLE);
+    }
+
+    @Test
+    public void stopWaitsOnlyUpToShutdownTimeout() throws Exception {
+        // The consumer is stuck processing a message, much longer than the shutdown timeout.
+        when(mockSqsClient.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(
+                new ReceiveMessageResult().withMessages(makeMessage(MESSAGE_BODY)), new ReceiveMessageResult());
+        CountDownLatch processingLatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processingLatch.countDown();
+            Thread.sleep(60000);
+            return null;
+        }).when(mockProcessor).process(any());
+
+        consumerPool = new RequestQueueConsumerPool(mockSqsClient, QUEUE_URL, mockProcessor, 1, 300, 0L);
+        consumerPool.setShutdownTimeoutSeconds(1);
+        consumerPool.start();
+        assertTrue(processingLatch.await(5, TimeUnit.SECONDS));
+
+        // Stop gives up after the shutdown timeout, and the message is left for redelivery.
+        long startMillis = System.currentTimeMillis();
+        consumerPool.stop();
+        assertTrue(System.currentTimeMillis() - startMillis < 10000);
+        assertFalse(consumerPool.isRunning());
+        verify(mockSqsClient, never()).deleteMessage(anyString(), anyString());
+    }
+
+    @Test
+    public void recordsQueueWait() throws Exception {
+        DateTimeUtils.setCurrentMillisFixed(MOCK_NOW_MILLIS);
+        MetricRegistry metricRegistry = new MetricRegistry();
+        consumerPool.setMetricRegistry(metricRegistry);
+
+        Message message = makeMessage(MESSAGE_BODY);
+        message.addAttributesEntry("SentTimestamp", String.valueOf(MOCK_NOW_MILLIS - 3000L));
+        consumerPool.processMessage(message);
+
+        String prefix = RequestQueueConsumerPool.class.getName();
+        assertEquals(metricRegistry.timer(prefix + ".queue-wait").getSnapshot().getMax(), 3000000000L);
+        assertEquals(metricRegistry.meter(prefix + ".succeeded").getCount(), 1L);
+    }
+
+    @Test
+    public void noConsumersDoesNotStart() {
+        consumerPool.start();
+        assertFalse(consumerPool.isRunning());
+    }
+
+    @Test
+    public void consumersReceiveAndProcess() throws Exception {
+        // First receive gets a message. Later receives get nothing.
+        when(mockSqsClient.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(
+                new ReceiveMessageResult().withMessages(makeMessage(MESSAGE_BODY)), new ReceiveMessageResult());
+        CountDownLatch processedLatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processedLatch.countDown();
+            return null;
+        }).when(mockProcessor).process(any());
+
+        consumerPool = new RequestQueueConsumerPool(mockSqsClient, QUEUE_URL, mockProcessor, 2, 2, 0L);
+        consumerPool.start();
+        assertTrue(consumerPool.isRunning());
+        assertTrue(processedLatch.await(5, TimeUnit.SECONDS));
+
+        // Stopping waits for the consumer to finish with the message.
+        consumerPool.stop();
+        assertFalse(consumerPool.isRunning());
+        verify(mockSqsClient).deleteMessage(QUEUE_URL, RECEIPT_HANDLE);
+
+        verify(mockProcessor).process(any(JsonNode.class));
+        verify(mockSqsClient, never()).changeMessageVisibility(anyString(), anyString(), anyInt());
+    }
+
+    private static Message makeMessage(String body) {
+        return new Message().withMessageId("dummy-message-id").withReceiptHandle(RECEIPT_HANDLE).withBody(body);
+    }
+}
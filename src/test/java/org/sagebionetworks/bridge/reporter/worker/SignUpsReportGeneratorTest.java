@@ -6,16 +6,25 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import org.joda.time.DateTime;
 import org.testng.annotations.Test;
 
+import org.sagebionetworks.bridge.reporter.Tests;
 import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+import org.sagebionetworks.bridge.reporter.helper.PageHandler;
+import org.sagebionetworks.bridge.reporter.helper.ParticipantDetailCache;
 import org.sagebionetworks.bridge.reporter.request.ReportType;
 import org.sagebionetworks.bridge.rest.model.AccountStatus;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
 import org.sagebionetworks.bridge.rest.model.SharingScope;
 import org.sagebionetworks.bridge.rest.model.StudyParticipant;
 
@@ -40,7 +49,7 @@ public class SignUpsReportGeneratorTest {
                 .sharingScope(SharingScope.NO_SHARING));
         participants.add((StudyParticipant) new StudyParticipant().status(AccountStatus.ENABLED)
                 .sharingScope(SharingScope.SPONSORS_AND_PARTNERS));
-        when(bridgeHelper.getParticipantsForStudy(STUDY_ID, START_DATE, END_DATE)).thenReturn(participants);
+        Tests.mockParticipants(bridgeHelper, participants);
         
         SignUpsReportGenerator generator = new SignUpsReportGenerator();
         generator.setBridgeHelper(bridgeHelper);
@@ -55,7 +64,7 @@ public class SignUpsReportGeneratorTest {
         assertEquals(map.get("bySharing").get("no_sharing"), new Integer(1));
         assertEquals(map.get("bySharing").get("sponsors_and_partners"), new Integer(1));
         
-        verify(bridgeHelper).getParticipantsForStudy(STUDY_ID, START_DATE, END_DATE);
+        verify(bridgeHelper).forEachParticipantSummaryPage(eq(STUDY_ID), eq(START_DATE), eq(END_DATE), any());
     }
     
     @SuppressWarnings("unchecked")
@@ -77,7 +86,7 @@ public class SignUpsReportGeneratorTest {
                 .sharingScope(SharingScope.ALL_QUALIFIED_RESEARCHERS));
         participants.add((StudyParticipant) new StudyParticipant().status(AccountStatus.UNVERIFIED)
                 .sharingScope(SharingScope.NO_SHARING));
-        when(bridgeHelper.getParticipantsForStudy(STUDY_ID, START_DATE, END_DATE)).thenReturn(participants);
+        Tests.mockParticipants(bridgeHelper, participants);
         
         SignUpsReportGenerator generator = new SignUpsReportGenerator();
         generator.setBridgeHelper(bridgeHelper);
@@ -98,4 +107,102 @@ public class SignUpsReportGeneratorTest {
         assertEquals(map.get("bySharing").get("all_qualified_researchers"), new Integer(1));
         assertEquals(map.get("bySharing").get("sponsors_and_partners"), new Integer(0));
     }
+
+    @Test
+    public void detailsOnlyFetchedForEnabledAccounts() throws Exception {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY_SIGNUPS)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(END_DATE).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        List<StudyParticipant> participants = new ArrayList<>();
+        participants.add(new StudyParticipant().id("enabled-user").status(AccountStatus.ENABLED)
+                .sharingScope(SharingScope.NO_SHARING));
+        participants.add(new StudyParticipant().id("disabled-user").status(AccountStatus.DISABLED)
+                .sharingScope(SharingScope.NO_SHARING));
+        participants.add(new StudyParticipant().id("unverified-user").status(AccountStatus.UNVERIFIED)
+                .sharingScope(SharingScope.NO_SHARING));
+        Tests.mockParticipants(bridgeHelper, participants);
+
+        SignUpsReportGenerator generator = new SignUpsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.generate(request, STUDY_ID);
+
+        // Only the enabled account needs details. Disabled and unverified accounts are counted from the summaries.
+        verify(bridgeHelper).getParticipantDetails(STUDY_ID, ImmutableList.of("enabled-user"));
+        verify(bridgeHelper, never()).getParticipantDetails(STUDY_ID, ImmutableList.of("disabled-user"));
+        verify(bridgeHelper, never()).getParticipantDetails(STUDY_ID, ImmutableList.of("unverified-user"));
+    }
+
+    @Test
+    public void cachedDetailsNotRefetched() throws Exception {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY_SIGNUPS)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(END_DATE).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        List<StudyParticipant> participants = new ArrayList<>();
+        participants.add(new StudyParticipant().id("user1").status(AccountStatus.ENABLED)
+                .sharingScope(SharingScope.NO_SHARING).createdOn(START_DATE));
+        participants.add(new StudyParticipant().id("user2").status(AccountStatus.ENABLED)
+                .sharingScope(SharingScope.ALL_QUALIFIED_RESEARCHERS).createdOn(START_DATE));
+        Tests.mockParticipants(bridgeHelper, participants);
+
+        SignUpsReportGenerator generator = new SignUpsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.setParticipantDetailCache(new ParticipantDetailCache(null, 100, 60000L));
+
+        // The first run fetches details. The rerun gets them from the cache, and the report is the same.
+        Report firstReport = generator.generate(request, STUDY_ID);
+        Report secondReport = generator.generate(request, STUDY_ID);
+        assertEquals(secondReport.getData(), firstReport.getData());
+
+        // The rerun has nothing to fetch, so it doesn't call Bridge at all.
+        verify(bridgeHelper).getParticipantDetails(STUDY_ID, ImmutableList.of("user1", "user2"));
+        verify(bridgeHelper, never()).getParticipantDetails(STUDY_ID, ImmutableList.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void summariesWithoutStatusFetchedInBatch() throws Exception {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY_SIGNUPS)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(END_DATE).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        // Two summaries are missing the status, and one is an enabled account.
+        List<AccountSummary> summaryList = ImmutableList.of(new AccountSummary().id("no-status-1"),
+                new AccountSummary().id("enabled-user").status(AccountStatus.ENABLED),
+                new AccountSummary().id("no-status-2"));
+        doAnswer(invocation -> {
+            invocation.getArgumentAt(3, PageHandler.class).handlePage(summaryList);
+            return null;
+        }).when(bridgeHelper).forEachParticipantSummaryPage(any(), any(), any(), any());
+        when(bridgeHelper.getParticipantDetails(STUDY_ID, ImmutableList.of("no-status-1", "enabled-user",
+                "no-status-2"))).thenReturn(ImmutableList.of(
+                        new StudyParticipant().id("no-status-1").status(AccountStatus.DISABLED),
+                        new StudyParticipant().id("enabled-user").status(AccountStatus.ENABLED)
+                                .sharingScope(SharingScope.NO_SHARING),
+                        new StudyParticipant().id("no-status-2").status(AccountStatus.ENABLED)
+                                .sharingScope(SharingScope.SPONSORS_AND_PARTNERS)));
+
+        SignUpsReportGenerator generator = new SignUpsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        Report report = generator.generate(request, STUDY_ID);
+
+        Map<String,Map<String,Integer>> map = (Map<String,Map<String,Integer>>)report.getData();
+        assertEquals(map.get("byStatus").get("enabled"), new Integer(2));
+        assertEquals(map.get("byStatus").get("disabled"), new Integer(1));
+        assertEquals(map.get("bySharing").get("no_sharing"), new Integer(1));
+        assertEquals(map.get("bySharing").get("sponsors_and_partners"), new Integer(1));
+
+        // One batch for the whole page, instead of one call per summary without a status.
+        verify(bridgeHelper).getParticipantDetails(eq(STUDY_ID), any());
+    }
 }
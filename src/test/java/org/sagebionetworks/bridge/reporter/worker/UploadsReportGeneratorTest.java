@@ -1,19 +1,37 @@
 package org.sagebionetworks.bridge.reporter.worker;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.reporter.Tests;
+import org.sagebionetworks.bridge.reporter.aggregation.HyperLogLog;
 import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+import org.sagebionetworks.bridge.reporter.helper.PageHandler;
 import org.sagebionetworks.bridge.reporter.request.ReportType;
+import org.sagebionetworks.bridge.rest.model.ReportData;
 import org.sagebionetworks.bridge.rest.model.Upload;
 import org.sagebionetworks.bridge.rest.model.UploadStatus;
 
@@ -36,7 +54,7 @@ public class UploadsReportGeneratorTest {
         List<Upload> uploads = new ArrayList<>();
         uploads.add(new Upload().recordId("record1").status(UploadStatus.SUCCEEDED));
         uploads.add(new Upload().recordId("record2").status(UploadStatus.REQUESTED));
-        when(bridgeHelper.getUploadsForStudy(STUDY_ID, START_DATE, END_DATE)).thenReturn(uploads);
+        Tests.mockUploads(bridgeHelper, uploads);
         
         UploadsReportGenerator generator = new UploadsReportGenerator();
         generator.setBridgeHelper(bridgeHelper);
@@ -49,6 +67,365 @@ public class UploadsReportGeneratorTest {
         assertEquals(map.get("requested"), new Integer(1));
         assertEquals(map.get("succeeded"), new Integer(1));
         
-        verify(bridgeHelper).getUploadsForStudy(STUDY_ID, START_DATE, END_DATE);
+        verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(START_DATE), eq(END_DATE), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void weeklyRollup() throws Exception {
+        DateTime weekStartDate = DateTime.parse("2017-06-05T00:00:00.000-07:00");
+        DateTime weekEndDate = DateTime.parse("2017-06-11T23:59:59.999-07:00");
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.WEEKLY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(weekStartDate)
+                .withEndDateTime(weekEndDate).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        // Daily reports for every day except 2017-06-08. Report data comes back from Bridge with double values.
+        List<ReportData> dailyReports = new ArrayList<>();
+        for (LocalDate date = LocalDate.parse("2017-06-05"); !date.isAfter(LocalDate.parse("2017-06-11"));
+                date = date.plusDays(1)) {
+            if (!date.equals(LocalDate.parse("2017-06-08"))) {
+                dailyReports.add(new ReportData().date(date.toString()).data(ImmutableMap.of("succeeded", 2.0,
+                        "requested", 1.0)));
+            }
+        }
+        when(bridgeHelper.getReportsForStudy(STUDY_ID, "test-scheduler-daily-upload-report",
+                LocalDate.parse("2017-06-05"), LocalDate.parse("2017-06-11"))).thenReturn(dailyReports);
+
+        // The missing day is rescanned.
+        List<Upload> uploads = new ArrayList<>();
+        uploads.add(new Upload().recordId("record1").status(UploadStatus.SUCCEEDED));
+        uploads.add(new Upload().recordId("record2").status(UploadStatus.VALIDATION_FAILED));
+        Tests.mockUploads(bridgeHelper, uploads);
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.setRollupEnabled(true);
+        Report report = generator.generate(request, STUDY_ID);
+
+        assertEquals(report.getReportId(), "test-scheduler-weekly-upload-report");
+        assertEquals(report.getDate().toString(), "2017-06-05");
+        Map<String, Integer> map = (Map<String, Integer>)report.getData();
+        assertEquals(map.get("succeeded"), new Integer(13));
+        assertEquals(map.get("requested"), new Integer(6));
+        assertEquals(map.get("validation_failed"), new Integer(1));
+
+        // Only the missing day was scanned.
+        verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(DateTime.parse("2017-06-08T00:00:00.000-07:00")),
+                eq(DateTime.parse("2017-06-08T23:59:59.999-07:00")), any());
+        verify(bridgeHelper, times(1)).forEachUploadPage(any(), any(), any(), any());
+    }
+
+    @DataProvider
+    public Object[][] rollupTypes() {
+        return new Object[][] { { ReportType.WEEKLY }, { ReportType.WEEKLY_UPLOAD_LATENCY },
+                { ReportType.WEEKLY_UNIQUE_UPLOADERS } };
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(dataProvider = "rollupTypes")
+    public void rollupMatchesFullWeeklyScan(ReportType weeklyType) throws Exception {
+        DateTime weekStartDate = DateTime.parse("2017-06-05T00:00:00.000-07:00");
+        DateTime weekEndDate = DateTime.parse("2017-06-11T23:59:59.999-07:00");
+
+        // A different mix of statuses, latencies, and uploaders every day. Some participants upload on several days.
+        UploadStatus[] statuses = UploadStatus.values();
+        List<Upload> uploadList = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            for (int i = 0; i <= day * 3; i++) {
+                DateTime requestedOn = weekStartDate.plusDays(day).plusMinutes(i * 7);
+                uploadList.add(new Upload().recordId("record-" + day + "-" + i)
+                        .status(statuses[(day + i) % statuses.length]).healthCode("healthCode-" + (day * i % 11))
+                        .requestedOn(requestedOn).completedOn(requestedOn.plusMillis(5 + (day * 37 + i * 13) % 400)));
+            }
+        }
+
+        // Each scan only sees the uploads requested in its date range.
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+        doAnswer(invocation -> {
+            DateTime startDateTime = invocation.getArgumentAt(1, DateTime.class);
+            DateTime endDateTime = invocation.getArgumentAt(2, DateTime.class);
+            PageHandler<Upload> pageHandler = invocation.getArgumentAt(3, PageHandler.class);
+            pageHandler.handlePage(uploadList.stream().filter(upload -> !upload.getRequestedOn()
+                    .isBefore(startDateTime) && !upload.getRequestedOn().isAfter(endDateTime))
+                    .collect(Collectors.toList()));
+            return null;
+        }).when(bridgeHelper).forEachUploadPage(any(), any(), any(), any());
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+
+        // Daily reports for every day but one, saved and read back as JSON, like they are in Bridge.
+        ReportType dailyType = weeklyType.getRollupDailyType();
+        List<ReportData> dailyReports = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            if (day != 3) {
+                DateTime dayStartDate = weekStartDate.plusDays(day);
+                Report dailyReport = generator.generate(new BridgeReporterRequest.Builder()
+                        .withScheduleType(dailyType).withScheduler("test-scheduler").withStartDateTime(dayStartDate)
+                        .withEndDateTime(dayStartDate.plusDays(1).minusMillis(1)).build(), STUDY_ID);
+                dailyReports.add(new ReportData().date(dailyReport.getDate().toString()).data(
+                        DefaultObjectMapper.INSTANCE.readValue(DefaultObjectMapper.INSTANCE.writeValueAsString(
+                                dailyReport.getData()), Map.class)));
+            }
+        }
+        when(bridgeHelper.getReportsForStudy(STUDY_ID, "test-scheduler" + dailyType.getSuffix(),
+                LocalDate.parse("2017-06-05"), LocalDate.parse("2017-06-11"))).thenReturn(dailyReports);
+
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder().withScheduleType(weeklyType)
+                .withScheduler("test-scheduler").withStartDateTime(weekStartDate).withEndDateTime(weekEndDate)
+                .build();
+        Report fullScanReport = generator.generate(request, STUDY_ID);
+        generator.setRollupEnabled(true);
+        Report rollupReport = generator.generate(request, STUDY_ID);
+
+        assertEquals(rollupReport.getReportId(), fullScanReport.getReportId());
+        assertEquals(rollupReport.getDate(), fullScanReport.getDate());
+        assertEquals(rollupReport.getData(), fullScanReport.getData());
+    }
+
+    @Test
+    public void weeklyWithoutRollupScansWholeWeek() throws Exception {
+        DateTime weekStartDate = DateTime.parse("2017-06-05T00:00:00.000-07:00");
+        DateTime weekEndDate = DateTime.parse("2017-06-11T23:59:59.999-07:00");
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.WEEKLY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(weekStartDate)
+                .withEndDateTime(weekEndDate).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+        Tests.mockUploads(bridgeHelper, ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED)));
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.generate(request, STUDY_ID);
+
+        verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(weekStartDate), eq(weekEndDate), any());
+        verify(bridgeHelper, never()).getReportsForStudy(any(), any(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void weeklyScannedInDailySlices() throws Exception {
+        DateTime weekStartDate = DateTime.parse("2017-06-05T00:00:00.000-07:00");
+        DateTime weekEndDate = DateTime.parse("2017-06-11T23:59:59.999-07:00");
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.WEEKLY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(weekStartDate)
+                .withEndDateTime(weekEndDate).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+        Tests.mockUploads(bridgeHelper, ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED),
+                new Upload().status(UploadStatus.REQUESTED)));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            UploadsReportGenerator generator = new UploadsReportGenerator();
+            generator.setBridgeHelper(bridgeHelper);
+            generator.setScanSliceHours(24);
+            generator.setUploadScanExecutorService(executorService);
+            Report report = generator.generate(request, STUDY_ID);
+
+            // Each day's slice returns the mocked uploads, so counts are merged across all 7 days.
+            Map<String, Integer> map = (Map<String, Integer>) report.getData();
+            assertEquals(map, ImmutableMap.of("succeeded", 7, "requested", 7));
+        } finally {
+            executorService.shutdown();
+        }
+
+        for (int i = 0; i < 7; i++) {
+            verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(weekStartDate.plusDays(i)),
+                    eq(weekStartDate.plusDays(i + 1).minusMillis(1)), any());
+        }
+        verify(bridgeHelper, times(7)).forEachUploadPage(any(), any(), any(), any());
+    }
+
+    @Test
+    public void lastSliceClippedToEndDate() throws Exception {
+        DateTime endDate = START_DATE.plusHours(30);
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(endDate).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+        Tests.mockUploads(bridgeHelper, ImmutableList.of());
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.setScanSliceHours(24);
+        generator.generate(request, STUDY_ID);
+
+        verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(START_DATE), eq(END_DATE), any());
+        verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(START_DATE.plusDays(1)), eq(endDate), any());
+        verify(bridgeHelper, times(2)).forEachUploadPage(any(), any(), any(), any());
+    }
+
+    @Test
+    public void dailyNotSliced() throws Exception {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(END_DATE).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+        Tests.mockUploads(bridgeHelper, ImmutableList.of());
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.setScanSliceHours(24);
+        generator.generate(request, STUDY_ID);
+
+        verify(bridgeHelper).forEachUploadPage(eq(STUDY_ID), eq(START_DATE), eq(END_DATE), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void dailyLatency() throws Exception {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY_UPLOAD_LATENCY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(END_DATE).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        // Latencies of 1 to 10 seconds, in exact buckets, and an upload that hasn't completed.
+        List<Upload> uploads = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            DateTime requestedOn = START_DATE.plusHours(i);
+            uploads.add(new Upload().status(UploadStatus.SUCCEEDED).requestedOn(requestedOn)
+                    .completedOn(requestedOn.plusMillis(i)));
+        }
+        uploads.add(new Upload().status(UploadStatus.REQUESTED).requestedOn(START_DATE));
+        Tests.mockUploads(bridgeHelper, uploads);
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        Report report = generator.generate(request, STUDY_ID);
+
+        assertEquals(report.getReportId(), "test-scheduler-daily-upload-latency-report");
+        Map<String, Object> map = (Map<String, Object>) report.getData();
+        assertEquals(map.get("count"), 10L);
+        assertEquals(map.get("p50"), 5L);
+        assertEquals(map.get("p90"), 9L);
+        assertEquals(map.get("p99"), 10L);
+        assertEquals(map.get("max"), 10L);
+        assertEquals(((Map<String, Long>) map.get("histogram")).size(), 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void weeklyLatencyRollup() throws Exception {
+        DateTime weekStartDate = DateTime.parse("2017-06-05T00:00:00.000-07:00");
+        DateTime weekEndDate = DateTime.parse("2017-06-11T23:59:59.999-07:00");
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.WEEKLY_UPLOAD_LATENCY)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(weekStartDate)
+                .withEndDateTime(weekEndDate).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        // Daily reports for every day except 2017-06-08, each with one 20 ms upload. Report data comes back from Bridge
+        // with double values.
+        List<ReportData> dailyReports = new ArrayList<>();
+        for (LocalDate date = LocalDate.parse("2017-06-05"); !date.isAfter(LocalDate.parse("2017-06-11"));
+                date = date.plusDays(1)) {
+            if (!date.equals(LocalDate.parse("2017-06-08"))) {
+                dailyReports.add(new ReportData().date(date.toString()).data(ImmutableMap.of("count", 1.0, "p50",
+                        20.0, "max", 20.0, "histogram", ImmutableMap.of("20", 1.0))));
+            }
+        }
+        when(bridgeHelper.getReportsForStudy(STUDY_ID, "test-scheduler-daily-upload-latency-report",
+                LocalDate.parse("2017-06-05"), LocalDate.parse("2017-06-11"))).thenReturn(dailyReports);
+
+        // The missing day is rescanned, and has one slow upload.
+        DateTime requestedOn = DateTime.parse("2017-06-08T12:00:00.000-07:00");
+        Tests.mockUploads(bridgeHelper, ImmutableList.of(new Upload().status(UploadStatus.SUCCEEDED)
+                .requestedOn(requestedOn).completedOn(requestedOn.plusMillis(40))));
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.setRollupEnabled(true);
+        Report report = generator.generate(request, STUDY_ID);
+
+        assertEquals(report.getReportId(), "test-scheduler-weekly-upload-latency-report");
+        Map<String, Object> map = (Map<String, Object>) report.getData();
+        assertEquals(map.get("count"), 7L);
+        assertEquals(map.get("p50"), 20L);
+        assertEquals(map.get("max"), 40L);
+
+        verify(bridgeHelper, times(1)).forEachUploadPage(any(), any(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void dailyUniqueUploaders() throws Exception {
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.DAILY_UNIQUE_UPLOADERS)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(START_DATE)
+                .withEndDateTime(END_DATE).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        // 3 participants, one of whom uploaded twice, and an upload without a health code.
+        Tests.mockUploads(bridgeHelper, ImmutableList.of(new Upload().healthCode("healthCode-1"),
+                new Upload().healthCode("healthCode-2"), new Upload().healthCode("healthCode-1"),
+                new Upload().healthCode("healthCode-3"), new Upload()));
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        Report report = generator.generate(request, STUDY_ID);
+
+        assertEquals(report.getReportId(), "test-scheduler-daily-unique-uploaders-report");
+        Map<String, Object> map = (Map<String, Object>) report.getData();
+        assertEquals(map.get("count"), 3L);
+        assertTrue(map.get("sketch") instanceof String);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void monthlyUniqueUploadersRollup() throws Exception {
+        DateTime monthStartDate = DateTime.parse("2017-06-01T00:00:00.000-07:00");
+        DateTime monthEndDate = DateTime.parse("2017-06-30T23:59:59.999-07:00");
+        BridgeReporterRequest request = new BridgeReporterRequest.Builder()
+                .withScheduleType(ReportType.MONTHLY_UNIQUE_UPLOADERS)
+                .withScheduler("test-scheduler")
+                .withStartDateTime(monthStartDate)
+                .withEndDateTime(monthEndDate).build();
+        BridgeHelper bridgeHelper = mock(BridgeHelper.class);
+
+        // Daily reports for every day except 2017-06-15. Each day, the same participant uploads, plus one new one.
+        List<ReportData> dailyReports = new ArrayList<>();
+        for (LocalDate date = LocalDate.parse("2017-06-01"); !date.isAfter(LocalDate.parse("2017-06-30"));
+                date = date.plusDays(1)) {
+            if (!date.equals(LocalDate.parse("2017-06-15"))) {
+                HyperLogLog sketch = new HyperLogLog();
+                sketch.add("healthCode-daily");
+                sketch.add("healthCode-" + date);
+                dailyReports.add(new ReportData().date(date.toString()).data(ImmutableMap.of("count", 2.0,
+                        "sketch", sketch.toBase64())));
+            }
+        }
+        when(bridgeHelper.getReportsForStudy(STUDY_ID, "test-scheduler-daily-unique-uploaders-report",
+                LocalDate.parse("2017-06-01"), LocalDate.parse("2017-06-30"))).thenReturn(dailyReports);
+
+        // The missing day is rescanned, and has the same participant plus a new one.
+        Tests.mockUploads(bridgeHelper, ImmutableList.of(new Upload().healthCode("healthCode-daily"),
+                new Upload().healthCode("healthCode-2017-06-15")));
+
+        UploadsReportGenerator generator = new UploadsReportGenerator();
+        generator.setBridgeHelper(bridgeHelper);
+        generator.setRollupEnabled(true);
+        Report report = generator.generate(request, STUDY_ID);
+
+        assertEquals(report.getReportId(), "test-scheduler-monthly-unique-uploaders-report");
+        Map<String, Object> map = (Map<String, Object>) report.getData();
+        // 31 distinct participants. The estimate is within one of that.
+        long count = (Long) map.get("count");
+        assertTrue(count >= 30L && count <= 32L, "expected ~31, was " + count);
+
+        verify(bridgeHelper, times(1)).forEachUploadPage(any(), any(), any(), any());
     }
 }
@@ -0,0 +1,101 @@
+package org.sagebionetworks.bridge.reporter.worker;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.LocalDate;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import org.sagebionetworks.bridge.reporter.helper.BridgeHelper;
+
+public class WriteBehindReportSaverTest {
+    private static final Report REPORT = new Report.Builder().withStudyId("test-study").withReportId("test-report")
+            .withDate(LocalDate.parse("2018-01-11")).withReportData("dummy data").build();
+
+    private BridgeHelper mockBridgeHelper;
+    private WriteBehindReportSaver reportSaver;
+
+    @BeforeMethod
+    public void setup() {
+        mockBridgeHelper = mock(BridgeHelper.class);
+        reportSaver = new WriteBehindReportSaver();
+        reportSaver.setBridgeHelper(mockBridgeHelper);
+    }
+
+    @Test
+    public void savesAndRunsAfterSave() throws Exception {
+        AtomicInteger afterSaveCount = new AtomicInteger();
+        reportSaver.submit(REPORT, afterSaveCount::incrementAndGet).get();
+
+        verify(mockBridgeHelper).saveReportForStudy(REPORT);
+        assertEquals(afterSaveCount.get(), 1);
+    }
+
+    @Test
+    public void failedSaveNotRetried() throws Exception {
+        // BridgeHelper already retried the call, so the saver doesn't retry it again.
+        IOException saveException = new IOException("test exception");
+        doThrow(saveException).when(mockBridgeHelper).saveReportForStudy(REPORT);
+
+        AtomicInteger afterSaveCount = new AtomicInteger();
+        try {
+            reportSaver.submit(REPORT, afterSaveCount::incrementAndGet).get();
+            fail("expected exception");
+        } catch (ExecutionException ex) {
+            assertSame(ex.getCause(), saveException);
+        }
+
+        verify(mockBridgeHelper, times(1)).saveReportForStudy(REPORT);
+        assertEquals(afterSaveCount.get(), 0);
+    }
+
+    @Test
+    public void submitBlocksWhenQueueIsFull() throws Exception {
+        // The first save blocks until released.
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            releaseLatch.await();
+            return null;
+        }).when(mockBridgeHelper).saveReportForStudy(REPORT);
+
+        ExecutorService reportSaveExecutorService = Executors.newFixedThreadPool(2);
+        ExecutorService submitExecutorService = Executors.newSingleThreadExecutor();
+        try {
+            reportSaver.setReportSaveExecutorService(reportSaveExecutorService);
+            reportSaver.setQueueCapacity(1);
+            Future<?> firstSaveFuture = reportSaver.submit(REPORT, () -> {});
+
+            // The second submit waits for the first save to finish.
+            Future<Future<?>> secondSubmitFuture = submitExecutorService.submit(() -> reportSaver.submit(REPORT,
+                    () -> {}));
+            Thread.sleep(100);
+            assertFalse(secondSubmitFuture.isDone());
+
+            releaseLatch.countDown();
+            firstSaveFuture.get(5, TimeUnit.SECONDS);
+            secondSubmitFuture.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+            assertTrue(secondSubmitFuture.isDone());
+        } finally {
+            reportSaveExecutorService.shutdown();
+            submitExecutorService.shutdown();
+        }
+    }
+}